@@ -0,0 +1,62 @@
+package org.stonlexx.gamelibrary.benchmark;
+
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+import java.util.UUID;
+
+/**
+ * Типичный игровой пакет: номер, время, имя игрока,
+ * его UUID и произвольная полезная нагрузка
+ */
+public class BenchmarkPacket extends AbstractNettyPacket {
+
+    public int entityId;
+    public long timestamp;
+
+    public String playerName;
+    public UUID playerUuid;
+
+    public byte[] payload;
+
+
+    public BenchmarkPacket() {
+    }
+
+    public BenchmarkPacket(int payloadSize) {
+        this.entityId = 1337;
+        this.timestamp = System.currentTimeMillis();
+
+        this.playerName = "ItzStonlex";
+        this.playerUuid = UUID.randomUUID();
+
+        this.payload = new byte[payloadSize];
+
+        for (int i = 0; i < payloadSize; i++) {
+            payload[i] = (byte) (i % 31);
+        }
+    }
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeVarInt(entityId);
+        packetBuffer.writeLong(timestamp);
+
+        packetBuffer.writeString(playerName);
+        packetBuffer.writeUUID(playerUuid);
+
+        packetBuffer.writeArray(payload);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        entityId = packetBuffer.readVarInt();
+        timestamp = packetBuffer.readLong();
+
+        playerName = packetBuffer.readString();
+        playerUuid = packetBuffer.readUUID();
+
+        payload = packetBuffer.readArray();
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.stonlexx.gamelibrary.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск всех бенчмарков с профилировщиком GC, который
+ * добавляет к результатам скорость выделения памяти
+ * (gc.alloc.rate.norm - байт на операцию)
+ *
+ * Первый аргумент - регулярное выражение для выбора
+ * бенчмарков, например {@code PacketRoundTrip}
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
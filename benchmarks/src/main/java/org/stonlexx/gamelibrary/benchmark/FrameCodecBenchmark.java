@@ -0,0 +1,103 @@
+package org.stonlexx.gamelibrary.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21FrameDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21LengthFieldEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фрейминг через {@link EmbeddedChannel}: запись длины фрейма
+ * {@link Varint21LengthFieldEncoder} и нарезка потока на фреймы
+ * {@link Varint21FrameDecoder}, в том числе когда в одном
+ * чтении из сокета приходит сразу много фреймов
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameCodecBenchmark {
+
+    /**
+     * Размер тела фрейма в байтах
+     */
+    @Param({"16", "512", "16384"})
+    public int frameSize;
+
+    /**
+     * Количество фреймов в одном чтении
+     */
+    @Param({"1", "32"})
+    public int framesPerRead;
+
+    private EmbeddedChannel encoderChannel;
+    private EmbeddedChannel decoderChannel;
+
+    private ByteBuf frameBody;
+    private ByteBuf framedStream;
+
+
+    @Setup
+    public void setup() {
+        this.encoderChannel = new EmbeddedChannel(new Varint21LengthFieldEncoder());
+        this.decoderChannel = new EmbeddedChannel(new Varint21FrameDecoder());
+
+        this.frameBody = PooledByteBufAllocator.DEFAULT.directBuffer(frameSize);
+        frameBody.writeZero(frameSize);
+
+        this.framedStream = PooledByteBufAllocator.DEFAULT.directBuffer();
+
+        for (int i = 0; i < framesPerRead; i++) {
+            encoderChannel.writeOutbound(frameBody.retainedDuplicate());
+            ByteBuf frame = encoderChannel.readOutbound();
+
+            framedStream.writeBytes(frame);
+            frame.release();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        frameBody.release();
+        framedStream.release();
+
+        encoderChannel.finishAndReleaseAll();
+        decoderChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encode() {
+        int readableBytes = 0;
+
+        for (int i = 0; i < framesPerRead; i++) {
+            encoderChannel.writeOutbound(frameBody.retainedDuplicate());
+            ByteBuf frame = encoderChannel.readOutbound();
+
+            readableBytes += frame.readableBytes();
+            frame.release();
+        }
+
+        return readableBytes;
+    }
+
+    @Benchmark
+    public int decode() {
+        decoderChannel.writeInbound(framedStream.retainedDuplicate());
+
+        int readableBytes = 0;
+        ByteBuf frame;
+
+        while ((frame = decoderChannel.readInbound()) != null) {
+            readableBytes += frame.readableBytes();
+            frame.release();
+        }
+
+        return readableBytes;
+    }
+
+}
@@ -0,0 +1,133 @@
+package org.stonlexx.gamelibrary.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и чтение примитивов {@link NettyPacketBuffer}:
+ * varint разной ширины, строк и UUID
+ *
+ * Параметры разнесены по состояниям, чтобы каждый
+ * бенчмарк перебирал только свои комбинации
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NettyPacketBufferBenchmark {
+
+    @State(Scope.Thread)
+    public static class BufferState {
+
+        @Param({"true", "false"})
+        public boolean directBuffer;
+
+        ByteBuf byteBuf;
+        NettyPacketBuffer nettyPacketBuffer;
+
+
+        @Setup
+        public void setup() {
+            this.byteBuf = directBuffer
+                    ? PooledByteBufAllocator.DEFAULT.directBuffer(4096)
+                    : PooledByteBufAllocator.DEFAULT.heapBuffer(4096);
+
+            this.nettyPacketBuffer = new NettyPacketBuffer(byteBuf);
+        }
+
+        @TearDown
+        public void tearDown() {
+            byteBuf.release();
+        }
+
+        NettyPacketBuffer clear() {
+            byteBuf.clear();
+            return nettyPacketBuffer;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class VarIntState {
+
+        /**
+         * Значения на 1, 2, 3 и 5 байт varint
+         */
+        @Param({"1", "300", "70000", "-1"})
+        public int value;
+    }
+
+    @State(Scope.Thread)
+    public static class StringState {
+
+        /**
+         * Длина строки в символах
+         */
+        @Param({"16", "256"})
+        public int length;
+
+        /**
+         * Строка из латиницы (1 байт на символ)
+         * или кириллицы (2 байта на символ)
+         */
+        @Param({"ascii", "cyrillic"})
+        public String charset;
+
+        String string;
+
+
+        @Setup
+        public void setup() {
+            StringBuilder stringBuilder = new StringBuilder();
+            char firstChar = charset.equals("ascii") ? 'a' : 'а';
+
+            for (int i = 0; i < length; i++) {
+                stringBuilder.append((char) (firstChar + i % 26));
+            }
+
+            this.string = stringBuilder.toString();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UuidState {
+
+        UUID uuid = UUID.randomUUID();
+    }
+
+
+    @Benchmark
+    public int varInt(BufferState bufferState, VarIntState varIntState) {
+        NettyPacketBuffer nettyPacketBuffer = bufferState.clear();
+
+        nettyPacketBuffer.writeVarInt(varIntState.value);
+        return nettyPacketBuffer.readVarInt();
+    }
+
+    @Benchmark
+    public int varIntSize(VarIntState varIntState) {
+        return NettyPacketBuffer.getVarIntSize(varIntState.value);
+    }
+
+    @Benchmark
+    public String string(BufferState bufferState, StringState stringState) {
+        NettyPacketBuffer nettyPacketBuffer = bufferState.clear();
+
+        nettyPacketBuffer.writeString(stringState.string);
+        return nettyPacketBuffer.readString();
+    }
+
+    @Benchmark
+    public UUID uuid(BufferState bufferState, UuidState uuidState) {
+        NettyPacketBuffer nettyPacketBuffer = bufferState.clear();
+
+        nettyPacketBuffer.writeUUID(uuidState.uuid);
+        return nettyPacketBuffer.readUUID();
+    }
+
+}
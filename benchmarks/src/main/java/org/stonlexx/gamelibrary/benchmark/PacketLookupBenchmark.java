@@ -0,0 +1,182 @@
+package org.stonlexx.gamelibrary.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.NettyManager;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поиск пакетов в {@link NettyManager} по классу и по номеру,
+ * когда зарегистрировано много типизаций пакетов
+ *
+ * Каждый пакет - отдельный класс, загруженный своим загрузчиком
+ * из байткода {@link BenchmarkPacket}, поэтому в индексе
+ * столько же классов, сколько и номеров
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketLookupBenchmark {
+
+    private static final int PACKETS_PER_TYPING = 32;
+
+    /**
+     * Номера пакетов и типизаций уникальны в пределах JVM, чтобы
+     * не пересечься с пакетами других типизаций: при конфликте
+     * номеров индекс оставляет пакет более ранней типизации
+     */
+    private static final AtomicInteger NEXT_PACKET_ID = new AtomicInteger(1 << 20);
+    private static final AtomicInteger NEXT_TYPING_ID = new AtomicInteger();
+
+    @Param({"1", "16", "64"})
+    public int typingCount;
+
+    /**
+     * Тип ключа пакетов: int ищется без упаковки,
+     * String - через общий поиск по Object
+     */
+    @Param({"int", "string"})
+    public String keyType;
+
+    private final NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
+
+    private Class<? extends NettyPacket>[] packetClasses;
+    private int[] intPacketIds;
+    private Object[] packetIds;
+
+    private int cursor;
+
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        int packetCount = typingCount * PACKETS_PER_TYPING;
+        byte[] packetBytecode = readBytecode(BenchmarkPacket.class);
+
+        this.packetClasses = new Class[packetCount];
+        this.intPacketIds = new int[packetCount];
+        this.packetIds = new Object[packetCount];
+
+        for (int typingIndex = 0; typingIndex < typingCount; typingIndex++) {
+            String typingName = "benchmark-lookup-" + NEXT_TYPING_ID.getAndIncrement();
+
+            NettyPacketTyping<Integer> intPacketTyping = keyType.equals("int") ? nettyManager.getPacketTyping(Integer.class, typingName) : null;
+            NettyPacketTyping<String> stringPacketTyping = keyType.equals("string") ? nettyManager.getPacketTyping(String.class, typingName) : null;
+
+            for (int i = 0; i < PACKETS_PER_TYPING; i++) {
+                int packetIndex = typingIndex * PACKETS_PER_TYPING + i;
+                int packetId = NEXT_PACKET_ID.getAndIncrement();
+                Class<? extends NettyPacket> packetClass = new BytecodeClassLoader(BenchmarkPacket.class.getName(), packetBytecode).loadPacketClass();
+
+                packetClasses[packetIndex] = packetClass;
+                intPacketIds[packetIndex] = packetId;
+
+                if (intPacketTyping != null) {
+                    packetIds[packetIndex] = packetId;
+                    intPacketTyping.registerPacket(NettyPacketDirection.GLOBAL, packetClass, packetId);
+
+                } else {
+
+                    packetIds[packetIndex] = "packet-" + packetId;
+                    stringPacketTyping.registerPacket(NettyPacketDirection.GLOBAL, packetClass, "packet-" + packetId);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public NettyPacketIndex.Entry findByClass() {
+        return nettyManager.findPacketEntry(NettyPacketDirection.ONLY_ENCODE, packetClasses[nextIndex()]);
+    }
+
+    @Benchmark
+    public NettyPacketIndex.Entry findById() {
+        int packetIndex = nextIndex();
+
+        return keyType.equals("int")
+                ? nettyManager.findPacketEntry(NettyPacketDirection.ONLY_DECODE, intPacketIds[packetIndex])
+                : nettyManager.findPacketEntry(NettyPacketDirection.ONLY_DECODE, packetIds[packetIndex]);
+    }
+
+    @Benchmark
+    public Object findIdByClass() {
+        return nettyManager.getNettyPacketId(NettyPacketDirection.ONLY_ENCODE, packetClasses[nextIndex()]);
+    }
+
+
+    private int nextIndex() {
+        int packetIndex = cursor;
+        cursor = packetIndex + 1 == packetClasses.length ? 0 : packetIndex + 1;
+
+        return packetIndex;
+    }
+
+    private static byte[] readBytecode(Class<?> loadedClass) throws IOException {
+        try (InputStream inputStream = loadedClass.getResourceAsStream(loadedClass.getSimpleName() + ".class")) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+
+            int length;
+
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+
+            return outputStream.toByteArray();
+        }
+    }
+
+
+    /**
+     * Загрузчик, который заново определяет класс пакета
+     * из байткода, а остальные классы берет у родителя
+     */
+    private static final class BytecodeClassLoader extends ClassLoader {
+
+        private final String className;
+        private final byte[] bytecode;
+
+        private BytecodeClassLoader(String className, byte[] bytecode) {
+            super(PacketLookupBenchmark.class.getClassLoader());
+
+            this.className = className;
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) {
+                return super.loadClass(name, resolve);
+            }
+
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                return loadedClass != null ? loadedClass : defineClass(name, bytecode, 0, bytecode.length);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Class<? extends NettyPacket> loadPacketClass() {
+            try {
+                return (Class<? extends NettyPacket>) loadClass(className);
+            }
+
+            catch (ClassNotFoundException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
+
+}
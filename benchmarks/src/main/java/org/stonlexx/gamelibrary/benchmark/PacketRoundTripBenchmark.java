@@ -0,0 +1,138 @@
+package org.stonlexx.gamelibrary.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.NettyPacketDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.NettyPacketEncoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.compression.NettyCompressionDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.compression.NettyCompressionEncoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21FrameDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketProtocol;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Полный путь пакета {@link NettyPacketEncoder} -> {@link NettyPacketDecoder}
+ * через два {@link EmbeddedChannel} с тем же набором обработчиков,
+ * что и стандартный кодек бутстрапа
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketRoundTripBenchmark {
+
+    @Param({"LEGACY", "COMPACT"})
+    public NettyPacketHeaderMode headerMode;
+
+    /**
+     * Порог сжатия, -1 - без сжатия
+     */
+    @Param({"-1", "256"})
+    public int compressionThreshold;
+
+    /**
+     * Размер полезной нагрузки пакета в байтах
+     */
+    @Param({"32", "1024"})
+    public int payloadSize;
+
+    private EmbeddedChannel senderChannel;
+    private EmbeddedChannel receiverChannel;
+
+    private BenchmarkPacket nettyPacket;
+    private ByteBuf encodedFrame;
+
+
+    @Setup
+    public void setup() {
+        NettyPacketTyping<Integer> packetTyping = GameLibrary.getInstance().getNettyManager().getPacketTyping(Integer.class, "benchmark-round-trip");
+        packetTyping.registerPacket(NettyPacketDirection.GLOBAL, BenchmarkPacket.class, 1);
+
+        this.senderChannel = createChannel();
+        this.receiverChannel = createChannel();
+
+        // в компактном режиме каналы сначала обмениваются таблицами пакетов
+        exchangeOutbound(senderChannel, receiverChannel);
+        exchangeOutbound(receiverChannel, senderChannel);
+
+        this.nettyPacket = new BenchmarkPacket(payloadSize);
+
+        senderChannel.writeOutbound(nettyPacket);
+        this.encodedFrame = senderChannel.readOutbound();
+    }
+
+    @TearDown
+    public void tearDown() {
+        encodedFrame.release();
+
+        senderChannel.finishAndReleaseAll();
+        receiverChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encode() {
+        senderChannel.writeOutbound(nettyPacket);
+        ByteBuf frame = senderChannel.readOutbound();
+
+        int readableBytes = frame.readableBytes();
+        frame.release();
+
+        return readableBytes;
+    }
+
+    @Benchmark
+    public BenchmarkPacket decode() {
+        receiverChannel.writeInbound(encodedFrame.retainedDuplicate());
+        return receiverChannel.readInbound();
+    }
+
+    @Benchmark
+    public BenchmarkPacket roundTrip() {
+        senderChannel.writeOutbound(nettyPacket);
+        receiverChannel.writeInbound((Object) senderChannel.readOutbound());
+
+        return receiverChannel.readInbound();
+    }
+
+
+    private EmbeddedChannel createChannel() {
+        NettyPacketProtocol packetProtocol = new NettyPacketProtocol(headerMode);
+        boolean compression = compressionThreshold >= 0;
+
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel();
+        embeddedChannel.attr(NettyPacketProtocol.PROTOCOL_ATTRIBUTE).set(packetProtocol);
+
+        embeddedChannel.pipeline().addLast(new Varint21FrameDecoder());
+
+        if (compression) {
+            embeddedChannel.pipeline().addLast(new NettyCompressionDecoder(8 * 1024 * 1024));
+            embeddedChannel.pipeline().addLast(new NettyCompressionEncoder(compressionThreshold, Deflater.DEFAULT_COMPRESSION));
+        }
+
+        embeddedChannel.pipeline().addLast(new NettyPacketDecoder(packetProtocol));
+        embeddedChannel.pipeline().addLast(new NettyPacketEncoder(packetProtocol, !compression));
+
+        // канал уже активен, а декодер отправляет рукопожатие
+        // только при активации, поэтому она повторяется вручную
+        embeddedChannel.pipeline().fireChannelActive();
+        return embeddedChannel;
+    }
+
+    private void exchangeOutbound(EmbeddedChannel fromChannel, EmbeddedChannel toChannel) {
+        Object message;
+
+        while ((message = fromChannel.readOutbound()) != null) {
+            toChannel.writeInbound(message);
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import io.netty.util.AttributeKey;
+import org.stonlexx.gamelibrary.benchmark.load.packet.LoadEchoPacket;
+import org.stonlexx.gamelibrary.benchmark.load.packet.LoadFirePacket;
+import org.stonlexx.gamelibrary.benchmark.load.packet.LoadRequestPacket;
+import org.stonlexx.gamelibrary.common.netty.NettyConnection;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.impl.NettyClient;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOutboundStatistics;
+import org.stonlexx.gamelibrary.common.netty.packet.callback.NettyPacketCallbackHandler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Одно клиентское подключение нагрузочного теста
+ *
+ * В закрытом цикле клиент держит --inflight пакетов с ответом
+ * и отправляет следующий пакет только после ответа на предыдущий,
+ * в открытом - отправляет пакеты по расписанию независимо от ответов
+ */
+public final class LoadClient {
+
+    /**
+     * Атрибут канала, по которому эхо-пакет
+     * находит клиента, получившего ответ
+     */
+    public static final AttributeKey<LoadClient> LOAD_CLIENT_ATTRIBUTE = AttributeKey.valueOf("gamelibrary-load-client");
+
+    private final LoadOptions loadOptions;
+    private final LoadStatistics loadStatistics;
+
+    private final byte[] payload;
+    private final NettyClient nettyClient;
+
+    private final AtomicLong completedCount = new AtomicLong();
+
+    private volatile boolean running;
+
+    /**
+     * Сколько пакетов уже отправлено по расписанию открытого
+     * цикла, меняется только потоком планировщика клиента
+     */
+    private long scheduledCount;
+
+
+    LoadClient(LoadOptions loadOptions, LoadStatistics loadStatistics, byte[] payload) {
+        this.loadOptions = loadOptions;
+        this.loadStatistics = loadStatistics;
+
+        this.payload = payload;
+        this.nettyClient = NettyClient.createLocal(loadOptions.port);
+    }
+
+    /**
+     * Подключиться к серверу
+     *
+     * @param connectLatch - счетчик, который уменьшается после
+     *                       успешного или неудачного подключения
+     */
+    void connect(CountDownLatch connectLatch) {
+        nettyClient.setStandardCodec();
+        nettyClient.setPacketHeaderMode(loadOptions.headerMode);
+
+        nettyClient.getChannelSettings().setCompressionThreshold(loadOptions.compressionThreshold);
+
+        nettyClient.setChannelFutureListener((channelFuture, isSuccess) -> {
+
+            if (isSuccess) {
+                channelFuture.channel().attr(LOAD_CLIENT_ATTRIBUTE).set(this);
+            }
+
+            connectLatch.countDown();
+        });
+
+        nettyClient.connect();
+    }
+
+    /**
+     * Начать отправку пакетов
+     */
+    void start() {
+        this.running = true;
+
+        if (loadOptions.isClosedLoop()) {
+
+            for (int i = 0; i < loadOptions.inflight; i++) {
+                sendRoundTrip();
+            }
+        }
+    }
+
+    /**
+     * Прекратить отправку новых пакетов,
+     * ответы на отправленные еще учитываются
+     */
+    void stop() {
+        this.running = false;
+    }
+
+    /**
+     * Отправить пакеты, которые по расписанию открытого
+     * цикла должны были уйти к текущему моменту
+     *
+     * @param dueCount - сколько пакетов должно быть отправлено всего
+     */
+    void sendScheduled(long dueCount) {
+        while (scheduledCount < dueCount && running) {
+            scheduledCount++;
+
+            send(loadOptions.packetMix.next(ThreadLocalRandom.current()));
+        }
+    }
+
+    /**
+     * Закрыть подключение
+     */
+    void shutdown() {
+        nettyClient.shutdown();
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, активно ли подключение клиента
+     */
+    public boolean isActive() {
+        NettyConnection nettyConnection = nettyClient.getNettyConnection();
+        return nettyConnection != null && nettyConnection.isActive();
+    }
+
+    /**
+     * Получить количество выполненных пакетов: полученных
+     * ответов и отправленных пакетов без ответа
+     */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * Получить количество пакетов, выброшенных
+     * переполненной очередью исходящих пакетов
+     */
+    public long getDroppedCount() {
+        NettyConnection nettyConnection = nettyClient.getNettyConnection();
+        NettyOutboundStatistics outboundStatistics = nettyConnection == null ? null : nettyConnection.getOutboundStatistics();
+
+        return outboundStatistics == null ? 0 : outboundStatistics.getDroppedCount();
+    }
+
+    /**
+     * Обработать ответ сервера на эхо-пакет
+     *
+     * @param sendNanos - время отправки эхо-пакета
+     */
+    public void onEchoResponse(long sendNanos) {
+        onRoundTrip(LoadPacketType.ECHO, sendNanos);
+    }
+
+
+    private void sendRoundTrip() {
+        // в закрытом цикле пакеты без ответа уходят попутно
+        // и не занимают место пакета в ожидании ответа
+        while (running) {
+            LoadPacketType packetType = loadOptions.packetMix.next(ThreadLocalRandom.current());
+
+            if (!send(packetType) || packetType.isRoundTrip()) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(LoadPacketType packetType) {
+        NettyConnection nettyConnection = nettyClient.getNettyConnection();
+
+        if (nettyConnection == null || !nettyConnection.isActive()) {
+            return false;
+        }
+
+        loadStatistics.onSent(packetType);
+
+        switch (packetType) {
+
+            case ECHO:
+                nettyConnection.sendPacket(new LoadEchoPacket(System.nanoTime(), false, payload));
+                break;
+
+            case REQUEST:
+                long sendNanos = System.nanoTime();
+
+                nettyConnection.sendPacket(new LoadRequestPacket(sendNanos, payload), new NettyPacketCallbackHandler<LoadRequestPacket>() {
+
+                    @Override
+                    public void handleCallback(LoadRequestPacket callbackNettyPacket) {
+                        onRoundTrip(LoadPacketType.REQUEST, sendNanos);
+                    }
+
+                    @Override
+                    public void onException(Throwable throwable) {
+                        onRequestFailed();
+                    }
+                });
+                break;
+
+            case FIRE:
+                nettyConnection.sendPacket(new LoadFirePacket(payload));
+
+                loadStatistics.onCompleted(packetType);
+                completedCount.incrementAndGet();
+                break;
+        }
+
+        return true;
+    }
+
+    private void onRoundTrip(LoadPacketType packetType, long sendNanos) {
+        loadStatistics.onCompleted(packetType, System.nanoTime() - sendNanos);
+        completedCount.incrementAndGet();
+
+        if (loadOptions.isClosedLoop()) {
+            sendRoundTrip();
+        }
+    }
+
+    private void onRequestFailed() {
+        loadStatistics.onFailed();
+
+        // цепочка закрытого цикла продолжается
+        // и после запроса без ответа
+        if (loadOptions.isClosedLoop()) {
+            sendRoundTrip();
+        }
+    }
+
+}
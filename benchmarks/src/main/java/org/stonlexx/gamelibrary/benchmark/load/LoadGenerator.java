@@ -0,0 +1,257 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.benchmark.load.packet.LoadEchoPacket;
+import org.stonlexx.gamelibrary.benchmark.load.packet.LoadFirePacket;
+import org.stonlexx.gamelibrary.benchmark.load.packet.LoadRequestPacket;
+import org.stonlexx.gamelibrary.common.netty.NettyManager;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.impl.NettyServer;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Нагрузочный и soak тест {@link NettyServer} и NettyClient на localhost
+ *
+ * Поднимает сервер и тысячи клиентских подключений в одной JVM,
+ * гоняет через них смесь пакетов и раз в интервал выводит
+ * пропускную способность, перцентили задержки, кучу и GC,
+ * а в конце - итог с распределением нагрузки по подключениям:
+ *
+ *     java -cp benchmarks/target/benchmarks.jar \
+ *          org.stonlexx.gamelibrary.benchmark.load.LoadGenerator \
+ *          --clients=2000 --duration=3600 --mix=echo:70,request:20,fire:10 --csv=soak.csv
+ *
+ * Код выхода 0 - тест прошел, 1 - сервер не запустился
+ * или ни один клиент не подключился, 2 - неверные параметры
+ */
+public final class LoadGenerator {
+
+    private static final String PACKET_TYPING_NAME = "load-generator";
+
+    /**
+     * Период планировщика открытого цикла
+     */
+    private static final long SCHEDULE_PERIOD_MILLIS = 10;
+
+    private static final long BIND_TIMEOUT_SECONDS = 10;
+    private static final long CONNECT_TIMEOUT_SECONDS = 30;
+
+    private final LoadOptions loadOptions;
+    private final LoadStatistics loadStatistics = new LoadStatistics();
+
+    private final List<LoadClient> loadClients = new ArrayList<>();
+
+
+    public LoadGenerator(LoadOptions loadOptions) {
+        this.loadOptions = loadOptions;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions loadOptions;
+
+        try {
+            loadOptions = LoadOptions.parse(args);
+        }
+        catch (IllegalArgumentException exception) {
+            System.err.println(exception.getMessage());
+            System.err.println(LoadOptions.USAGE);
+
+            System.exit(2);
+            return;
+        }
+
+        if (loadOptions.help) {
+            System.out.println(LoadOptions.USAGE);
+            return;
+        }
+
+        // потоки библиотеки не дают JVM завершиться самостоятельно
+        System.exit(new LoadGenerator(loadOptions).run());
+    }
+
+    /**
+     * Запустить тест и дождаться его окончания
+     *
+     * @return код выхода
+     */
+    public int run() throws Exception {
+        NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
+
+        if (loadOptions.workerThreads > 0) {
+            nettyManager.getNettyBootstrap().getEventLoopRegistry().setWorkerThreads(loadOptions.workerThreads);
+        }
+
+        registerPackets(nettyManager);
+        System.out.println("Load test: " + loadOptions);
+
+        NettyServer nettyServer = bindServer();
+
+        if (nettyServer == null) {
+            return 1;
+        }
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-scheduler");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        try {
+            connectClients();
+
+            if (loadClients.isEmpty()) {
+                System.err.println("No client connected to port " + loadOptions.port);
+                return 1;
+            }
+
+            try (LoadReporter loadReporter = new LoadReporter(loadOptions, loadStatistics, loadClients)) {
+                runLoad(scheduler, loadReporter);
+            }
+
+            return 0;
+        }
+        finally {
+            scheduler.shutdownNow();
+
+            loadClients.forEach(LoadClient::shutdown);
+            nettyServer.shutdown();
+
+            nettyManager.shutdown();
+        }
+    }
+
+
+    private void registerPackets(NettyManager nettyManager) {
+        NettyPacketTyping<Integer> packetTyping = nettyManager.getPacketTyping(Integer.class, PACKET_TYPING_NAME);
+
+        packetTyping.registerPacket(NettyPacketDirection.GLOBAL, LoadEchoPacket.class, 1);
+        packetTyping.registerPacket(NettyPacketDirection.GLOBAL, LoadRequestPacket.class, 2);
+        packetTyping.registerPacket(NettyPacketDirection.GLOBAL, LoadFirePacket.class, 3);
+    }
+
+    private NettyServer bindServer() throws InterruptedException {
+        NettyServer nettyServer = NettyServer.createLocal(loadOptions.port);
+
+        nettyServer.setStandardCodec();
+        nettyServer.setPacketHeaderMode(loadOptions.headerMode);
+
+        nettyServer.getChannelSettings().setCompressionThreshold(loadOptions.compressionThreshold);
+        nettyServer.getChannelSettings().setDispatchMode(loadOptions.dispatchMode);
+
+        CountDownLatch bindLatch = new CountDownLatch(1);
+        AtomicBoolean bound = new AtomicBoolean();
+
+        nettyServer.setChannelFutureListener((channelFuture, isSuccess) -> {
+            bound.set(isSuccess);
+            bindLatch.countDown();
+        });
+
+        nettyServer.bind();
+
+        if (!bindLatch.await(BIND_TIMEOUT_SECONDS, TimeUnit.SECONDS) || !bound.get()) {
+            System.err.println("Failed to bind the server on port " + loadOptions.port);
+
+            nettyServer.shutdown();
+            return null;
+        }
+
+        return nettyServer;
+    }
+
+    private void connectClients() throws InterruptedException {
+        byte[] payload = new byte[loadOptions.payloadSize];
+
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i % 31);
+        }
+
+        long connectStartTime = System.currentTimeMillis();
+        int failedCount = 0;
+
+        // подключения открываются пачками, чтобы не
+        // переполнить очередь принятия подключений сервера
+        for (int batchStart = 0; batchStart < loadOptions.clients; batchStart += loadOptions.connectBatch) {
+            int batchSize = Math.min(loadOptions.connectBatch, loadOptions.clients - batchStart);
+
+            CountDownLatch connectLatch = new CountDownLatch(batchSize);
+            List<LoadClient> batchClients = new ArrayList<>(batchSize);
+
+            for (int i = 0; i < batchSize; i++) {
+                LoadClient loadClient = new LoadClient(loadOptions, loadStatistics, payload);
+
+                loadClient.connect(connectLatch);
+                batchClients.add(loadClient);
+            }
+
+            connectLatch.await(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            for (LoadClient loadClient : batchClients) {
+
+                if (loadClient.isActive()) {
+                    loadClients.add(loadClient);
+
+                } else {
+
+                    failedCount++;
+                    loadClient.shutdown();
+                }
+            }
+        }
+
+        System.out.println(String.format("Connected %d of %d clients in %dms, %d failed",
+                loadClients.size(), loadOptions.clients, System.currentTimeMillis() - connectStartTime, failedCount));
+    }
+
+    private void runLoad(ScheduledExecutorService scheduler, LoadReporter loadReporter) throws InterruptedException {
+        scheduler.scheduleAtFixedRate(loadReporter::reportInterval,
+                loadOptions.intervalSeconds, loadOptions.intervalSeconds, TimeUnit.SECONDS);
+
+        loadClients.forEach(LoadClient::start);
+
+        if (!loadOptions.isClosedLoop()) {
+            scheduleOpenLoop(scheduler);
+        }
+
+        if (loadOptions.warmupSeconds > 0) {
+            TimeUnit.SECONDS.sleep(loadOptions.warmupSeconds);
+        }
+
+        loadReporter.beginMeasurement();
+        TimeUnit.SECONDS.sleep(loadOptions.durationSeconds);
+
+        loadClients.forEach(LoadClient::stop);
+        loadReporter.printSummary();
+    }
+
+    private void scheduleOpenLoop(ScheduledExecutorService scheduler) {
+        long loadStartNanos = System.nanoTime();
+
+        int partitionCount = Math.min(loadClients.size(), Runtime.getRuntime().availableProcessors());
+        int partitionSize = (loadClients.size() + partitionCount - 1) / partitionCount;
+
+        for (int partitionStart = 0; partitionStart < loadClients.size(); partitionStart += partitionSize) {
+            List<LoadClient> partitionClients = loadClients.subList(partitionStart, Math.min(loadClients.size(), partitionStart + partitionSize));
+
+            // расписание считается от начала теста, поэтому
+            // опоздавший запуск планировщика догоняет пропущенные пакеты
+            scheduler.scheduleAtFixedRate(() -> {
+                long dueCount = (long) (loadOptions.rate * (System.nanoTime() - loadStartNanos) / 1_000_000_000D);
+
+                for (LoadClient loadClient : partitionClients) {
+                    loadClient.sendScheduled(dueCount);
+                }
+
+            }, 0, SCHEDULE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
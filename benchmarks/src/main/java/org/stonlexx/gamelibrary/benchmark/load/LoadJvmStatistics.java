@@ -0,0 +1,94 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Снимок кучи и сборщиков мусора JVM
+ */
+public final class LoadJvmStatistics {
+
+    private final long capturedNanos;
+
+    private final long heapUsed;
+    private final long heapCommitted;
+    private final long heapMax;
+
+    /**
+     * Количество сборок и суммарное время
+     * в миллисекундах по имени сборщика
+     */
+    private final Map<String, long[]> collectorMap;
+
+
+    private LoadJvmStatistics(long capturedNanos, MemoryUsage heapUsage, Map<String, long[]> collectorMap) {
+        this.capturedNanos = capturedNanos;
+
+        this.heapUsed = heapUsage.getUsed();
+        this.heapCommitted = heapUsage.getCommitted();
+        this.heapMax = heapUsage.getMax();
+
+        this.collectorMap = collectorMap;
+    }
+
+    public long getHeapUsed() {
+        return heapUsed;
+    }
+
+    public long getHeapCommitted() {
+        return heapCommitted;
+    }
+
+    public long getHeapMax() {
+        return heapMax;
+    }
+
+    public Map<String, long[]> getCollectorMap() {
+        return Collections.unmodifiableMap(collectorMap);
+    }
+
+    /**
+     * Получить количество сборок мусора
+     * всеми сборщиками с момента запуска JVM
+     */
+    public long getGcCount() {
+        return collectorMap.values().stream().mapToLong(collector -> collector[0]).sum();
+    }
+
+    /**
+     * Получить время всех сборок мусора в миллисекундах
+     * с момента запуска JVM
+     */
+    public long getGcTimeMillis() {
+        return collectorMap.values().stream().mapToLong(collector -> collector[1]).sum();
+    }
+
+    /**
+     * Получить время в наносекундах,
+     * прошедшее с другого снимка
+     *
+     * @param previousStatistics - более ранний снимок
+     */
+    public long getElapsedNanos(LoadJvmStatistics previousStatistics) {
+        return capturedNanos - previousStatistics.capturedNanos;
+    }
+
+
+    /**
+     * Снять текущее состояние кучи и сборщиков мусора
+     */
+    public static LoadJvmStatistics capture() {
+        Map<String, long[]> collectorMap = new LinkedHashMap<>();
+
+        for (GarbageCollectorMXBean collectorBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectorMap.put(collectorBean.getName(), new long[]{Math.max(0, collectorBean.getCollectionCount()), Math.max(0, collectorBean.getCollectionTime())});
+        }
+
+        return new LoadJvmStatistics(System.nanoTime(), ManagementFactory.getMemoryMXBean().getHeapMemoryUsage(), collectorMap);
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Лог-линейная гистограмма задержек в наносекундах
+ *
+ * Каждая степень двойки делится на {@link #SUB_BUCKETS}
+ * равных корзин, поэтому относительная ошибка перцентиля
+ * не превышает 1/16 даже на хвосте p99.9
+ */
+public final class LoadLatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Максимальная учитываемая степень двойки,
+     * 2^40 нс - это примерно 18 минут
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * Количество корзин, последняя из них
+     * собирает все задержки больше 2^40 нс
+     */
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + 1;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+
+
+    /**
+     * Записать задержку
+     *
+     * @param nanos - задержка в наносекундах
+     */
+    public void record(long nanos) {
+        bucketCounts.incrementAndGet(bucketIndex(nanos));
+    }
+
+    /**
+     * Забрать накопленные счетчики корзин,
+     * обнулив гистограмму
+     *
+     * @param targetCounts - массив, к которому прибавляются счетчики
+     */
+    public void drainTo(long[] targetCounts) {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            long bucketCount = bucketCounts.getAndSet(bucket, 0);
+
+            if (bucketCount != 0) {
+                targetCounts[bucket] += bucketCount;
+            }
+        }
+    }
+
+
+    /**
+     * Получить номер корзины задержки
+     *
+     * @param nanos - задержка в наносекундах
+     */
+    static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAX_EXPONENT);
+
+        if (exponent == MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Получить верхнюю границу корзины в наносекундах
+     *
+     * @param bucket - номер корзины
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Получить общее количество записей в счетчиках
+     *
+     * @param bucketCounts - счетчики корзин
+     */
+    public static long getTotalCount(long[] bucketCounts) {
+        long totalCount = 0;
+
+        for (long bucketCount : bucketCounts) {
+            totalCount += bucketCount;
+        }
+
+        return totalCount;
+    }
+
+    /**
+     * Получить перцентиль задержки в наносекундах
+     * по счетчикам корзин, 0 - если записей нет
+     *
+     * @param bucketCounts - счетчики корзин
+     * @param percentile   - перцентиль от 0 до 100
+     */
+    public static long getPercentileNanos(long[] bucketCounts, double percentile) {
+        long totalCount = getTotalCount(bucketCounts);
+
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long targetCount = Math.max(1, (long) Math.ceil(totalCount * percentile / 100D));
+        long seenCount = 0;
+
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            seenCount += bucketCounts[bucket];
+
+            if (seenCount >= targetCount) {
+                return bucketUpperBound(bucket);
+            }
+        }
+
+        return bucketUpperBound(bucketCounts.length - 1);
+    }
+
+    /**
+     * Получить максимальную записанную задержку
+     * с точностью до корзины, 0 - если записей нет
+     *
+     * @param bucketCounts - счетчики корзин
+     */
+    public static long getMaxNanos(long[] bucketCounts) {
+        for (int bucket = bucketCounts.length - 1; bucket >= 0; bucket--) {
+
+            if (bucketCounts[bucket] != 0) {
+                return bucketUpperBound(bucket);
+            }
+        }
+
+        return 0;
+    }
+
+}
@@ -0,0 +1,195 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import org.stonlexx.gamelibrary.common.netty.packet.handler.NettyDispatchMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
+
+/**
+ * Параметры нагрузочного теста, которые
+ * передаются в командной строке как --ключ=значение
+ */
+public final class LoadOptions {
+
+    public static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp benchmarks.jar " + LoadGenerator.class.getName() + " [--option=value ...]",
+            "",
+            "  --port=27100            port of the loopback server",
+            "  --clients=1000          number of client connections",
+            "  --connectBatch=100      connections opened at once, keep below the server backlog",
+            "  --warmup=10             warmup seconds, excluded from the summary",
+            "  --duration=60           measured seconds, use hours for soak runs",
+            "  --rate=0                packets per second per client, 0 - closed loop",
+            "  --inflight=1            round trips in flight per client in closed loop",
+            "  --mix=echo:70,request:20,fire:10",
+            "                          weighted packet mix: echo, request (callback), fire",
+            "  --payload=64            payload bytes per packet",
+            "  --dispatch=EVENT_LOOP   server dispatch mode: EVENT_LOOP, ORDERED_POOL, PACKET_EXECUTOR",
+            "  --header=COMPACT        packet header mode: LEGACY, COMPACT",
+            "  --compression=-1        compression threshold in bytes, -1 - disabled",
+            "  --workerThreads=0       shared worker threads, 0 - library default",
+            "  --interval=5            report interval in seconds",
+            "  --csv=<file>            also write interval reports as CSV",
+            "  --help                  print this message");
+
+
+    public int port = 27100;
+
+    public int clients = 1000;
+    public int connectBatch = 100;
+
+    public int warmupSeconds = 10;
+    public int durationSeconds = 60;
+
+    public double rate = 0;
+    public int inflight = 1;
+
+    public LoadPacketMix packetMix = LoadPacketMix.parse("echo:70,request:20,fire:10");
+    public int payloadSize = 64;
+
+    public NettyDispatchMode dispatchMode = NettyDispatchMode.EVENT_LOOP;
+    public NettyPacketHeaderMode headerMode = NettyPacketHeaderMode.COMPACT;
+    public int compressionThreshold = -1;
+
+    public int workerThreads = 0;
+
+    public int intervalSeconds = 5;
+    public String csvFile;
+
+    public boolean help;
+
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * отправляет ли клиент новый пакет только после
+     * ответа на предыдущий
+     */
+    public boolean isClosedLoop() {
+        return rate <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "clients=" + clients + ", warmup=" + warmupSeconds + "s, duration=" + durationSeconds + "s"
+                + ", " + (isClosedLoop() ? "closed loop, inflight=" + inflight : "open loop, rate=" + rate + "/s per client")
+                + ", mix=" + packetMix + ", payload=" + payloadSize + "B"
+                + ", dispatch=" + dispatchMode + ", header=" + headerMode + ", compression=" + compressionThreshold;
+    }
+
+
+    /**
+     * Разобрать параметры командной строки
+     *
+     * @param args - аргументы вида --ключ=значение
+     */
+    public static LoadOptions parse(String[] args) {
+        LoadOptions loadOptions = new LoadOptions();
+
+        for (String argument : args) {
+
+            if (!argument.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option=value, got: " + argument);
+            }
+
+            int separatorIndex = argument.indexOf('=');
+
+            String optionName = separatorIndex < 0 ? argument.substring(2) : argument.substring(2, separatorIndex);
+            String optionValue = separatorIndex < 0 ? "" : argument.substring(separatorIndex + 1);
+
+            try {
+                loadOptions.apply(optionName, optionValue);
+            }
+            catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Invalid value for --" + optionName + ": " + optionValue);
+            }
+        }
+
+        loadOptions.validate();
+        return loadOptions;
+    }
+
+    private void apply(String optionName, String optionValue) {
+        switch (optionName) {
+
+            case "port":
+                port = Integer.parseInt(optionValue);
+                break;
+
+            case "clients":
+                clients = Integer.parseInt(optionValue);
+                break;
+
+            case "connectBatch":
+                connectBatch = Integer.parseInt(optionValue);
+                break;
+
+            case "warmup":
+                warmupSeconds = Integer.parseInt(optionValue);
+                break;
+
+            case "duration":
+                durationSeconds = Integer.parseInt(optionValue);
+                break;
+
+            case "rate":
+                rate = Double.parseDouble(optionValue);
+                break;
+
+            case "inflight":
+                inflight = Integer.parseInt(optionValue);
+                break;
+
+            case "mix":
+                packetMix = LoadPacketMix.parse(optionValue);
+                break;
+
+            case "payload":
+                payloadSize = Integer.parseInt(optionValue);
+                break;
+
+            case "dispatch":
+                dispatchMode = NettyDispatchMode.valueOf(optionValue.toUpperCase());
+                break;
+
+            case "header":
+                headerMode = NettyPacketHeaderMode.valueOf(optionValue.toUpperCase());
+                break;
+
+            case "compression":
+                compressionThreshold = Integer.parseInt(optionValue);
+                break;
+
+            case "workerThreads":
+                workerThreads = Integer.parseInt(optionValue);
+                break;
+
+            case "interval":
+                intervalSeconds = Integer.parseInt(optionValue);
+                break;
+
+            case "csv":
+                csvFile = optionValue.isEmpty() ? null : optionValue;
+                break;
+
+            case "help":
+                help = true;
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown option: --" + optionName);
+        }
+    }
+
+    private void validate() {
+        if (clients <= 0 || connectBatch <= 0 || inflight <= 0 || intervalSeconds <= 0) {
+            throw new IllegalArgumentException("--clients, --connectBatch, --inflight and --interval must be positive");
+        }
+
+        if (warmupSeconds < 0 || durationSeconds <= 0 || payloadSize < 0) {
+            throw new IllegalArgumentException("--warmup and --payload must not be negative, --duration must be positive");
+        }
+
+        if (isClosedLoop() && !packetMix.hasRoundTrip()) {
+            throw new IllegalArgumentException("Closed loop needs echo or request packets in --mix, set --rate for fire-only load");
+        }
+    }
+
+}
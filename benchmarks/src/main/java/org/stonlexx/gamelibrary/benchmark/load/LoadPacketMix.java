@@ -0,0 +1,125 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Взвешенная смесь видов пакетов,
+ * например echo:70,request:20,fire:10
+ */
+public final class LoadPacketMix {
+
+    private final Map<LoadPacketType, Integer> weightMap;
+
+    private final LoadPacketType[] packetTypes;
+    private final int[] cumulativeWeights;
+
+
+    private LoadPacketMix(Map<LoadPacketType, Integer> weightMap) {
+        this.weightMap = weightMap;
+
+        this.packetTypes = weightMap.keySet().toArray(new LoadPacketType[0]);
+        this.cumulativeWeights = new int[packetTypes.length];
+
+        int totalWeight = 0;
+
+        for (int i = 0; i < packetTypes.length; i++) {
+            totalWeight += weightMap.get(packetTypes[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+    }
+
+    /**
+     * Выбрать вид следующего пакета
+     *
+     * @param random - генератор случайных чисел потока
+     */
+    public LoadPacketType next(Random random) {
+        if (packetTypes.length == 1) {
+            return packetTypes[0];
+        }
+
+        int weight = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+
+            if (weight < cumulativeWeights[i]) {
+                return packetTypes[i];
+            }
+        }
+
+        return packetTypes[packetTypes.length - 1];
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, есть ли в смеси пакеты с ответом
+     */
+    public boolean hasRoundTrip() {
+        for (LoadPacketType packetType : packetTypes) {
+
+            if (packetType.isRoundTrip()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mixBuilder = new StringBuilder();
+
+        for (Map.Entry<LoadPacketType, Integer> weightEntry : weightMap.entrySet()) {
+
+            if (mixBuilder.length() > 0) {
+                mixBuilder.append(',');
+            }
+
+            mixBuilder.append(weightEntry.getKey().getOptionName()).append(':').append(weightEntry.getValue());
+        }
+
+        return mixBuilder.toString();
+    }
+
+
+    /**
+     * Разобрать смесь пакетов из строки вида
+     * echo:70,request:20,fire:10, вид без веса
+     * получает вес 1
+     *
+     * @param mixString - строка смеси
+     */
+    public static LoadPacketMix parse(String mixString) {
+        Map<LoadPacketType, Integer> weightMap = new EnumMap<>(LoadPacketType.class);
+
+        for (String mixPart : mixString.split(",")) {
+            mixPart = mixPart.trim();
+
+            if (mixPart.isEmpty()) {
+                continue;
+            }
+
+            int separatorIndex = mixPart.indexOf(':');
+
+            LoadPacketType packetType = LoadPacketType.fromOptionName(separatorIndex < 0 ? mixPart : mixPart.substring(0, separatorIndex));
+            int weight = separatorIndex < 0 ? 1 : Integer.parseInt(mixPart.substring(separatorIndex + 1).trim());
+
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + mixPart);
+            }
+
+            if (weight > 0) {
+                weightMap.merge(packetType, weight, Integer::sum);
+            }
+        }
+
+        if (weightMap.isEmpty()) {
+            throw new IllegalArgumentException("Packet mix is empty: " + mixString);
+        }
+
+        return new LoadPacketMix(weightMap);
+    }
+
+}
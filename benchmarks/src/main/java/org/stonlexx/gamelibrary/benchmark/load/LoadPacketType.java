@@ -0,0 +1,64 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+/**
+ * Виды пакетов нагрузочного теста
+ */
+public enum LoadPacketType {
+
+    /**
+     * Эхо-пакет, ответ приходит обычным пакетом
+     */
+    ECHO("echo", true),
+
+    /**
+     * Запрос с ожиданием callback response
+     */
+    REQUEST("request", true),
+
+    /**
+     * Пакет без ответа
+     */
+    FIRE("fire", false);
+
+
+    private final String optionName;
+    private final boolean roundTrip;
+
+
+    LoadPacketType(String optionName, boolean roundTrip) {
+        this.optionName = optionName;
+        this.roundTrip = roundTrip;
+    }
+
+    /**
+     * Получить название вида пакета в опции --mix
+     */
+    public String getOptionName() {
+        return optionName;
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, ждет ли пакет ответа от сервера
+     */
+    public boolean isRoundTrip() {
+        return roundTrip;
+    }
+
+    /**
+     * Получить вид пакета по названию из опции --mix
+     *
+     * @param optionName - название вида пакета
+     */
+    public static LoadPacketType fromOptionName(String optionName) {
+        for (LoadPacketType packetType : values()) {
+
+            if (packetType.optionName.equalsIgnoreCase(optionName)) {
+                return packetType;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown packet type in mix: " + optionName);
+    }
+
+}
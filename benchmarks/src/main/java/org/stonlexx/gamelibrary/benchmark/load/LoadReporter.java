@@ -0,0 +1,305 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отчеты нагрузочного теста: строка на каждый интервал,
+ * по желанию та же строка в CSV, и итог за время измерения
+ *
+ * Прогрев попадает в интервальные отчеты,
+ * но не учитывается в итоге
+ */
+public final class LoadReporter implements Closeable {
+
+    private static final String CSV_HEADER = "elapsed_s,phase,active_connections,sent_per_s,completed_per_s,failed,"
+            + "p50_us,p99_us,p999_us,max_us,heap_used_mb,heap_committed_mb,gc_count,gc_time_ms";
+
+    private static final double[] SUMMARY_PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final LoadOptions loadOptions;
+    private final LoadStatistics loadStatistics;
+    private final List<LoadClient> loadClients;
+
+    private final PrintWriter csvWriter;
+
+    private final long startNanos = System.nanoTime();
+
+    private final long[] intervalLatencies = new long[LoadLatencyHistogram.BUCKET_COUNT];
+    private final long[] measuredLatencies = new long[LoadLatencyHistogram.BUCKET_COUNT];
+    private final long[] drainedLatencies = new long[LoadLatencyHistogram.BUCKET_COUNT];
+
+    private long lastSentCount;
+    private long lastCompletedCount;
+    private long lastFailedCount;
+    private LoadJvmStatistics lastJvmStatistics = LoadJvmStatistics.capture();
+
+    private boolean measuring;
+    private long peakHeapUsed;
+
+    private LoadJvmStatistics measureJvmStatistics;
+    private long[] measureSentCounts;
+    private long[] measureCompletedCounts;
+    private long measureFailedCount;
+    private long measureReceivedCount;
+    private long[] measureClientCounts;
+
+
+    LoadReporter(LoadOptions loadOptions, LoadStatistics loadStatistics, List<LoadClient> loadClients) throws IOException {
+        this.loadOptions = loadOptions;
+        this.loadStatistics = loadStatistics;
+        this.loadClients = loadClients;
+
+        if (loadOptions.csvFile != null) {
+            this.csvWriter = new PrintWriter(new FileWriter(loadOptions.csvFile));
+            csvWriter.println(CSV_HEADER);
+
+        } else {
+
+            this.csvWriter = null;
+        }
+    }
+
+    /**
+     * Закончить прогрев и запомнить
+     * счетчики начала измерения
+     */
+    synchronized void beginMeasurement() {
+        drainLatencies();
+
+        this.measuring = true;
+        this.peakHeapUsed = 0;
+
+        this.measureJvmStatistics = LoadJvmStatistics.capture();
+
+        this.measureSentCounts = new long[LoadPacketType.values().length];
+        this.measureCompletedCounts = new long[LoadPacketType.values().length];
+
+        for (LoadPacketType packetType : LoadPacketType.values()) {
+            measureSentCounts[packetType.ordinal()] = loadStatistics.getSentCount(packetType);
+            measureCompletedCounts[packetType.ordinal()] = loadStatistics.getCompletedCount(packetType);
+        }
+
+        this.measureFailedCount = loadStatistics.getFailedCount();
+        this.measureReceivedCount = LoadServerStatistics.getReceivedCount();
+
+        this.measureClientCounts = new long[loadClients.size()];
+
+        for (int i = 0; i < measureClientCounts.length; i++) {
+            measureClientCounts[i] = loadClients.get(i).getCompletedCount();
+        }
+    }
+
+    /**
+     * Вывести отчет за интервал с прошлого отчета
+     */
+    synchronized void reportInterval() {
+        drainLatencies();
+
+        LoadJvmStatistics jvmStatistics = LoadJvmStatistics.capture();
+        double intervalSeconds = Math.max(1, jvmStatistics.getElapsedNanos(lastJvmStatistics)) / 1_000_000_000D;
+
+        long sentCount = loadStatistics.getSentCount();
+        long completedCount = loadStatistics.getCompletedCount();
+        long failedCount = loadStatistics.getFailedCount();
+
+        long activeConnections = loadClients.stream().filter(LoadClient::isActive).count();
+
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        String phase = measuring ? "measure" : "warmup";
+
+        long sentRate = Math.round((sentCount - lastSentCount) / intervalSeconds);
+        long completedRate = Math.round((completedCount - lastCompletedCount) / intervalSeconds);
+
+        long gcCount = jvmStatistics.getGcCount() - lastJvmStatistics.getGcCount();
+        long gcTimeMillis = jvmStatistics.getGcTimeMillis() - lastJvmStatistics.getGcTimeMillis();
+
+        if (measuring) {
+            peakHeapUsed = Math.max(peakHeapUsed, jvmStatistics.getHeapUsed());
+        }
+
+        System.out.println(String.format("[%6ds] %-7s conns=%d sent=%d/s done=%d/s failed=%d p50=%s p99=%s p999=%s max=%s heap=%d/%dMB gc=%d (%dms)",
+                elapsedSeconds, phase, activeConnections, sentRate, completedRate, failedCount - lastFailedCount,
+                formatMicros(LoadLatencyHistogram.getPercentileNanos(intervalLatencies, 50)),
+                formatMicros(LoadLatencyHistogram.getPercentileNanos(intervalLatencies, 99)),
+                formatMicros(LoadLatencyHistogram.getPercentileNanos(intervalLatencies, 99.9)),
+                formatMicros(LoadLatencyHistogram.getMaxNanos(intervalLatencies)),
+                toMegabytes(jvmStatistics.getHeapUsed()), toMegabytes(jvmStatistics.getHeapCommitted()),
+                gcCount, gcTimeMillis));
+
+        if (csvWriter != null) {
+            csvWriter.println(String.format("%d,%s,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%d,%d,%d,%d",
+                    elapsedSeconds, phase, activeConnections, sentRate, completedRate, failedCount - lastFailedCount,
+                    LoadLatencyHistogram.getPercentileNanos(intervalLatencies, 50) / 1000D,
+                    LoadLatencyHistogram.getPercentileNanos(intervalLatencies, 99) / 1000D,
+                    LoadLatencyHistogram.getPercentileNanos(intervalLatencies, 99.9) / 1000D,
+                    LoadLatencyHistogram.getMaxNanos(intervalLatencies) / 1000D,
+                    toMegabytes(jvmStatistics.getHeapUsed()), toMegabytes(jvmStatistics.getHeapCommitted()),
+                    gcCount, gcTimeMillis));
+
+            csvWriter.flush();
+        }
+
+        Arrays.fill(intervalLatencies, 0);
+
+        this.lastSentCount = sentCount;
+        this.lastCompletedCount = completedCount;
+        this.lastFailedCount = failedCount;
+        this.lastJvmStatistics = jvmStatistics;
+    }
+
+    /**
+     * Вывести итог за время измерения
+     */
+    synchronized void printSummary() {
+        if (!measuring) {
+            beginMeasurement();
+        }
+
+        drainLatencies();
+
+        LoadJvmStatistics jvmStatistics = LoadJvmStatistics.capture();
+        double measuredSeconds = Math.max(1, jvmStatistics.getElapsedNanos(measureJvmStatistics)) / 1_000_000_000D;
+
+        peakHeapUsed = Math.max(peakHeapUsed, jvmStatistics.getHeapUsed());
+
+        long activeConnections = loadClients.stream().filter(LoadClient::isActive).count();
+
+        System.out.println();
+        System.out.println(String.format("==== Summary: %.1fs measured, %s ====", measuredSeconds, loadOptions));
+        System.out.println(String.format("Connections: %d of %d connected, %d active at the end",
+                loadClients.size(), loadOptions.clients, activeConnections));
+
+        long sentCount = 0;
+        long completedCount = 0;
+
+        for (LoadPacketType packetType : LoadPacketType.values()) {
+            long typeSentCount = loadStatistics.getSentCount(packetType) - measureSentCounts[packetType.ordinal()];
+            long typeCompletedCount = loadStatistics.getCompletedCount(packetType) - measureCompletedCounts[packetType.ordinal()];
+
+            sentCount += typeSentCount;
+            completedCount += typeCompletedCount;
+
+            if (typeSentCount > 0) {
+                System.out.println(String.format("  %-8s sent=%d completed=%d (%.0f/s)",
+                        packetType.getOptionName(), typeSentCount, typeCompletedCount, typeCompletedCount / measuredSeconds));
+            }
+        }
+
+        System.out.println(String.format("Throughput: sent=%.0f/s completed=%.0f/s, server received=%d, failed requests=%d, outbound drops=%d",
+                sentCount / measuredSeconds, completedCount / measuredSeconds,
+                LoadServerStatistics.getReceivedCount() - measureReceivedCount,
+                loadStatistics.getFailedCount() - measureFailedCount,
+                loadClients.stream().mapToLong(LoadClient::getDroppedCount).sum()));
+
+        StringBuilder latencyBuilder = new StringBuilder("Round trip latency:");
+
+        for (double percentile : SUMMARY_PERCENTILES) {
+            latencyBuilder.append(String.format(" p%s=%s", formatPercentile(percentile),
+                    formatMicros(LoadLatencyHistogram.getPercentileNanos(measuredLatencies, percentile))));
+        }
+
+        latencyBuilder.append(" max=").append(formatMicros(LoadLatencyHistogram.getMaxNanos(measuredLatencies)))
+                .append(" samples=").append(LoadLatencyHistogram.getTotalCount(measuredLatencies));
+
+        System.out.println(latencyBuilder);
+        printFairness();
+
+        System.out.println(String.format("Heap: used=%dMB peak sampled=%dMB committed=%dMB max=%dMB",
+                toMegabytes(jvmStatistics.getHeapUsed()), toMegabytes(peakHeapUsed),
+                toMegabytes(jvmStatistics.getHeapCommitted()), toMegabytes(jvmStatistics.getHeapMax())));
+
+        long gcTimeMillis = jvmStatistics.getGcTimeMillis() - measureJvmStatistics.getGcTimeMillis();
+
+        System.out.println(String.format("GC: %d collections, %dms (%.2f%% of measured time)",
+                jvmStatistics.getGcCount() - measureJvmStatistics.getGcCount(), gcTimeMillis, gcTimeMillis / (measuredSeconds * 10D)));
+
+        for (Map.Entry<String, long[]> collectorEntry : jvmStatistics.getCollectorMap().entrySet()) {
+            long[] startCollector = measureJvmStatistics.getCollectorMap().get(collectorEntry.getKey());
+
+            long collectorCount = collectorEntry.getValue()[0] - (startCollector == null ? 0 : startCollector[0]);
+            long collectorTime = collectorEntry.getValue()[1] - (startCollector == null ? 0 : startCollector[1]);
+
+            System.out.println(String.format("  %-20s %d collections, %dms", collectorEntry.getKey(), collectorCount, collectorTime));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (csvWriter != null) {
+            csvWriter.close();
+        }
+    }
+
+
+    private void printFairness() {
+        int clientCount = measureClientCounts.length;
+
+        if (clientCount == 0) {
+            return;
+        }
+
+        long minCount = Long.MAX_VALUE;
+        long maxCount = 0;
+        long starvedCount = 0;
+
+        double countSum = 0;
+        double countSquareSum = 0;
+
+        for (int i = 0; i < clientCount; i++) {
+            long completedCount = loadClients.get(i).getCompletedCount() - measureClientCounts[i];
+
+            minCount = Math.min(minCount, completedCount);
+            maxCount = Math.max(maxCount, completedCount);
+
+            if (completedCount == 0) {
+                starvedCount++;
+            }
+
+            countSum += completedCount;
+            countSquareSum += (double) completedCount * completedCount;
+        }
+
+        double meanCount = countSum / clientCount;
+        double deviation = Math.sqrt(Math.max(0, countSquareSum / clientCount - meanCount * meanCount));
+
+        // индекс Джайна: 1 - все подключения обслужены
+        // одинаково, 1/n - обслужено только одно
+        double jainIndex = countSquareSum == 0 ? 1 : (countSum * countSum) / (clientCount * countSquareSum);
+
+        System.out.println(String.format("Fairness per connection: min=%d mean=%.1f max=%d cv=%.1f%% jain=%.4f starved=%d",
+                minCount, meanCount, maxCount, meanCount == 0 ? 0 : deviation * 100 / meanCount, jainIndex, starvedCount));
+    }
+
+    private void drainLatencies() {
+        Arrays.fill(drainedLatencies, 0);
+        loadStatistics.drainLatencies(drainedLatencies);
+
+        for (int bucket = 0; bucket < drainedLatencies.length; bucket++) {
+            intervalLatencies[bucket] += drainedLatencies[bucket];
+
+            if (measuring) {
+                measuredLatencies[bucket] += drainedLatencies[bucket];
+            }
+        }
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format("%.1fus", nanos / 1000D);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile).replace(".", "");
+    }
+
+    private static long toMegabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+}
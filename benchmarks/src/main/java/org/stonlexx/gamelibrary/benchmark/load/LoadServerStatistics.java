@@ -0,0 +1,32 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчик пакетов, которые дошли до сервера
+ * нагрузочного теста
+ */
+public final class LoadServerStatistics {
+
+    private static final LongAdder RECEIVED_COUNT = new LongAdder();
+
+
+    private LoadServerStatistics() {
+    }
+
+    /**
+     * Учесть пакет, обработанный сервером
+     */
+    public static void onReceived() {
+        RECEIVED_COUNT.increment();
+    }
+
+    /**
+     * Получить количество пакетов,
+     * обработанных сервером
+     */
+    public static long getReceivedCount() {
+        return RECEIVED_COUNT.sum();
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.stonlexx.gamelibrary.benchmark.load;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общие счетчики всех клиентов нагрузочного теста
+ */
+public final class LoadStatistics {
+
+    private final LoadLatencyHistogram latencyHistogram = new LoadLatencyHistogram();
+
+    private final LongAdder[] sentCounts = createCounters();
+    private final LongAdder[] completedCounts = createCounters();
+
+    private final LongAdder failedCount = new LongAdder();
+
+
+    /**
+     * Учесть отправленный пакет
+     *
+     * @param packetType - вид пакета
+     */
+    public void onSent(LoadPacketType packetType) {
+        sentCounts[packetType.ordinal()].increment();
+    }
+
+    /**
+     * Учесть пакет без ответа, который
+     * считается выполненным сразу после отправки
+     *
+     * @param packetType - вид пакета
+     */
+    public void onCompleted(LoadPacketType packetType) {
+        completedCounts[packetType.ordinal()].increment();
+    }
+
+    /**
+     * Учесть полученный ответ на пакет
+     *
+     * @param packetType   - вид пакета
+     * @param latencyNanos - время от отправки до ответа
+     */
+    public void onCompleted(LoadPacketType packetType, long latencyNanos) {
+        completedCounts[packetType.ordinal()].increment();
+        latencyHistogram.record(latencyNanos);
+    }
+
+    /**
+     * Учесть запрос, на который не пришел
+     * callback response
+     */
+    public void onFailed() {
+        failedCount.increment();
+    }
+
+    /**
+     * Забрать задержки, накопленные с прошлого вызова
+     *
+     * @param targetCounts - счетчики корзин {@link LoadLatencyHistogram}
+     */
+    public void drainLatencies(long[] targetCounts) {
+        latencyHistogram.drainTo(targetCounts);
+    }
+
+    public long getSentCount(LoadPacketType packetType) {
+        return sentCounts[packetType.ordinal()].sum();
+    }
+
+    public long getCompletedCount(LoadPacketType packetType) {
+        return completedCounts[packetType.ordinal()].sum();
+    }
+
+    public long getSentCount() {
+        return sum(sentCounts);
+    }
+
+    public long getCompletedCount() {
+        return sum(completedCounts);
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+
+    private static LongAdder[] createCounters() {
+        LongAdder[] counters = new LongAdder[LoadPacketType.values().length];
+
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+
+        return counters;
+    }
+
+    private static long sum(LongAdder[] counters) {
+        long totalCount = 0;
+
+        for (LongAdder counter : counters) {
+            totalCount += counter.sum();
+        }
+
+        return totalCount;
+    }
+
+}
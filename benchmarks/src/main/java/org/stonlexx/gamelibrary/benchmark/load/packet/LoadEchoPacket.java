@@ -0,0 +1,64 @@
+package org.stonlexx.gamelibrary.benchmark.load.packet;
+
+import io.netty.channel.Channel;
+import org.stonlexx.gamelibrary.benchmark.load.LoadClient;
+import org.stonlexx.gamelibrary.benchmark.load.LoadServerStatistics;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+/**
+ * Эхо-пакет: сервер отправляет его копию обратно
+ * обычным пакетом, а клиент по времени отправки
+ * считает задержку полного пути
+ */
+public class LoadEchoPacket extends AbstractNettyPacket {
+
+    public long sendNanos;
+    public boolean response;
+
+    public byte[] payload;
+
+
+    public LoadEchoPacket() {
+    }
+
+    public LoadEchoPacket(long sendNanos, boolean response, byte[] payload) {
+        this.sendNanos = sendNanos;
+        this.response = response;
+
+        this.payload = payload;
+    }
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeLong(sendNanos);
+        packetBuffer.writeBoolean(response);
+
+        packetBuffer.writeArray(payload);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        sendNanos = packetBuffer.readLong();
+        response = packetBuffer.readBoolean();
+
+        payload = packetBuffer.readArray();
+    }
+
+    @Override
+    public void handle(Channel channel) {
+        if (!response) {
+            LoadServerStatistics.onReceived();
+
+            channel.writeAndFlush(new LoadEchoPacket(sendNanos, true, payload), channel.voidPromise());
+            return;
+        }
+
+        LoadClient loadClient = channel.attr(LoadClient.LOAD_CLIENT_ATTRIBUTE).get();
+
+        if (loadClient != null) {
+            loadClient.onEchoResponse(sendNanos);
+        }
+    }
+
+}
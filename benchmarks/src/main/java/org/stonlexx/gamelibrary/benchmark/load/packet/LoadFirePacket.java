@@ -0,0 +1,39 @@
+package org.stonlexx.gamelibrary.benchmark.load.packet;
+
+import io.netty.channel.Channel;
+import org.stonlexx.gamelibrary.benchmark.load.LoadServerStatistics;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+/**
+ * Пакет без ответа, сервер только
+ * учитывает его получение
+ */
+public class LoadFirePacket extends AbstractNettyPacket {
+
+    public byte[] payload;
+
+
+    public LoadFirePacket() {
+    }
+
+    public LoadFirePacket(byte[] payload) {
+        this.payload = payload;
+    }
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeArray(payload);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        payload = packetBuffer.readArray();
+    }
+
+    @Override
+    public void handle(Channel channel) {
+        LoadServerStatistics.onReceived();
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.stonlexx.gamelibrary.benchmark.load.packet;
+
+import io.netty.channel.Channel;
+import org.stonlexx.gamelibrary.benchmark.load.LoadServerStatistics;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+/**
+ * Пакет запроса с callback response, сервер отвечает
+ * на него этим же пакетом через стандартный handleRequest
+ */
+public class LoadRequestPacket extends AbstractNettyPacket {
+
+    public long sendNanos;
+    public byte[] payload;
+
+
+    public LoadRequestPacket() {
+    }
+
+    public LoadRequestPacket(long sendNanos, byte[] payload) {
+        this.sendNanos = sendNanos;
+        this.payload = payload;
+    }
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeLong(sendNanos);
+        packetBuffer.writeArray(payload);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        sendNanos = packetBuffer.readLong();
+        payload = packetBuffer.readArray();
+    }
+
+    @Override
+    public void handle(Channel channel) {
+        LoadServerStatistics.onReceived();
+    }
+
+}
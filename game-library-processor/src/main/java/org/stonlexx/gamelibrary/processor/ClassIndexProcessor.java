@@ -0,0 +1,147 @@
+package org.stonlexx.gamelibrary.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Процессор аннотаций, который записывает индекс классов
+ * в META-INF/gamelibrary/index/ - по файлу на каждую аннотацию
+ *
+ * В индекс попадают классы, на которых стоит аннотация,
+ * и классы, на полях или методах которых она стоит.
+ * Индекс читает ClassIndex из game-library вместо
+ * сканирования classpath через Reflections
+ */
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    private static final String INDEX_DIRECTORY = "META-INF/gamelibrary/index/";
+
+    private static final Set<String> INDEXED_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketAutoRegister",
+            "org.stonlexx.gamelibrary.common.bean.Bean",
+            "org.stonlexx.gamelibrary.common.dependency.Depend",
+            "org.stonlexx.gamelibrary.common.dependency.DependInject",
+            "org.stonlexx.gamelibrary.utility.test.AsyncTest",
+            "org.stonlexx.gamelibrary.utility.test.ThreadTest"
+    ));
+
+    private Elements elements;
+
+    private Filer filer;
+    private Messager messager;
+
+    private final Map<String, Set<String>> indexMap = new TreeMap<>();
+
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        this.elements = processingEnv.getElementUtils();
+
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return INDEXED_ANNOTATIONS;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            indexMap.forEach(this::writeIndex);
+            return false;
+        }
+
+        for (TypeElement annotation : annotations) {
+            Set<String> indexedClasses = indexMap.computeIfAbsent(annotation.getQualifiedName().toString(), name -> new TreeSet<>());
+
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                TypeElement typeElement = getEnclosingType(element);
+
+                if (typeElement != null) {
+                    indexedClasses.add(elements.getBinaryName(typeElement).toString());
+                }
+            }
+        }
+
+        return false;
+    }
+
+
+    private TypeElement getEnclosingType(Element element) {
+        while (element != null && !(element instanceof TypeElement)) {
+            element = element.getEnclosingElement();
+        }
+
+        return (TypeElement) element;
+    }
+
+    private void writeIndex(String annotationName, Set<String> indexedClasses) {
+        String indexResource = INDEX_DIRECTORY + annotationName;
+        Set<String> classNames = new TreeSet<>(indexedClasses);
+
+        // при инкрементальной сборке компилируется только часть
+        // классов, поэтому старые записи индекса сохраняются
+        try {
+            FileObject existingResource = filer.getResource(StandardLocation.CLASS_OUTPUT, "", indexResource);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existingResource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        classNames.add(line);
+                    }
+                }
+            }
+        }
+
+        catch (IOException | IllegalArgumentException ignored) {
+            // индекса еще нет
+        }
+
+        try {
+            FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", indexResource);
+
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String className : classNames) {
+                    writer.write(className);
+                    writer.write('\n');
+                }
+            }
+        }
+
+        catch (FilerException exception) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Skipped " + indexResource + ": " + exception.getMessage());
+        }
+
+        catch (IOException exception) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + indexResource + ": " + exception.getMessage());
+        }
+    }
+
+}
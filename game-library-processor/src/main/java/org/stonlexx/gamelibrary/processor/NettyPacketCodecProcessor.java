@@ -0,0 +1,500 @@
+package org.stonlexx.gamelibrary.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Процессор аннотаций, который генерирует кодеки для пакетов
+ * с полями, помеченными аннотацией PacketField
+ *
+ * Для каждого такого пакета в его же пакейдже создается
+ * класс {@code <ИмяПакета>NettyCodec} с прямолинейной записью
+ * и чтением полей через NettyPacketBuffer, а все кодеки
+ * перечисляются в META-INF/services, откуда их один раз
+ * загружает NettyPacketCodecRegistry
+ *
+ * Процессор не зависит от game-library и ссылается на ее
+ * классы по названиям, поэтому его можно подключить
+ * через annotationProcessorPaths без лишних зависимостей
+ */
+public class NettyPacketCodecProcessor extends AbstractProcessor {
+
+    private static final String PACKET_FIELD_ANNOTATION         = "org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketField";
+    private static final String PACKET_AUTO_REGISTER_ANNOTATION = "org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketAutoRegister";
+
+    private static final String NETTY_PACKET_CLASS              = "org.stonlexx.gamelibrary.common.netty.packet.NettyPacket";
+    private static final String NETTY_PACKET_BUFFER_CLASS       = "org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer";
+    private static final String NETTY_PACKET_CODEC_CLASS        = "org.stonlexx.gamelibrary.common.netty.packet.codec.generated.NettyPacketCodec";
+
+    private static final String CODEC_CLASS_SUFFIX              = "NettyCodec";
+    private static final String SERVICE_RESOURCE                = "META-INF/services/" + NETTY_PACKET_CODEC_CLASS;
+
+    private Elements elements;
+    private Types types;
+
+    private Filer filer;
+    private Messager messager;
+
+    private final Set<String> processedPackets  = new HashSet<>();
+    private final Set<String> generatedCodecs   = new TreeSet<>();
+
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(PACKET_FIELD_ANNOTATION, PACKET_AUTO_REGISTER_ANNOTATION));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceResource();
+            return false;
+        }
+
+        Set<TypeElement> packetTypes = new LinkedHashSet<>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+
+                if (element.getKind() == ElementKind.FIELD) {
+                    packetTypes.add((TypeElement) element.getEnclosingElement());
+
+                } else if (element.getKind() == ElementKind.CLASS) {
+                    packetTypes.add((TypeElement) element);
+                }
+            }
+        }
+
+        for (TypeElement packetType : packetTypes) {
+
+            if (processedPackets.add(packetType.getQualifiedName().toString())) {
+                processPacket(packetType);
+            }
+        }
+
+        return false;
+    }
+
+
+    private void processPacket(TypeElement packetType) {
+        // поля абстрактных пакетов попадают в кодеки их наследников
+        if (packetType.getModifiers().contains(Modifier.ABSTRACT)) {
+            return;
+        }
+
+        List<VariableElement> packetFields = collectPacketFields(packetType);
+
+        if (packetFields.isEmpty()) {
+            return;
+        }
+
+        if (!validatePacketType(packetType)) {
+            return;
+        }
+
+        String packageName = elements.getPackageOf(packetType).getQualifiedName().toString();
+        List<CodecField> codecFields = new ArrayList<>();
+
+        for (VariableElement packetField : packetFields) {
+            CodecField codecField = resolveCodecField(packageName, packetField);
+
+            if (codecField != null) {
+                codecFields.add(codecField);
+            }
+        }
+
+        // ошибки выводятся сразу по всем полям пакета
+        if (codecFields.size() != packetFields.size()) {
+            return;
+        }
+
+        warnHandwrittenMethods(packetType);
+
+        String codecSimpleName = packetType.getQualifiedName().toString()
+                .substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                .replace('.', '_') + CODEC_CLASS_SUFFIX;
+
+        String codecName = packageName.isEmpty() ? codecSimpleName : packageName + "." + codecSimpleName;
+
+        try {
+            writeCodecSource(packetType, packageName, codecSimpleName, codecName, codecFields);
+            generatedCodecs.add(codecName);
+        }
+
+        catch (IOException exception) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + codecName + ": " + exception.getMessage(), packetType);
+        }
+    }
+
+    private List<VariableElement> collectPacketFields(TypeElement packetType) {
+        LinkedList<List<VariableElement>> hierarchyFields = new LinkedList<>();
+        TypeElement currentType = packetType;
+
+        while (currentType != null) {
+            List<VariableElement> typeFields = new ArrayList<>();
+
+            for (VariableElement field : ElementFilter.fieldsIn(currentType.getEnclosedElements())) {
+
+                if (getPacketFieldAnnotation(field) != null) {
+                    typeFields.add(field);
+                }
+            }
+
+            // поля родительских классов записываются первыми
+            hierarchyFields.addFirst(typeFields);
+
+            TypeMirror superclass = currentType.getSuperclass();
+            currentType = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+
+        List<VariableElement> packetFields = new ArrayList<>();
+        hierarchyFields.forEach(packetFields::addAll);
+
+        return packetFields;
+    }
+
+    private boolean validatePacketType(TypeElement packetType) {
+        TypeElement nettyPacketType = elements.getTypeElement(NETTY_PACKET_CLASS);
+
+        if (nettyPacketType != null && !types.isAssignable(types.erasure(packetType.asType()), types.erasure(nettyPacketType.asType()))) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@PacketField can only be used in NettyPacket classes", packetType);
+            return false;
+        }
+
+        if (!packetType.getTypeParameters().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "NettyPacket with @PacketField fields cannot be generic", packetType);
+            return false;
+        }
+
+        for (Element element = packetType; element instanceof TypeElement; element = element.getEnclosingElement()) {
+
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "NettyPacket with @PacketField fields cannot be private", packetType);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private CodecField resolveCodecField(String packageName, VariableElement packetField) {
+        Set<Modifier> modifiers = packetField.getModifiers();
+
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@PacketField cannot be private, static or final", packetField);
+            return null;
+        }
+
+        String fieldPackageName = elements.getPackageOf(packetField).getQualifiedName().toString();
+
+        if (!modifiers.contains(Modifier.PUBLIC) && !fieldPackageName.equals(packageName)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@PacketField declared in another package must be public", packetField);
+            return null;
+        }
+
+        String encoding = getEncoding(getPacketFieldAnnotation(packetField));
+        TypeMirror fieldType = packetField.asType();
+
+        PacketFieldCodec fieldCodec = resolveFieldCodec(fieldType, encoding);
+
+        if (fieldCodec == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, String.format("@PacketField(%s) is not supported for type %s", encoding, fieldType), packetField);
+            return null;
+        }
+
+        String enumTypeName = fieldCodec == PacketFieldCodec.ENUM_ORDINAL || fieldCodec == PacketFieldCodec.ENUM_NAME
+                ? types.erasure(fieldType).toString()
+                : null;
+
+        return new CodecField(packetField.getSimpleName().toString(), fieldCodec, enumTypeName);
+    }
+
+    private PacketFieldCodec resolveFieldCodec(TypeMirror fieldType, String encoding) {
+        boolean auto = encoding.equals("AUTO");
+
+        boolean fixed = auto || encoding.equals("FIXED");
+        boolean varInt = auto || encoding.equals("VARINT");
+
+        switch (fieldType.getKind()) {
+
+            case BOOLEAN:
+                return fixed ? PacketFieldCodec.BOOLEAN : null;
+
+            case BYTE:
+                return fixed ? PacketFieldCodec.BYTE : null;
+
+            case SHORT:
+                return auto || encoding.equals("FIXED") ? PacketFieldCodec.SHORT : varInt ? PacketFieldCodec.VAR_SHORT : null;
+
+            case CHAR:
+                return fixed ? PacketFieldCodec.CHAR : null;
+
+            case INT:
+                return varInt ? PacketFieldCodec.VAR_INT : fixed ? PacketFieldCodec.INT : null;
+
+            case LONG:
+                return varInt ? PacketFieldCodec.VAR_LONG : fixed ? PacketFieldCodec.LONG : null;
+
+            case FLOAT:
+                return fixed ? PacketFieldCodec.FLOAT : null;
+
+            case DOUBLE:
+                return fixed ? PacketFieldCodec.DOUBLE : null;
+
+            case ARRAY: {
+                TypeKind componentKind = ((ArrayType) fieldType).getComponentType().getKind();
+
+                if (componentKind == TypeKind.BYTE) {
+                    return fixed ? PacketFieldCodec.BYTE_ARRAY : null;
+                }
+
+                if (componentKind == TypeKind.INT) {
+                    return varInt ? PacketFieldCodec.VAR_INT_ARRAY : null;
+                }
+
+                return null;
+            }
+
+            case DECLARED:
+                return resolveDeclaredCodec((DeclaredType) fieldType, encoding);
+
+            default:
+                return null;
+        }
+    }
+
+    private PacketFieldCodec resolveDeclaredCodec(DeclaredType fieldType, String encoding) {
+        TypeElement fieldElement = (TypeElement) fieldType.asElement();
+        String typeName = fieldElement.getQualifiedName().toString();
+
+        boolean auto = encoding.equals("AUTO");
+
+        if (fieldElement.getKind() == ElementKind.ENUM) {
+            return auto || encoding.equals("VARINT") ? PacketFieldCodec.ENUM_ORDINAL : encoding.equals("STRING") ? PacketFieldCodec.ENUM_NAME : null;
+        }
+
+        switch (typeName) {
+
+            case "java.lang.String":
+                return auto || encoding.equals("STRING") ? PacketFieldCodec.STRING : null;
+
+            case "java.util.UUID":
+                return auto || encoding.equals("UUID") ? PacketFieldCodec.UUID : null;
+
+            case "java.util.List": {
+                List<? extends TypeMirror> typeArguments = fieldType.getTypeArguments();
+
+                boolean stringList = typeArguments.size() == 1 && typeArguments.get(0).toString().equals("java.lang.String");
+                return stringList && (auto || encoding.equals("STRING")) ? PacketFieldCodec.STRING_LIST : null;
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    private void warnHandwrittenMethods(TypeElement packetType) {
+        for (ExecutableElement method : ElementFilter.methodsIn(packetType.getEnclosedElements())) {
+            String methodName = method.getSimpleName().toString();
+
+            if ((methodName.equals("writePacket") || methodName.equals("readPacket")) && method.getParameters().size() == 1) {
+                messager.printMessage(Diagnostic.Kind.WARNING, methodName + " is not used, the packet is serialized by its generated codec", method);
+            }
+        }
+    }
+
+
+    private void writeCodecSource(TypeElement packetType, String packageName, String codecSimpleName,
+                                  String codecName, List<CodecField> codecFields) throws IOException {
+
+        String packetTypeName = packetType.getQualifiedName().toString();
+        Map<String, String> enumValuesFields = new LinkedHashMap<>();
+
+        for (CodecField codecField : codecFields) {
+
+            if (codecField.fieldCodec == PacketFieldCodec.ENUM_ORDINAL) {
+                enumValuesFields.putIfAbsent(codecField.enumTypeName, "ENUM_VALUES_" + enumValuesFields.size());
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("/**\n")
+                .append(" * Кодек пакета {@link ").append(packetTypeName).append("},\n")
+                .append(" * сгенерированный ").append(NettyPacketCodecProcessor.class.getSimpleName()).append(" - не редактировать\n")
+                .append(" */\n")
+                .append("public final class ").append(codecSimpleName)
+                .append(" implements ").append(NETTY_PACKET_CODEC_CLASS).append("<").append(packetTypeName).append("> {\n\n");
+
+        for (Map.Entry<String, String> enumValuesEntry : enumValuesFields.entrySet()) {
+            source.append("    private static final ").append(enumValuesEntry.getKey()).append("[] ").append(enumValuesEntry.getValue())
+                    .append(" = ").append(enumValuesEntry.getKey()).append(".values();\n");
+        }
+
+        if (!enumValuesFields.isEmpty()) {
+            source.append("\n\n");
+        }
+
+        source.append("    @Override\n")
+                .append("    public Class<").append(packetTypeName).append("> getPacketClass() {\n")
+                .append("        return ").append(packetTypeName).append(".class;\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public void write(").append(packetTypeName).append(" nettyPacket, ").append(NETTY_PACKET_BUFFER_CLASS).append(" nettyPacketBuffer) {\n");
+
+        for (CodecField codecField : codecFields) {
+            source.append("        ").append(codecField.fieldCodec.write("nettyPacket." + codecField.fieldName)).append(";\n");
+        }
+
+        source.append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public void read(").append(packetTypeName).append(" nettyPacket, ").append(NETTY_PACKET_BUFFER_CLASS).append(" nettyPacketBuffer) {\n");
+
+        for (CodecField codecField : codecFields) {
+            String enumReference = codecField.fieldCodec == PacketFieldCodec.ENUM_ORDINAL
+                    ? enumValuesFields.get(codecField.enumTypeName)
+                    : codecField.enumTypeName;
+
+            source.append("        nettyPacket.").append(codecField.fieldName).append(" = ")
+                    .append(codecField.fieldCodec.read(enumReference)).append(";\n");
+        }
+
+        source.append("    }\n\n");
+        source.append("}\n");
+
+        try (Writer writer = filer.createSourceFile(codecName, packetType).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private void writeServiceResource() {
+        if (generatedCodecs.isEmpty()) {
+            return;
+        }
+
+        Set<String> serviceCodecs = new TreeSet<>(generatedCodecs);
+
+        // при инкрементальной сборке сохраняются кодеки,
+        // сгенерированные при прошлой компиляции
+        try {
+            FileObject existingResource = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_RESOURCE);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existingResource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        serviceCodecs.add(line);
+                    }
+                }
+            }
+        }
+
+        catch (IOException | IllegalArgumentException ignored) {
+            // ресурса еще нет
+        }
+
+        try {
+            FileObject serviceResource = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_RESOURCE);
+
+            try (Writer writer = new OutputStreamWriter(serviceResource.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String codecName : serviceCodecs) {
+                    writer.write(codecName);
+                    writer.write('\n');
+                }
+            }
+        }
+
+        catch (FilerException exception) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Skipped " + SERVICE_RESOURCE + ": " + exception.getMessage());
+        }
+
+        catch (IOException exception) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_RESOURCE + ": " + exception.getMessage());
+        }
+    }
+
+
+    private AnnotationMirror getPacketFieldAnnotation(Element element) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotationMirror.getAnnotationType().asElement();
+
+            if (annotationType.getQualifiedName().contentEquals(PACKET_FIELD_ANNOTATION)) {
+                return annotationMirror;
+            }
+        }
+
+        return null;
+    }
+
+    private String getEncoding(AnnotationMirror annotationMirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> valueEntry : annotationMirror.getElementValues().entrySet()) {
+
+            if (valueEntry.getKey().getSimpleName().contentEquals("value")) {
+                return ((VariableElement) valueEntry.getValue().getValue()).getSimpleName().toString();
+            }
+        }
+
+        return "AUTO";
+    }
+
+
+    private static final class CodecField {
+
+        private final String fieldName;
+        private final PacketFieldCodec fieldCodec;
+
+        private final String enumTypeName;
+
+        private CodecField(String fieldName, PacketFieldCodec fieldCodec, String enumTypeName) {
+            this.fieldName = fieldName;
+            this.fieldCodec = fieldCodec;
+
+            this.enumTypeName = enumTypeName;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.stonlexx.gamelibrary.processor;
+
+/**
+ * Способы записи и чтения поля пакета в сгенерированном кодеке
+ *
+ * Шаблоны записи и чтения получают через String.format
+ * ссылку на поле пакета, а для enum еще и название
+ * его класса или закешированного массива констант
+ */
+enum PacketFieldCodec {
+
+    BOOLEAN("nettyPacketBuffer.writeBoolean(%s)", "nettyPacketBuffer.readBoolean()"),
+    BYTE("nettyPacketBuffer.writeByte(%s)", "nettyPacketBuffer.readByte()"),
+    SHORT("nettyPacketBuffer.writeShort(%s)", "nettyPacketBuffer.readShort()"),
+    VAR_SHORT("nettyPacketBuffer.writeVarInt(%s)", "(short) nettyPacketBuffer.readVarInt()"),
+    CHAR("nettyPacketBuffer.writeChar(%s)", "nettyPacketBuffer.readChar()"),
+    INT("nettyPacketBuffer.writeInt(%s)", "nettyPacketBuffer.readInt()"),
+    VAR_INT("nettyPacketBuffer.writeVarInt(%s)", "nettyPacketBuffer.readVarInt()"),
+    LONG("nettyPacketBuffer.writeLong(%s)", "nettyPacketBuffer.readLong()"),
+    VAR_LONG("nettyPacketBuffer.writeVarLong(%s)", "nettyPacketBuffer.readVarLong()"),
+    FLOAT("nettyPacketBuffer.writeFloat(%s)", "nettyPacketBuffer.readFloat()"),
+    DOUBLE("nettyPacketBuffer.writeDouble(%s)", "nettyPacketBuffer.readDouble()"),
+
+    STRING("nettyPacketBuffer.writeString(%s)", "nettyPacketBuffer.readString()"),
+    UUID("nettyPacketBuffer.writeUUID(%s)", "nettyPacketBuffer.readUUID()"),
+
+    BYTE_ARRAY("nettyPacketBuffer.writeArray(%s)", "nettyPacketBuffer.readArray()"),
+    VAR_INT_ARRAY("nettyPacketBuffer.writeVarIntArray(%s)", "nettyPacketBuffer.readVarIntArray()"),
+    STRING_LIST("nettyPacketBuffer.writeStringArray(%s)", "nettyPacketBuffer.readStringArray()"),
+
+    ENUM_ORDINAL("nettyPacketBuffer.writeVarInt(%s.ordinal())", "%2$s[nettyPacketBuffer.readVarInt()]"),
+    ENUM_NAME("nettyPacketBuffer.writeString(%s.name())", "%2$s.valueOf(nettyPacketBuffer.readString())");
+
+
+    private final String writeTemplate;
+    private final String readTemplate;
+
+
+    PacketFieldCodec(String writeTemplate, String readTemplate) {
+        this.writeTemplate = writeTemplate;
+        this.readTemplate = readTemplate;
+    }
+
+    /**
+     * Получить выражение записи поля
+     *
+     * @param fieldReference - ссылка на поле пакета
+     */
+    String write(String fieldReference) {
+        return String.format(writeTemplate, fieldReference);
+    }
+
+    /**
+     * Получить выражение чтения значения поля
+     *
+     * @param enumReference - класс enum или его закешированный
+     *                        массив констант, null для остальных типов
+     */
+    String read(String enumReference) {
+        return String.format(readTemplate, null, enumReference);
+    }
+
+}
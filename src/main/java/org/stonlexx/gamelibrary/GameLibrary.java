@@ -1,7 +1,7 @@
 package org.stonlexx.gamelibrary;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.stonlexx.gamelibrary.common.CommonLogger;
@@ -9,6 +9,7 @@ import org.stonlexx.gamelibrary.common.bean.manager.BeanManager;
 import org.stonlexx.gamelibrary.common.configuration.PropertyConfigurationManager;
 import org.stonlexx.gamelibrary.common.event.EventManager;
 import org.stonlexx.gamelibrary.common.netty.NettyManager;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyTransport;
 import org.stonlexx.gamelibrary.common.scheduler.SchedulerManager;
 
 import java.lang.invoke.MethodHandles;
@@ -24,7 +25,6 @@ public final class GameLibrary {
 
 // ================================================================================================================== //
 
-    private final EventLoopGroup eventExecutors                                         = new NioEventLoopGroup();
     private final NettyManager nettyManager                                             = new NettyManager();
 
     private final PropertyConfigurationManager propertyManager                          = new PropertyConfigurationManager();
@@ -40,4 +40,23 @@ public final class GameLibrary {
     @Setter
     private CommonLogger logger                                                           = new CommonLogger();
 
+    @Getter(AccessLevel.NONE)
+    private EventLoopGroup eventExecutors;
+
+
+    /**
+     * Получить общую группу потоков Netty, она
+     * создается в реестре групп при первом обращении
+     *
+     * {@link NettyManager#shutdown()} останавливает все общие
+     * группы, поэтому после него берется новая группа
+     */
+    public synchronized EventLoopGroup getEventExecutors() {
+        if (eventExecutors == null || eventExecutors.isShuttingDown()) {
+            eventExecutors = nettyManager.getEventLoopRegistry().acquireWorkerGroup(NettyTransport.bestAvailable());
+        }
+
+        return eventExecutors;
+    }
+
 }
@@ -13,6 +13,7 @@ import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.bean.*;
 import org.stonlexx.gamelibrary.common.bean.exception.BeanException;
 import org.stonlexx.gamelibrary.common.configuration.property.CommonProperty;
+import org.stonlexx.gamelibrary.utility.index.ClassIndex;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
@@ -31,9 +32,30 @@ public final class BeanManager {
      * Сканировать все классы в указанном
      * пакейдже для поиска и регистрации новых бинов
      *
+     * Если проект собран с процессором аннотаций, классы
+     * бинов читаются из {@link ClassIndex} без сканирования
+     *
      * @param beanScanPackage - основной пакейдж для поиска
      */
     public void scanPackages(@NonNull String beanScanPackage) {
+        for (Class<?> beanClass : findBeanClasses(beanScanPackage)) {
+            Bean beanAnnotation = beanClass.getDeclaredAnnotation(Bean.class);
+
+            if (beanAnnotation == null) {
+                continue;
+            }
+
+            registerBean(beanClass);
+        }
+    }
+
+    private Collection<Class<?>> findBeanClasses(String beanScanPackage) {
+        Collection<Class<?>> indexedClasses = ClassIndex.getAnnotatedClasses(Bean.class, beanScanPackage);
+
+        if (indexedClasses != null) {
+            return indexedClasses;
+        }
+
         List<ClassLoader> classLoadersList = new LinkedList<>();
 
         classLoadersList.add(ClasspathHelper.contextClassLoader());
@@ -45,17 +67,7 @@ public final class BeanManager {
                 .setScanners(new SubTypesScanner(false), new ResourcesScanner())
                 .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(beanScanPackage))));
 
-        Set<Class<?>> classSet = reflections.getSubTypesOf(Object.class);
-
-        for (Class<?> beanClass : classSet) {
-            Bean beanAnnotation = beanClass.getDeclaredAnnotation(Bean.class);
-
-            if (beanAnnotation == null) {
-                continue;
-            }
-
-            registerBean(beanClass);
-        }
+        return reflections.getSubTypesOf(Object.class);
     }
 
     /**
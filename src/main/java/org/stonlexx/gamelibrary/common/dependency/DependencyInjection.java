@@ -8,6 +8,7 @@ import org.reflections.scanners.SubTypesScanner;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.FilterBuilder;
+import org.stonlexx.gamelibrary.utility.index.ClassIndex;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -75,23 +76,15 @@ public final class DependencyInjection {
      * Сканировать все классы в указанном
      * пакейдже для поиска и регистрации новых зависимосстей
      *
+     * Создаются только классы с {@link Depend} или полями
+     * с {@link DependInject} - как при наличии {@link ClassIndex},
+     * так и при сканировании через Reflections
+     *
      * @param packageToScan - основной пакейдж для поиска
      */
     @SneakyThrows
     public void scanDepends(@NonNull String packageToScan) {
-        List<ClassLoader> classLoadersList = new LinkedList<>();
-
-        classLoadersList.add(ClasspathHelper.contextClassLoader());
-        classLoadersList.add(ClasspathHelper.staticClassLoader());
-
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forClassLoader(classLoadersList.toArray(new ClassLoader[0])))
-
-                .setScanners(new SubTypesScanner(false), new ResourcesScanner())
-                .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(packageToScan))));
-
-        Set<Class<?>> classSet = reflections.getSubTypesOf(Object.class);
-        for (Class<?> objectClass : classSet) {
+        for (Class<?> objectClass : findDependClasses(packageToScan)) {
 
             Object object = null;
             { // create the object instance from the object class
@@ -124,6 +117,69 @@ public final class DependencyInjection {
         }
     }
 
+    private Collection<Class<?>> findDependClasses(String packageToScan) {
+        Collection<Class<?>> dependClasses = ClassIndex.getAnnotatedClasses(Depend.class, packageToScan);
+        Collection<Class<?>> injectClasses = ClassIndex.getAnnotatedClasses(DependInject.class, packageToScan);
+
+        if (dependClasses != null || injectClasses != null) {
+            Set<Class<?>> classSet = new LinkedHashSet<>();
+
+            if (dependClasses != null) {
+                classSet.addAll(dependClasses);
+            }
+
+            if (injectClasses != null) {
+                classSet.addAll(injectClasses);
+            }
+
+            return classSet;
+        }
+
+        List<ClassLoader> classLoadersList = new LinkedList<>();
+
+        classLoadersList.add(ClasspathHelper.contextClassLoader());
+        classLoadersList.add(ClasspathHelper.staticClassLoader());
+
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(ClasspathHelper.forClassLoader(classLoadersList.toArray(new ClassLoader[0])))
+
+                .setScanners(new SubTypesScanner(false), new ResourcesScanner())
+                .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(packageToScan))));
+
+        Set<Class<?>> classSet = new LinkedHashSet<>();
+
+        for (Class<?> objectClass : reflections.getSubTypesOf(Object.class)) {
+
+            if (isDependClass(objectClass)) {
+                classSet.add(objectClass);
+            }
+        }
+
+        return classSet;
+    }
+
+    /**
+     * Проверить, отмечен ли класс так же, как его
+     * записывает {@link ClassIndex} - аннотацией {@link Depend}
+     * или полями с {@link DependInject}
+     *
+     * @param objectClass - проверяемый класс
+     */
+    private boolean isDependClass(Class<?> objectClass) {
+        if (objectClass.getDeclaredAnnotation(Depend.class) != null) {
+            return true;
+        }
+
+        for (Field field : objectClass.getDeclaredFields()) {
+
+            if (field.getDeclaredAnnotation(DependInject.class) != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public <T> T getInitializedObject(@NonNull Class<T> objectClass) {
         return ((T) dependencyMap.get(objectClass));
     }
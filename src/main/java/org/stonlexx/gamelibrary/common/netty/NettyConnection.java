@@ -1,38 +1,234 @@
 package org.stonlexx.gamelibrary.common.netty;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.util.ReferenceCountUtil;
 import lombok.*;
-import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.handler.heartbeat.NettyRoundTripTime;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOutboundQueueHandler;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOutboundStatistics;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
 import org.stonlexx.gamelibrary.common.netty.packet.callback.NettyPacketCallbackHandler;
-import org.stonlexx.gamelibrary.common.netty.packet.codec.NettyPacketEncoder;
-import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyCorrelatedPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyRequestRegistry;
 
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
-@AllArgsConstructor
 @Getter
 public class NettyConnection {
 
+    /**
+     * Время ожидания ответа на запрос по умолчанию
+     */
+    public static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 5000;
+
     private final InetSocketAddress inetSocketAddress;
 
     @Setter
     private Channel channel;
 
+    /**
+     * Номер подключения в {@link NettyConnectionRegistry},
+     * 0 - подключение не зарегистрировано
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile long connectionId;
+
+
+    public NettyConnection(InetSocketAddress inetSocketAddress, Channel channel) {
+        this.inetSocketAddress = inetSocketAddress;
+        this.channel = channel;
+    }
+
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, можно ли сейчас отправить пакет
+     * на канал подключения
+     */
+    public boolean isWritable() {
+        return channel != null && channel.isActive() && channel.isOpen() && channel.isWritable() && channel.isRegistered();
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, активен ли канал подключения
+     */
+    public boolean isActive() {
+        return channel != null && channel.isActive();
+    }
+
+    /**
+     * Получить очередь исходящих пакетов подключения,
+     * null - если ее нет в pipeline канала
+     */
+    public NettyOutboundQueueHandler getOutboundQueue() {
+        return channel == null ? null : channel.pipeline().get(NettyOutboundQueueHandler.class);
+    }
+
+    /**
+     * Получить счетчики очереди исходящих пакетов,
+     * null - если очереди нет в pipeline канала
+     */
+    public NettyOutboundStatistics getOutboundStatistics() {
+        NettyOutboundQueueHandler outboundQueue = getOutboundQueue();
+        return outboundQueue == null ? null : outboundQueue.getOutboundStatistics();
+    }
+
+    /**
+     * Получить сглаженную оценку RTT и джиттера подключения
+     * по ответам на служебный ping, null - если замеров еще
+     * не было или ping на канале выключен
+     */
+    public NettyRoundTripTime getRoundTripTime() {
+        return channel == null ? null : NettyRoundTripTime.get(channel);
+    }
+
+    /**
+     * Получить количество пакетов, которые ждут,
+     * пока канал станет доступным для записи
+     */
+    public int getPendingCount() {
+        NettyOutboundQueueHandler outboundQueue = getOutboundQueue();
+        return outboundQueue == null ? 0 : outboundQueue.getPendingCount();
+    }
+
+    /**
+     * Получить количество байтов, которые записаны
+     * в канал подключения, но еще не ушли в сокет
+     */
+    public long getPendingBytes() {
+        if (channel == null) {
+            return 0;
+        }
+
+        ChannelOutboundBuffer outboundBuffer = channel.unsafe().outboundBuffer();
+        return outboundBuffer == null ? 0 : outboundBuffer.totalPendingWriteBytes();
+    }
 
     /**
      * Отправить пакет на канал подключения
      *
+     * Пока канал недоступен для записи, пакет ждет в очереди
+     * подключения. Пакет из пула возвращается в него после
+     * записи или сразу, если канал уже закрыт
+     *
      * @param nettyPacket - пакет
      */
     public void sendPacket(@NonNull NettyPacket nettyPacket) {
-        if (channel == null || !channel.isActive() || !channel.isOpen() || !channel.isWritable() || !channel.isRegistered()) {
+        if (!isActive()) {
+            ReferenceCountUtil.release(nettyPacket);
             return;
         }
 
         channel.writeAndFlush(nettyPacket);
     }
 
+    /**
+     * Записать пакет в канал подключения без flush,
+     * пакет уйдет в сокет при следующем {@link #flush()}
+     *
+     * @param nettyPacket - пакет
+     */
+    public void send(@NonNull NettyPacket nettyPacket) {
+        if (!isActive()) {
+            ReferenceCountUtil.release(nettyPacket);
+            return;
+        }
+
+        channel.write(nettyPacket, channel.voidPromise());
+    }
+
+    /**
+     * Отправить в сокет все пакеты, записанные
+     * в канал подключения через {@link #send(NettyPacket)}
+     */
+    public void flush() {
+        if (channel != null) {
+            channel.flush();
+        }
+    }
+
+    /**
+     * Записать несколько пакетов в канал подключения
+     * и отправить их в сокет одним flush
+     *
+     * @param nettyPackets - пакеты
+     */
+    public void sendAll(@NonNull Collection<? extends NettyPacket> nettyPackets) {
+        if (!isActive()) {
+            nettyPackets.forEach(ReferenceCountUtil::release);
+            return;
+        }
+
+        // все записи уходят одной задачей в event loop канала
+        if (!channel.eventLoop().inEventLoop()) {
+            List<NettyPacket> packetList = new ArrayList<>(nettyPackets);
+            channel.eventLoop().execute(() -> sendAll(packetList));
+            return;
+        }
+
+        for (NettyPacket nettyPacket : nettyPackets) {
+            channel.write(nettyPacket, channel.voidPromise());
+        }
+
+        channel.flush();
+    }
+
+    /**
+     * Отправить пакет-запрос на канал подключения
+     * и дождаться ответа на него
+     *
+     * Пакет ответа из пула нужно вернуть
+     * в пул через release() после обработки
+     *
+     * @param nettyPacket - пакет запроса
+     */
+    public <R extends NettyPacket> CompletableFuture<R> request(@NonNull NettyPacket nettyPacket) {
+        return request(nettyPacket, DEFAULT_REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Отправить пакет-запрос на канал подключения
+     * и дождаться ответа на него
+     *
+     * Future завершается в event loop канала при получении ответа
+     * или в потоке таймера по истечении времени ожидания с
+     * {@link java.util.concurrent.TimeoutException}
+     *
+     * @param nettyPacket - пакет запроса
+     * @param timeout     - время ожидания ответа
+     * @param timeUnit    - единица времени ожидания
+     */
+    public <R extends NettyPacket> CompletableFuture<R> request(@NonNull NettyPacket nettyPacket, long timeout, @NonNull TimeUnit timeUnit) {
+        if (!isActive()) {
+            ReferenceCountUtil.release(nettyPacket);
+
+            CompletableFuture<R> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(new ClosedChannelException());
+
+            return failedFuture;
+        }
+
+        NettyRequestRegistry requestRegistry = NettyRequestRegistry.getRegistry(channel);
+        NettyRequestRegistry.PendingRequest<R> pendingRequest = requestRegistry.createRequest(timeout, timeUnit);
+
+        channel.writeAndFlush(new NettyCorrelatedPacket(nettyPacket, pendingRequest.getRequestId(), false)).addListener(future -> {
+
+            if (!future.isSuccess()) {
+                requestRegistry.failRequest(pendingRequest.getRequestId(), future.cause());
+            }
+        });
+
+        return pendingRequest.getFuture();
+    }
+
     /**
      * Отправить пакет на канал подключения
      * с ожиданием callback response
@@ -41,14 +237,21 @@ public class NettyConnection {
      * @param nettyPacketCallbackHandler - обработчик callback response
      */
     public <P extends NettyPacket> void sendPacket(@NonNull P nettyPacket, @NonNull NettyPacketCallbackHandler<P> nettyPacketCallbackHandler) {
-        try {
-            Object nettyPacketId = GameLibrary.getInstance().getNettyManager().getNettyPacketId(NettyPacketDirection.ONLY_ENCODE, nettyPacket.getClass());
-            NettyPacketEncoder.CALLBACK_NETTY_PACKET_CACHE.put(nettyPacketId, nettyPacketCallbackHandler);
+        nettyPacketCallbackHandler.waitCallbackResponse();
 
-            sendPacket(nettyPacket);
-        }
-        catch (Exception exception) {
-            nettyPacketCallbackHandler.onException(exception);
-        }
+        this.<P>request(nettyPacket).whenComplete((callbackPacket, throwable) -> {
+
+            if (throwable != null) {
+                nettyPacketCallbackHandler.onException(throwable);
+                return;
+            }
+
+            try {
+                nettyPacketCallbackHandler.handleCallback(callbackPacket);
+            }
+            finally {
+                ReferenceCountUtil.release(callbackPacket);
+            }
+        });
     }
 }
@@ -0,0 +1,108 @@
+package org.stonlexx.gamelibrary.common.netty;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Вторичный индекс {@link NettyConnectionRegistry}: каждому
+ * ключу соответствует не больше одного подключения, а подключение
+ * удаляется из индекса вместе с его удалением из реестра
+ *
+ * @param <K> - тип ключа индекса
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class NettyConnectionIndex<K> {
+
+    @Getter(AccessLevel.NONE)
+    private final NettyConnectionRegistry connectionRegistry;
+
+    @Getter
+    private final Class<K> keyClass;
+
+    @Getter
+    private final String indexName;
+
+    private final Map<K, NettyConnection> connectionMap = new ConcurrentHashMap<>();
+    private final Map<Long, K> keyMap = new ConcurrentHashMap<>();
+
+
+    /**
+     * Привязать подключение к ключу индекса
+     *
+     * Прежний ключ подключения отвязывается, а подключение,
+     * которое было привязано к этому ключу раньше, теряет его
+     *
+     * @param key             - ключ, например UUID игрока
+     * @param nettyConnection - зарегистрированное подключение
+     * @return подключение, которое было привязано к ключу раньше
+     */
+    public NettyConnection bind(@NonNull K key, @NonNull NettyConnection nettyConnection) {
+        long connectionId = nettyConnection.getConnectionId();
+
+        K previousKey = keyMap.put(connectionId, key);
+
+        if (previousKey != null && !previousKey.equals(key)) {
+            connectionMap.remove(previousKey, nettyConnection);
+        }
+
+        NettyConnection previousConnection = connectionMap.put(key, nettyConnection);
+
+        if (previousConnection != null && previousConnection != nettyConnection) {
+            keyMap.remove(previousConnection.getConnectionId(), key);
+        }
+
+        // подключение могло уйти из реестра во время привязки
+        if (!connectionRegistry.isRegistered(nettyConnection)) {
+            unbind(nettyConnection);
+        }
+
+        return previousConnection == nettyConnection ? null : previousConnection;
+    }
+
+    /**
+     * Отвязать подключение от его ключа
+     *
+     * @param nettyConnection - подключение
+     * @return ключ, к которому было привязано подключение
+     */
+    public K unbind(@NonNull NettyConnection nettyConnection) {
+        K key = keyMap.remove(nettyConnection.getConnectionId());
+
+        if (key != null) {
+            connectionMap.remove(key, nettyConnection);
+        }
+
+        return key;
+    }
+
+    /**
+     * Получить подключение по ключу
+     *
+     * @param key - ключ индекса
+     */
+    public NettyConnection getConnection(@NonNull K key) {
+        return connectionMap.get(key);
+    }
+
+    /**
+     * Получить ключ, к которому привязано подключение
+     *
+     * @param nettyConnection - подключение
+     */
+    public K getKey(@NonNull NettyConnection nettyConnection) {
+        return keyMap.get(nettyConnection.getConnectionId());
+    }
+
+    /**
+     * Получить количество привязанных подключений
+     */
+    public int size() {
+        return connectionMap.size();
+    }
+
+}
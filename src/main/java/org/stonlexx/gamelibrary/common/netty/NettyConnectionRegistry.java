@@ -0,0 +1,189 @@
+package org.stonlexx.gamelibrary.common.netty;
+
+import io.netty.channel.Channel;
+import lombok.NonNull;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Потокобезопасный реестр подключений сервера
+ *
+ * Каждое подключение получает постоянный номер, по которому
+ * его можно найти так же, как и по адресу или по ключам
+ * вторичных индексов. Рассылка идет по неизменяемому снимку
+ * подключений: он пересобирается только после изменения
+ * реестра, а обход не берет никаких блокировок
+ */
+public class NettyConnectionRegistry {
+
+    private static final NettyConnection[] EMPTY_CONNECTIONS = new NettyConnection[0];
+
+    private final AtomicLong connectionIdCounter = new AtomicLong();
+    private final AtomicLong modificationCounter = new AtomicLong();
+
+    private final Map<Long, NettyConnection> connectionIdMap = new ConcurrentHashMap<>();
+    private final Map<SocketAddress, NettyConnection> connectionAddressMap = new ConcurrentHashMap<>();
+
+    private final Map<String, NettyConnectionIndex<?>> connectionIndexMap = new ConcurrentHashMap<>();
+
+    private volatile ConnectionSnapshot connectionSnapshot = new ConnectionSnapshot(0, EMPTY_CONNECTIONS);
+
+
+    /**
+     * Зарегистрировать подключение канала
+     * и выдать ему новый номер
+     *
+     * @param channel - канал подключения
+     */
+    public NettyConnection register(@NonNull Channel channel) {
+        NettyConnection nettyConnection = new NettyConnection((InetSocketAddress) channel.remoteAddress(), channel);
+        nettyConnection.setConnectionId(connectionIdCounter.incrementAndGet());
+
+        connectionIdMap.put(nettyConnection.getConnectionId(), nettyConnection);
+        connectionAddressMap.put(channel.remoteAddress(), nettyConnection);
+
+        modificationCounter.incrementAndGet();
+        return nettyConnection;
+    }
+
+    /**
+     * Удалить подключение канала из реестра
+     * и из всех вторичных индексов
+     *
+     * @param channel - канал подключения
+     * @return удаленное подключение, null - если канал не был зарегистрирован
+     */
+    public NettyConnection unregister(@NonNull Channel channel) {
+        NettyConnection nettyConnection = connectionAddressMap.get(channel.remoteAddress());
+
+        // по тому же адресу мог уже зарегистрироваться новый канал
+        if (nettyConnection == null || nettyConnection.getChannel() != channel) {
+            return null;
+        }
+
+        connectionAddressMap.remove(channel.remoteAddress(), nettyConnection);
+
+        if (connectionIdMap.remove(nettyConnection.getConnectionId()) == null) {
+            return null;
+        }
+
+        for (NettyConnectionIndex<?> connectionIndex : connectionIndexMap.values()) {
+            connectionIndex.unbind(nettyConnection);
+        }
+
+        modificationCounter.incrementAndGet();
+        return nettyConnection;
+    }
+
+    /**
+     * Получить подключение по его номеру
+     *
+     * @param connectionId - номер подключения
+     */
+    public NettyConnection getConnection(long connectionId) {
+        return connectionIdMap.get(connectionId);
+    }
+
+    /**
+     * Получить подключение по адресу клиента
+     *
+     * @param socketAddress - адрес клиента
+     */
+    public NettyConnection getConnection(@NonNull SocketAddress socketAddress) {
+        return connectionAddressMap.get(socketAddress);
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, зарегистрировано ли подключение
+     *
+     * @param nettyConnection - подключение
+     */
+    public boolean isRegistered(@NonNull NettyConnection nettyConnection) {
+        return connectionIdMap.get(nettyConnection.getConnectionId()) == nettyConnection;
+    }
+
+    /**
+     * Получить количество зарегистрированных подключений
+     */
+    public int size() {
+        return connectionIdMap.size();
+    }
+
+    /**
+     * Получить снимок всех зарегистрированных подключений
+     *
+     * Массив не меняется после получения и не должен
+     * меняться вызывающим кодом: подключения, пришедшие
+     * или ушедшие во время обхода, в нем не отражаются
+     */
+    public NettyConnection[] getConnections() {
+        long modificationCount = modificationCounter.get();
+        ConnectionSnapshot currentSnapshot = connectionSnapshot;
+
+        if (currentSnapshot.modificationCount == modificationCount) {
+            return currentSnapshot.connections;
+        }
+
+        // снимок, собранный параллельно с изменением, получит старый
+        // номер изменения и будет пересобран при следующем вызове
+        NettyConnection[] connections = connectionIdMap.values().toArray(EMPTY_CONNECTIONS);
+        this.connectionSnapshot = new ConnectionSnapshot(modificationCount, connections);
+
+        return connections;
+    }
+
+    /**
+     * Получить неизменяемое представление
+     * подключений по адресам клиентов
+     */
+    public Map<SocketAddress, NettyConnection> getConnectionAddressMap() {
+        return Collections.unmodifiableMap(connectionAddressMap);
+    }
+
+    /**
+     * Получить или создать вторичный индекс подключений
+     * по пользовательскому ключу, например UUID игрока
+     *
+     * @param keyClass  - класс ключа индекса
+     * @param indexName - название индекса
+     */
+    @SuppressWarnings("unchecked")
+    public <K> NettyConnectionIndex<K> getIndex(@NonNull Class<K> keyClass, @NonNull String indexName) {
+        NettyConnectionIndex<?> connectionIndex = connectionIndexMap.computeIfAbsent(indexName,
+                name -> new NettyConnectionIndex<>(this, keyClass, name));
+
+        if (connectionIndex.getKeyClass() != keyClass) {
+            throw new NettyException(String.format("Connection index %s already exists with key %s", indexName, connectionIndex.getKeyClass().getName()));
+        }
+
+        return (NettyConnectionIndex<K>) connectionIndex;
+    }
+
+    /**
+     * Получить все вторичные индексы подключений
+     */
+    public Collection<NettyConnectionIndex<?>> getIndexes() {
+        return Collections.unmodifiableCollection(connectionIndexMap.values());
+    }
+
+
+    private static final class ConnectionSnapshot {
+
+        private final long modificationCount;
+        private final NettyConnection[] connections;
+
+        private ConnectionSnapshot(long modificationCount, NettyConnection[] connections) {
+            this.modificationCount = modificationCount;
+            this.connections = connections;
+        }
+    }
+
+}
@@ -1,20 +1,70 @@
 package org.stonlexx.gamelibrary.common.netty;
 
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrap;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyEventLoopRegistry;
+import org.stonlexx.gamelibrary.common.netty.handler.heartbeat.NettyPingPacket;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
-import org.stonlexx.gamelibrary.common.netty.packet.mapping.NettyPacketMapper;
+import org.stonlexx.gamelibrary.common.netty.packet.handler.NettyPacketDispatcher;
+import org.stonlexx.gamelibrary.common.netty.packet.metrics.NettyPacketMetrics;
+import org.stonlexx.gamelibrary.common.netty.packet.metrics.NettyPacketMetricsSnapshot;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Getter
 public final class NettyManager {
 
-    private final NettyBootstrap nettyBootstrap                         = new NettyBootstrap();
+    private final NettyEventLoopRegistry eventLoopRegistry              = new NettyEventLoopRegistry();
+    private final NettyBootstrap nettyBootstrap                         = new NettyBootstrap(eventLoopRegistry);
     private final NettyPacketTyping<String> autoRegisterPacketTyping    = NettyPacketTyping.createPacketTyping(String.class, "auto-register");
+    private final NettyPacketDispatcher packetDispatcher                = new NettyPacketDispatcher();
+    private final NettyPacketMetrics packetMetrics                      = new NettyPacketMetrics();
+
+    @Getter(AccessLevel.NONE)
+    private Timer requestTimer;
+
+
+    {
+        // служебный ping регистрируется на обеих сторонах, поэтому
+        // в компактном заголовке он получает номер из рукопожатия
+        NettyPacketTyping.createPacketTyping(String.class, "heartbeat")
+                .registerPacket(NettyPacketDirection.GLOBAL, NettyPingPacket.class, NettyPingPacket.PACKET_ID);
+    }
+
+
+    /**
+     * Получить (или создать) общий таймер,
+     * который обслуживает таймауты запросов
+     * всех каналов
+     */
+    public synchronized Timer getRequestTimer() {
+        if (requestTimer == null) {
+            requestTimer = new HashedWheelTimer(new DefaultThreadFactory("netty-request-timer", true), 10, TimeUnit.MILLISECONDS);
+        }
+
+        return requestTimer;
+    }
+
+    /**
+     * Получить снимок метрик трафика и задержек
+     * по всем классам пакетов, начиная с классов
+     * с наибольшим трафиком
+     *
+     * Метрики собираются только после
+     * {@link NettyPacketMetrics#setEnabled(boolean)}
+     */
+    public List<NettyPacketMetricsSnapshot> getPacketMetricsSnapshot() {
+        return packetMetrics.snapshot();
+    }
 
     /**
      * Создать (если не существет) и получить
@@ -94,6 +144,43 @@ public final class NettyManager {
         return getPacketTyping(packetKeyClass, packetTypingName).getNettyPacket(nettyPacketDirection, packetId);
     }
 
+    /**
+     * Получить запись глобального индекса
+     * пакетов по классу пакета
+     *
+     * @param nettyPacketDirection - директория пакета
+     * @param nettyPacketClass     - класс пакета
+     */
+    public NettyPacketIndex.Entry findPacketEntry(@NonNull NettyPacketDirection nettyPacketDirection,
+                                                  @NonNull Class<? extends NettyPacket> nettyPacketClass) {
+
+        return NettyPacketTyping.getPacketIndex().getEntry(nettyPacketDirection, nettyPacketClass);
+    }
+
+    /**
+     * Получить запись глобального индекса
+     * пакетов по номеру пакета
+     *
+     * @param nettyPacketDirection - директория пакета
+     * @param nettyPacketId        - номер пакета
+     */
+    public NettyPacketIndex.Entry findPacketEntry(@NonNull NettyPacketDirection nettyPacketDirection,
+                                                  @NonNull Object nettyPacketId) {
+
+        return NettyPacketTyping.getPacketIndex().getEntry(nettyPacketDirection, nettyPacketId);
+    }
+
+    /**
+     * Получить запись глобального индекса
+     * пакетов по числовому номеру пакета
+     *
+     * @param nettyPacketDirection - директория пакета
+     * @param nettyPacketId        - номер пакета
+     */
+    public NettyPacketIndex.Entry findPacketEntry(@NonNull NettyPacketDirection nettyPacketDirection, int nettyPacketId) {
+        return NettyPacketTyping.getPacketIndex().getEntry(nettyPacketDirection, nettyPacketId);
+    }
+
     /**
      * Получить типизацию пакета по
      * классу этого пакета
@@ -104,17 +191,8 @@ public final class NettyManager {
     public <T> NettyPacketTyping<T> findTypingByNettyPacket(@NonNull NettyPacketDirection nettyPacketDirection,
                                                             @NonNull Class<? extends NettyPacket> nettyPacketClass) {
 
-        Collection<NettyPacketTyping<?>> nettyPacketTypingCollection = NettyPacketTyping.getPacketTypingMap().values();
-
-        for (NettyPacketTyping<?> nettyPacketTyping : nettyPacketTypingCollection) {
-            NettyPacketMapper<T> nettyPacketMapper = (NettyPacketMapper<T>) nettyPacketTyping.getPacketMapper();
-
-            if (nettyPacketMapper.hasNettyPacket(nettyPacketDirection, nettyPacketClass)) {
-                return (NettyPacketTyping<T>) nettyPacketTyping;
-            }
-        }
-
-        return null;
+        NettyPacketIndex.Entry packetEntry = findPacketEntry(nettyPacketDirection, nettyPacketClass);
+        return packetEntry == null ? null : (NettyPacketTyping<T>) packetEntry.getPacketTyping();
     }
 
     /**
@@ -127,17 +205,8 @@ public final class NettyManager {
     public <T> NettyPacketTyping<T> findTypingByNettyPacket(@NonNull NettyPacketDirection nettyPacketDirection,
                                                             @NonNull T nettyPacketId) {
 
-        Collection<NettyPacketTyping<?>> nettyPacketTypingCollection = NettyPacketTyping.getPacketTypingMap().values();
-
-        for (NettyPacketTyping<?> nettyPacketTyping : nettyPacketTypingCollection) {
-            NettyPacketMapper<T> nettyPacketMapper = (NettyPacketMapper<T>) nettyPacketTyping.getPacketMapper();
-
-            if (nettyPacketMapper.hasNettyPacketById(nettyPacketDirection, nettyPacketId)) {
-                return (NettyPacketTyping<T>) nettyPacketTyping;
-            }
-        }
-
-        return null;
+        NettyPacketIndex.Entry packetEntry = findPacketEntry(nettyPacketDirection, (Object) nettyPacketId);
+        return packetEntry == null ? null : (NettyPacketTyping<T>) packetEntry.getPacketTyping();
     }
 
     /**
@@ -147,14 +216,22 @@ public final class NettyManager {
      * @param nettyPacketClass     - класс пакета
      */
     public <T> T getNettyPacketId(NettyPacketDirection nettyPacketDirection, Class<? extends NettyPacket> nettyPacketClass) {
-        NettyPacketTyping<T> nettyPacketTyping = findTypingByNettyPacket(nettyPacketDirection, nettyPacketClass);
+        NettyPacketIndex.Entry packetEntry = findPacketEntry(nettyPacketDirection, nettyPacketClass);
+        return packetEntry == null ? null : (T) packetEntry.getPacketId();
+    }
 
-        if (nettyPacketTyping == null) {
-            return null;
-        }
+    /**
+     * Остановить все общие группы потоков Netty,
+     * общий пул обработки пакетов и таймер запросов
+     */
+    public synchronized void shutdown() {
+        eventLoopRegistry.shutdownGracefully();
+        packetDispatcher.shutdown();
 
-        NettyPacketMapper<T> nettyPacketMapper = nettyPacketTyping.getPacketMapper();
-        return nettyPacketMapper.getPacketMap().get(nettyPacketDirection).get(nettyPacketClass);
+        if (requestTimer != null) {
+            requestTimer.stop();
+            requestTimer = null;
+        }
     }
 
 }
@@ -1,22 +1,34 @@
 package org.stonlexx.gamelibrary.common.netty.bootstrap;
 
+import io.netty.bootstrap.AbstractBootstrap;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.AttributeKey;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.impl.NettyClient;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.impl.NettyClientPool;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.impl.NettyServer;
+import org.stonlexx.gamelibrary.common.netty.datagram.NettyDatagramEndpoint;
+import org.stonlexx.gamelibrary.common.netty.datagram.NettyDatagramSettings;
 import org.stonlexx.gamelibrary.common.netty.handler.client.active.AbstractNettyClientActive;
 import org.stonlexx.gamelibrary.common.netty.handler.client.inactive.AbstractNettyClientInactive;
 import org.stonlexx.gamelibrary.common.netty.handler.client.inactive.NettyClientInactiveHandler;
+import org.stonlexx.gamelibrary.common.netty.handler.heartbeat.NettyHeartbeatHandler;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOutboundQueueHandler;
 import org.stonlexx.gamelibrary.common.netty.handler.server.active.AbstractNettyServerActive;
 import org.stonlexx.gamelibrary.common.netty.handler.server.active.NettyServerActiveHandler;
 import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.AbstractNettyReconnect;
@@ -24,22 +36,28 @@ import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.EnumReconn
 import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.NettyServerReconnectHandler;
 import org.stonlexx.gamelibrary.common.netty.packet.codec.NettyPacketDecoder;
 import org.stonlexx.gamelibrary.common.netty.packet.codec.NettyPacketEncoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.compression.NettyCompressionDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.compression.NettyCompressionEncoder;
 import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21FrameDecoder;
-import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21LengthFieldEncoder;
 import org.stonlexx.gamelibrary.common.netty.packet.handler.NettyPacketHandler;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketProtocol;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+@RequiredArgsConstructor
 @Getter
 public final class NettyBootstrap {
 
     private NettyServer savedNettyServer;
     private NettyClient savedNettyClient;
 
+    private final NettyEventLoopRegistry eventLoopRegistry;
+
 
     /**
      * Создать клиентский bootstrap для подключения
@@ -48,21 +66,32 @@ public final class NettyBootstrap {
      * @param socketAddress      - адрес серверного bootstrap
      * @param futureListener     - ответ от подключения
      * @param channelInitializer - инициализация канала подключения
+     * @param nThreads           - количество потоков, 0 - общая группа потоков
+     * @param channelSettings    - настройки канала
      */
     public Bootstrap createClientBootstrap(@NonNull SocketAddress socketAddress,
 
                                            ChannelFutureListener futureListener,
-                                           ChannelInitializer<NioSocketChannel> channelInitializer,
+                                           ChannelInitializer<SocketChannel> channelInitializer,
 
-                                           int nThreads) {
+                                           int nThreads,
+                                           @NonNull NettyChannelSettings channelSettings) {
+
+        NettyTransport nettyTransport = NettyTransport.orFallback(channelSettings.getTransport());
 
         Bootstrap bootstrap = new Bootstrap()
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .option(ChannelOption.TCP_NODELAY, channelSettings.isTcpNoDelay())
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, createWaterMark(channelSettings))
 
                 .remoteAddress(socketAddress)
 
-                .channel(NioSocketChannel.class)
-                .group(new NioEventLoopGroup(Math.max(1, nThreads)));
+                .channel(nettyTransport.getSocketChannelClass())
+                .group(nThreads <= 0 ? eventLoopRegistry.acquireWorkerGroup(nettyTransport) : nettyTransport.createEventLoopGroup(nThreads));
+
+        if (nettyTransport == NettyTransport.EPOLL) {
+            bootstrap.option(EpollChannelOption.EPOLL_MODE, getEpollMode(channelSettings));
+        }
 
         // add channel initializer
         if (channelInitializer != null) {
@@ -100,39 +129,47 @@ public final class NettyBootstrap {
     public Bootstrap createClientBootstrap(@NonNull SocketAddress socketAddress,
 
                                            ChannelFutureListener futureListener,
-                                           ChannelInitializer<NioSocketChannel> channelInitializer) {
-
-        Bootstrap bootstrap = new Bootstrap()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                                           ChannelInitializer<SocketChannel> channelInitializer,
 
-                .remoteAddress(socketAddress)
+                                           int nThreads) {
 
-                .channel(NioSocketChannel.class)
-                .group(new NioEventLoopGroup(2));
+        return createClientBootstrap(socketAddress, futureListener, channelInitializer, nThreads, new NettyChannelSettings());
+    }
 
-        // add channel initializer
-        if (channelInitializer != null) {
-            bootstrap.handler(channelInitializer);
-        }
+    /**
+     * Создать клиентский bootstrap для подключения
+     * к уже заранее забиндованому серверному bootstrap
+     *
+     * @param socketAddress      - адрес серверного bootstrap
+     * @param futureListener     - ответ от подключения
+     * @param channelInitializer - инициализация канала подключения
+     */
+    public Bootstrap createClientBootstrap(@NonNull SocketAddress socketAddress,
 
-        // bind bootstrap, add listener & sync
-        try {
-            ChannelFuture channelFuture = bootstrap.connect();
+                                           ChannelFutureListener futureListener,
+                                           ChannelInitializer<SocketChannel> channelInitializer) {
 
-            if (futureListener != null) {
-                channelFuture.addListener(futureListener);
-            }
+        return createClientBootstrap(socketAddress, futureListener, channelInitializer, 0);
+    }
 
-            channelFuture.channel().closeFuture();
-            return bootstrap;
-        }
+    /**
+     * Повторно подключить уже созданный клиентский bootstrap
+     *
+     * Новый канал получает те же настройки, инициализатор
+     * и группу потоков, поэтому переподключение не берет
+     * из реестра новую ссылку на общую группу
+     *
+     * @param bootstrap      - клиентский bootstrap
+     * @param futureListener - ответ от подключения
+     */
+    public ChannelFuture reconnectClientBootstrap(@NonNull Bootstrap bootstrap, ChannelFutureListener futureListener) {
+        ChannelFuture channelFuture = bootstrap.connect();
 
-        // if you`re даун then returns null
-        catch (Exception exception) {
-            exception.printStackTrace();
+        if (futureListener != null) {
+            channelFuture.addListener(futureListener);
         }
 
-        return null;
+        return channelFuture;
     }
 
     /**
@@ -142,30 +179,65 @@ public final class NettyBootstrap {
      * @param socketAddress      - адрес серверного bootstrap
      * @param futureListener     - ответ от подключения
      * @param channelInitializer - инициализация канала подключения
+     * @param parentThreads      - количество потоков, принимающих подключения, 0 - общая группа потоков
+     * @param childThreads       - количество потоков, обслуживающих подключения, 0 - общая группа потоков
+     * @param channelSettings    - настройки канала
      */
     public ServerBootstrap createServerBootstrap(@NonNull SocketAddress socketAddress,
 
                                                  ChannelFutureListener futureListener,
-                                                 ChannelInitializer<NioSocketChannel> channelInitializer,
+                                                 ChannelInitializer<SocketChannel> channelInitializer,
 
-                                                 int parentThreads, int childThreads) {
+                                                 int parentThreads, int childThreads,
+                                                 @NonNull NettyChannelSettings channelSettings) {
+
+        NettyTransport nettyTransport = NettyTransport.orFallback(channelSettings.getTransport());
 
         ServerBootstrap serverBootstrap = new ServerBootstrap()
 
                 .option(ChannelOption.SO_REUSEADDR, true)
                 .option(ChannelOption.SO_BACKLOG, 120)
                 .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.TCP_NODELAY, channelSettings.isTcpNoDelay())
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, createWaterMark(channelSettings))
 
                 .localAddress(socketAddress)
 
-                .channel(NioServerSocketChannel.class);
+                .channel(nettyTransport.getServerSocketChannelClass());
+
+        boolean reusePort = nettyTransport == NettyTransport.EPOLL && channelSettings.isReusePort();
+        int acceptorsCount = 1;
 
-        if (childThreads <= 0 || childThreads < parentThreads) {
-            serverBootstrap.group(new NioEventLoopGroup(parentThreads));
+        // без явного количества потоков используются общие группы,
+        // но SO_REUSEPORT требует своего acceptor`а на каждый поток
+        if (parentThreads <= 0) {
+            int bossThreads = Runtime.getRuntime().availableProcessors();
+
+            EventLoopGroup bossGroup = reusePort ? nettyTransport.createEventLoopGroup(bossThreads) : eventLoopRegistry.acquireBossGroup(nettyTransport);
+            EventLoopGroup workerGroup = childThreads <= 0 ? eventLoopRegistry.acquireWorkerGroup(nettyTransport) : nettyTransport.createEventLoopGroup(childThreads);
+
+            serverBootstrap.group(bossGroup, workerGroup);
+            acceptorsCount = reusePort ? bossThreads : 1;
+
+        } else if (childThreads <= 0 || childThreads < parentThreads) {
+            serverBootstrap.group(nettyTransport.createEventLoopGroup(parentThreads));
+            acceptorsCount = reusePort ? parentThreads : 1;
 
         } else {
 
-            serverBootstrap.group(new NioEventLoopGroup(parentThreads), new NioEventLoopGroup(childThreads));
+            serverBootstrap.group(nettyTransport.createEventLoopGroup(parentThreads), nettyTransport.createEventLoopGroup(childThreads));
+            acceptorsCount = reusePort ? parentThreads : 1;
+        }
+
+        if (nettyTransport == NettyTransport.EPOLL) {
+            serverBootstrap.option(EpollChannelOption.EPOLL_MODE, getEpollMode(channelSettings));
+            serverBootstrap.childOption(EpollChannelOption.EPOLL_MODE, getEpollMode(channelSettings));
+
+            // SO_REUSEPORT позволяет забиндить порт на каждый поток
+            // принимающей группы, и ядро само распределит между ними подключения
+            if (reusePort) {
+                serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            }
         }
 
         // add channel initializer
@@ -180,6 +252,10 @@ public final class NettyBootstrap {
             channelFuture.addListener(futureListener);
         }
 
+        for (int acceptorIndex = 1; acceptorIndex < acceptorsCount; acceptorIndex++) {
+            serverBootstrap.bind();
+        }
+
         channelFuture.channel().closeFuture();
         return serverBootstrap;
     }
@@ -195,33 +271,99 @@ public final class NettyBootstrap {
     public ServerBootstrap createServerBootstrap(@NonNull SocketAddress socketAddress,
 
                                                  ChannelFutureListener futureListener,
-                                                 ChannelInitializer<NioSocketChannel> channelInitializer) {
+                                                 ChannelInitializer<SocketChannel> channelInitializer,
 
-        ServerBootstrap serverBootstrap = new ServerBootstrap()
+                                                 int parentThreads, int childThreads) {
 
-                .option(ChannelOption.SO_REUSEADDR, true)
-                .option(ChannelOption.SO_BACKLOG, 120)
-                .childOption(ChannelOption.SO_KEEPALIVE, true)
+        return createServerBootstrap(socketAddress, futureListener, channelInitializer, parentThreads, childThreads, new NettyChannelSettings());
+    }
 
-                .localAddress(socketAddress)
+    /**
+     * Создать серверный bootstrap для создания
+     * канала передачи байтов между клиентами
+     *
+     * @param socketAddress      - адрес серверного bootstrap
+     * @param futureListener     - ответ от подключения
+     * @param channelInitializer - инициализация канала подключения
+     */
+    public ServerBootstrap createServerBootstrap(@NonNull SocketAddress socketAddress,
 
-                .channel(NioServerSocketChannel.class)
-                .group(new NioEventLoopGroup(1), new NioEventLoopGroup(4));
+                                                 ChannelFutureListener futureListener,
+                                                 ChannelInitializer<SocketChannel> channelInitializer) {
 
-        // add channel initializer
-        if (channelInitializer != null) {
-            serverBootstrap.childHandler(channelInitializer);
+        return createServerBootstrap(socketAddress, futureListener, channelInitializer, 0, 0);
+    }
+
+    /**
+     * Создать датаграммный bootstrap, который
+     * принимает и отправляет пакеты через UDP
+     *
+     * @param localAddress     - локальный адрес, на который биндится канал
+     * @param futureListener   - ответ от бинда
+     * @param channelHandler   - обработчик датаграмм канала
+     * @param datagramSettings - настройки датаграммного канала
+     */
+    public Bootstrap createDatagramBootstrap(@NonNull SocketAddress localAddress,
+
+                                             ChannelFutureListener futureListener,
+                                             @NonNull ChannelHandler channelHandler,
+
+                                             @NonNull NettyDatagramSettings datagramSettings) {
+
+        NettyTransport nettyTransport = NettyTransport.orFallback(datagramSettings.getTransport());
+
+        Bootstrap bootstrap = new Bootstrap()
+                .localAddress(localAddress)
+                .handler(channelHandler)
+
+                .channel(nettyTransport.getDatagramChannelClass())
+                .group(eventLoopRegistry.acquireWorkerGroup(nettyTransport));
+
+        if (datagramSettings.getReceiveBufferSize() > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, datagramSettings.getReceiveBufferSize());
         }
 
-        // bind bootstrap, add listener & sync
-        ChannelFuture channelFuture = serverBootstrap.bind();
+        if (datagramSettings.getSendBufferSize() > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, datagramSettings.getSendBufferSize());
+        }
+
+        ChannelFuture channelFuture = bootstrap.bind();
 
         if (futureListener != null) {
             channelFuture.addListener(futureListener);
         }
 
-        channelFuture.channel().closeFuture();
-        return serverBootstrap;
+        return bootstrap;
+    }
+
+    /**
+     * Вернуть группы потоков бутстрапа: общие группы
+     * возвращаются в реестр, а собственные останавливаются
+     *
+     * @param bootstrap - клиентский или серверный bootstrap
+     */
+    public void releaseEventLoops(@NonNull AbstractBootstrap<?, ?> bootstrap) {
+        EventLoopGroup eventLoopGroup = bootstrap.config().group();
+
+        if (bootstrap instanceof ServerBootstrap) {
+            EventLoopGroup childGroup = ((ServerBootstrap) bootstrap).config().childGroup();
+
+            if (childGroup != null && childGroup != eventLoopGroup) {
+                eventLoopRegistry.release(childGroup);
+            }
+        }
+
+        if (eventLoopGroup != null) {
+            eventLoopRegistry.release(eventLoopGroup);
+        }
+    }
+
+    private WriteBufferWaterMark createWaterMark(NettyChannelSettings channelSettings) {
+        return new WriteBufferWaterMark(channelSettings.getWriteBufferLowWaterMark(), channelSettings.getWriteBufferHighWaterMark());
+    }
+
+    private EpollMode getEpollMode(NettyChannelSettings channelSettings) {
+        return channelSettings.isEdgeTriggered() ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED;
     }
 
     /**
@@ -265,11 +407,31 @@ public final class NettyBootstrap {
      * @param nettyClientInactiveCollection - список обработчиков отключения клиентов от сервера
      * @param hasStandardCodec              - разрешение на установку стандартных кодеков
      */
-    public ChannelInitializer<NioSocketChannel> createServerChannelInitializer(Consumer<NioSocketChannel> channelConsumer,
+    public ChannelInitializer<SocketChannel> createServerChannelInitializer(Consumer<SocketChannel> channelConsumer,
                                                                                Collection<AbstractNettyClientActive> nettyClientActiveCollection,
                                                                                Collection<AbstractNettyClientInactive> nettyClientInactiveCollection,
 
                                                                                boolean hasStandardCodec) {
+
+        return createServerChannelInitializer(channelConsumer, nettyClientActiveCollection, nettyClientInactiveCollection,
+                hasStandardCodec, new NettyChannelSettings());
+    }
+
+    /**
+     * Создать инициализатор серверного канала для подключения
+     *
+     * @param channelConsumer               - ответ, который возвращает канал
+     * @param nettyClientActiveCollection   - список обработчиков подключения клиентов к серверу
+     * @param nettyClientInactiveCollection - список обработчиков отключения клиентов от сервера
+     * @param hasStandardCodec              - разрешение на установку стандартных кодеков
+     * @param channelSettings               - настройки канала
+     */
+    public ChannelInitializer<SocketChannel> createServerChannelInitializer(Consumer<SocketChannel> channelConsumer,
+                                                                               Collection<AbstractNettyClientActive> nettyClientActiveCollection,
+                                                                               Collection<AbstractNettyClientInactive> nettyClientInactiveCollection,
+
+                                                                               boolean hasStandardCodec,
+                                                                               @NonNull NettyChannelSettings channelSettings) {
         return createChannelInitializer(channelConsumer, socketChannel -> {
 
             // bootstrap`s active
@@ -284,7 +446,7 @@ public final class NettyBootstrap {
                 socketChannel.pipeline().addLast("client-inactive-handler", new NettyClientInactiveHandler(nettyClientInactiveCollection));
             }
 
-        }, hasStandardCodec);
+        }, hasStandardCodec, channelSettings);
     }
 
     /**
@@ -295,11 +457,31 @@ public final class NettyBootstrap {
      * @param nettyServerActiveCollection - список обработчиков подключения сервера к клиенту
      * @param hasStandardCodec            - разрешение на установку стандартных кодеков
      */
-    public ChannelInitializer<NioSocketChannel> createClientChannelInitializer(Consumer<NioSocketChannel> channelConsumer,
+    public ChannelInitializer<SocketChannel> createClientChannelInitializer(Consumer<SocketChannel> channelConsumer,
                                                                                AbstractNettyReconnect nettyReconnect,
                                                                                Collection<AbstractNettyServerActive> nettyServerActiveCollection,
 
                                                                                boolean hasStandardCodec) {
+
+        return createClientChannelInitializer(channelConsumer, nettyReconnect, nettyServerActiveCollection,
+                hasStandardCodec, new NettyChannelSettings());
+    }
+
+    /**
+     * Создать инициализатор клиентского канала для подключения
+     *
+     * @param channelConsumer             - ответ, который возвращает канал
+     * @param nettyReconnect              - обработчик переподключения клиента к серверу при его падении
+     * @param nettyServerActiveCollection - список обработчиков подключения сервера к клиенту
+     * @param hasStandardCodec            - разрешение на установку стандартных кодеков
+     * @param channelSettings             - настройки канала
+     */
+    public ChannelInitializer<SocketChannel> createClientChannelInitializer(Consumer<SocketChannel> channelConsumer,
+                                                                               AbstractNettyReconnect nettyReconnect,
+                                                                               Collection<AbstractNettyServerActive> nettyServerActiveCollection,
+
+                                                                               boolean hasStandardCodec,
+                                                                               @NonNull NettyChannelSettings channelSettings) {
         return createChannelInitializer(channelConsumer, socketChannel -> {
 
             // bootstrap`s active
@@ -313,7 +495,7 @@ public final class NettyBootstrap {
                 socketChannel.pipeline().addLast("netty-reconnect-handler", new NettyServerReconnectHandler(nettyReconnect));
             }
 
-        }, hasStandardCodec);
+        }, hasStandardCodec, channelSettings);
     }
 
     /**
@@ -322,27 +504,39 @@ public final class NettyBootstrap {
      * @param channelConsumer  - ответ, который возвращает канал
      * @param systemConsumer   - общий консумер, который обрабатывает данные, зависимые от типа бутстрапа
      * @param hasStandardCodec - разрешение на установку стандартных кодеков
+     * @param channelSettings  - настройки канала
      */
-    private ChannelInitializer<NioSocketChannel> createChannelInitializer(Consumer<NioSocketChannel> channelConsumer,
-                                                                         Consumer<NioSocketChannel> systemConsumer,
+    private ChannelInitializer<SocketChannel> createChannelInitializer(Consumer<SocketChannel> channelConsumer,
+                                                                         Consumer<SocketChannel> systemConsumer,
 
-                                                                         boolean hasStandardCodec) {
-        return new ChannelInitializer<NioSocketChannel>() {
+                                                                         boolean hasStandardCodec,
+                                                                         NettyChannelSettings channelSettings) {
+        return new ChannelInitializer<SocketChannel>() {
 
             @Override
-            protected void initChannel(NioSocketChannel socketChannel) {
+            protected void initChannel(SocketChannel socketChannel) {
+
+                // flush`ы объединяются до конца итерации event loop
+                if (channelSettings.getFlushConsolidationLimit() > 0) {
+                    socketChannel.pipeline().addLast("netty-flush-consolidation", new FlushConsolidationHandler(channelSettings.getFlushConsolidationLimit(), true));
+                }
 
                 // check allow to set default codecs by library
                 if (hasStandardCodec) {
-                    socketChannel.pipeline().addLast("netty-frame-decoder", new Varint21FrameDecoder());
-                    socketChannel.pipeline().addLast("netty-frame-prepender", new Varint21LengthFieldEncoder());
+                    initStandardCodec(socketChannel, channelSettings);
+                }
+
+                // пакеты ждут в ограниченной очереди, пока канал недоступен для записи
+                socketChannel.pipeline().addLast("netty-outbound-queue", new NettyOutboundQueueHandler(channelSettings.getOutboundQueueLimit(),
+                        channelSettings.getOverflowPolicy(), channelSettings.getNettyWritabilityCollection()));
 
-                    socketChannel.pipeline().addAfter("netty-frame-decoder", "netty-packet-decoder", new NettyPacketDecoder());
-                    socketChannel.pipeline().addAfter("netty-frame-prepender", "netty-packet-encoder", new NettyPacketEncoder());
+                // ping/pong и закрытие молчащего канала
+                if (hasStandardCodec && (channelSettings.getHeartbeatIntervalMillis() > 0 || channelSettings.getIdleTimeoutMillis() > 0)) {
+                    socketChannel.pipeline().addLast("netty-heartbeat-handler", new NettyHeartbeatHandler(channelSettings.getHeartbeatIntervalMillis()));
                 }
 
                 // other handlers
-                socketChannel.pipeline().addLast("netty-packet-handler", new NettyPacketHandler());
+                socketChannel.pipeline().addLast("netty-packet-handler", new NettyPacketHandler(channelSettings.getDispatchMode()));
 
                 // submit consumers
                 if (channelConsumer != null) channelConsumer.accept(socketChannel);
@@ -358,30 +552,58 @@ public final class NettyBootstrap {
      * @param channelConsumer  - ответ, который возвращает канал
      * @param hasStandardCodec - разрешение на установку стандартных кодеков
      */
-    public ChannelInitializer<NioSocketChannel> createChannelInitializer(Consumer<NioSocketChannel> channelConsumer,
+    public ChannelInitializer<SocketChannel> createChannelInitializer(Consumer<SocketChannel> channelConsumer,
                                                                          boolean hasStandardCodec) {
-        return new ChannelInitializer<NioSocketChannel>() {
 
-            @Override
-            protected void initChannel(NioSocketChannel socketChannel) {
+        return createChannelInitializer(channelConsumer, null, hasStandardCodec, new NettyChannelSettings());
+    }
 
-                // check allow to set default codecs by library
-                if (hasStandardCodec) {
-                    socketChannel.pipeline().addLast("netty-frame-decoder", new Varint21FrameDecoder());
-                    socketChannel.pipeline().addLast("netty-frame-prepender", new Varint21LengthFieldEncoder());
+    /**
+     * Создать инициализатор общего канала для подключения
+     *
+     * @param channelConsumer  - ответ, который возвращает канал
+     * @param hasStandardCodec - разрешение на установку стандартных кодеков
+     * @param channelSettings  - настройки канала
+     */
+    public ChannelInitializer<SocketChannel> createChannelInitializer(Consumer<SocketChannel> channelConsumer,
+                                                                         boolean hasStandardCodec,
+                                                                         @NonNull NettyChannelSettings channelSettings) {
 
-                    socketChannel.pipeline().addAfter("netty-frame-decoder", "netty-packet-decoder", new NettyPacketDecoder());
-                    socketChannel.pipeline().addAfter("netty-frame-prepender", "netty-packet-encoder", new NettyPacketEncoder());
-                }
+        return createChannelInitializer(channelConsumer, null, hasStandardCodec, channelSettings);
+    }
 
-                // other handlers
-                socketChannel.pipeline().addLast("netty-packet-handler", new NettyPacketHandler());
+    /**
+     * Установить в канал стандартные кодеки
+     * пакетов от GameLibrary2
+     *
+     * @param socketChannel   - канал
+     * @param channelSettings - настройки канала
+     */
+    private void initStandardCodec(SocketChannel socketChannel, NettyChannelSettings channelSettings) {
+        NettyPacketProtocol packetProtocol = new NettyPacketProtocol(channelSettings.getPacketHeaderMode());
+        socketChannel.attr(NettyPacketProtocol.PROTOCOL_ATTRIBUTE).set(packetProtocol);
 
-                // submit consumers
-                if (channelConsumer != null) channelConsumer.accept(socketChannel);
-            }
+        // молчание канала считается по сырым байтам, еще до сборки фреймов
+        if (channelSettings.getIdleTimeoutMillis() > 0) {
+            socketChannel.pipeline().addLast("netty-idle-state", new IdleStateHandler(channelSettings.getIdleTimeoutMillis(), 0, 0, TimeUnit.MILLISECONDS));
+        }
 
-        };
+        socketChannel.pipeline().addLast("netty-frame-decoder", new Varint21FrameDecoder(channelSettings.getMaxFrameLength()));
+
+        // при сжатии длину фрейма записывает энкодер сжатия
+        boolean compression = channelSettings.getCompressionThreshold() >= 0;
+
+        if (compression) {
+            socketChannel.pipeline().addLast("netty-compression-decoder", new NettyCompressionDecoder(channelSettings.getMaxDecompressedLength()));
+            socketChannel.pipeline().addLast("netty-compression-encoder", new NettyCompressionEncoder(channelSettings.getCompressionThreshold(), channelSettings.getCompressionLevel(),
+                    channelSettings.getMaxFrameLength()));
+        }
+
+        socketChannel.pipeline().addLast("netty-packet-decoder", new NettyPacketDecoder(packetProtocol));
+
+        // энкодер сам записывает длину фрейма, отдельный prepender не нужен
+        socketChannel.pipeline().addLast("netty-packet-encoder", new NettyPacketEncoder(packetProtocol, !compression,
+                channelSettings.getMaxFrameLength()));
     }
 
     /**
@@ -420,4 +642,42 @@ public final class NettyBootstrap {
         return createClient(createSocketAddress("localhost", serverPort));
     }
 
+    /**
+     * Создать пул Netty клиентов
+     *
+     * @param socketAddress - адрес сервера, к которому будут подключаться клиенты
+     * @param poolSize      - количество каналов пула
+     */
+    public NettyClientPool createClientPool(@NonNull InetSocketAddress socketAddress, int poolSize) {
+        return new NettyClientPool(socketAddress, poolSize);
+    }
+
+    /**
+     * Создать пул локальных Netty клиентов
+     *
+     * @param serverPort - порт локального сервера
+     * @param poolSize   - количество каналов пула
+     */
+    public NettyClientPool createLocalClientPool(int serverPort, int poolSize) {
+        return createClientPool(createSocketAddress("localhost", serverPort), poolSize);
+    }
+
+    /**
+     * Создать датаграммный канал
+     *
+     * @param socketAddress - локальный адрес, на который биндится канал
+     */
+    public NettyDatagramEndpoint createDatagramEndpoint(@NonNull InetSocketAddress socketAddress) {
+        return new NettyDatagramEndpoint(socketAddress);
+    }
+
+    /**
+     * Создать локальный датаграммный канал
+     *
+     * @param localPort - локальный порт канала
+     */
+    public NettyDatagramEndpoint createLocalDatagramEndpoint(int localPort) {
+        return createDatagramEndpoint(createSocketAddress("localhost", localPort));
+    }
+
 }
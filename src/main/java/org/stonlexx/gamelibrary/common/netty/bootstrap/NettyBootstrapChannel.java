@@ -11,4 +11,10 @@ public interface NettyBootstrapChannel {
     Channel getChannel();
 
     NettyConnection getNettyConnection();
+
+    /**
+     * Закрыть канал и вернуть
+     * группы потоков бутстрапа
+     */
+    void shutdown();
 }
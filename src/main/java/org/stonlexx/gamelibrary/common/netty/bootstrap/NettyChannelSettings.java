@@ -0,0 +1,128 @@
+package org.stonlexx.gamelibrary.common.netty.bootstrap;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.AbstractNettyWritability;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOverflowPolicy;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21FrameDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.handler.NettyDispatchMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.zip.Deflater;
+
+@Getter
+@Setter
+public class NettyChannelSettings {
+
+    /**
+     * Транспорт каналов, по умолчанию epoll на Linux,
+     * если он доступен, иначе NIO
+     */
+    @NonNull
+    private NettyTransport transport = NettyTransport.bestAvailable();
+
+    /**
+     * Отключение алгоритма Нейгла (TCP_NODELAY)
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * SO_REUSEPORT для epoll: порт сервера биндится на каждый
+     * поток принимающей группы, что дает несколько acceptor`ов
+     */
+    private boolean reusePort = false;
+
+    /**
+     * Режим epoll: edge-triggered или level-triggered
+     */
+    private boolean edgeTriggered = true;
+
+    /**
+     * Формат заголовка пакетов стандартных кодеков
+     */
+    @NonNull
+    private NettyPacketHeaderMode packetHeaderMode = NettyPacketHeaderMode.COMPACT;
+
+    /**
+     * Максимальная длина входящего фрейма в байтах
+     */
+    private int maxFrameLength = Varint21FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+
+    /**
+     * Минимальный размер пакета в байтах, начиная с которого
+     * стандартные кодеки сжимают его, -1 - сжатие выключено.
+     * Сжатие должно быть включено на обеих сторонах подключения
+     */
+    private int compressionThreshold = -1;
+
+    /**
+     * Уровень сжатия пакетов {@link Deflater}
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Максимальный размер входящего пакета
+     * после распаковки в байтах
+     */
+    private int maxDecompressedLength = 8 * 1024 * 1024;
+
+    /**
+     * Максимальное количество flush`ей, которые объединяются
+     * в один системный вызов в пределах итерации event loop,
+     * 0 - каждый flush сразу уходит в сокет
+     */
+    private int flushConsolidationLimit = 0;
+
+    /**
+     * Где обрабатываются пришедшие пакеты
+     */
+    @NonNull
+    private NettyDispatchMode dispatchMode = NettyDispatchMode.EVENT_LOOP;
+
+    /**
+     * Нижняя отметка исходящего буфера канала в байтах,
+     * ниже нее канал снова становится доступным для записи
+     */
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * Верхняя отметка исходящего буфера канала в байтах,
+     * выше нее канал становится недоступным для записи
+     */
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * Максимальное количество пакетов, которые ждут в очереди,
+     * пока канал недоступен для записи, 0 - пакеты не ждут
+     */
+    private int outboundQueueLimit = 1024;
+
+    /**
+     * Что делать с пакетом при переполнении очереди
+     */
+    @NonNull
+    private NettyOverflowPolicy overflowPolicy = NettyOverflowPolicy.DROP_NEWEST;
+
+    /**
+     * Интервал отправки служебного ping в миллисекундах,
+     * по ответам на него считается RTT подключения, 0 - не отправлять
+     */
+    private long heartbeatIntervalMillis = 0;
+
+    /**
+     * Время в миллисекундах, после которого канал, не получивший
+     * ни одного байта, закрывается, 0 - не закрывать. Должно быть
+     * больше интервала ping другой стороны подключения
+     */
+    private long idleTimeoutMillis = 0;
+
+    /**
+     * Обработчики изменения доступности каналов для записи
+     */
+    private final Collection<AbstractNettyWritability> nettyWritabilityCollection = Collections.synchronizedCollection(new LinkedHashSet<>());
+
+}
@@ -0,0 +1,146 @@
+package org.stonlexx.gamelibrary.common.netty.bootstrap;
+
+import io.netty.channel.EventLoopGroup;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Реестр общих групп потоков для всех бутстрапов
+ *
+ * Каждый бутстрап, созданный без явного количества
+ * потоков, берет общую группу через acquire и возвращает
+ * ее через release. Группа останавливается, когда ее
+ * больше не использует ни один бутстрап
+ */
+public final class NettyEventLoopRegistry {
+
+    /**
+     * Количество потоков общей группы,
+     * которая принимает подключения
+     */
+    @Getter
+    @Setter
+    private int bossThreads = 1;
+
+    /**
+     * Количество потоков общей группы,
+     * которая обслуживает подключения
+     */
+    @Getter
+    @Setter
+    private int workerThreads = Runtime.getRuntime().availableProcessors();
+
+    private final Map<NettyTransport, SharedEventLoopGroup> bossGroupMap = new EnumMap<>(NettyTransport.class);
+    private final Map<NettyTransport, SharedEventLoopGroup> workerGroupMap = new EnumMap<>(NettyTransport.class);
+
+
+    /**
+     * Взять общую группу потоков, которая
+     * принимает подключения к серверам
+     *
+     * @param nettyTransport - транспорт группы
+     */
+    public synchronized EventLoopGroup acquireBossGroup(@NonNull NettyTransport nettyTransport) {
+        return acquire(bossGroupMap, nettyTransport, bossThreads);
+    }
+
+    /**
+     * Взять общую группу потоков, которая
+     * обслуживает подключения
+     *
+     * @param nettyTransport - транспорт группы
+     */
+    public synchronized EventLoopGroup acquireWorkerGroup(@NonNull NettyTransport nettyTransport) {
+        return acquire(workerGroupMap, nettyTransport, workerThreads);
+    }
+
+    /**
+     * Вернуть группу потоков в реестр
+     *
+     * Общая группа останавливается после возврата последней
+     * ссылки на нее, а собственная группа бутстрапа,
+     * созданная не через реестр, останавливается сразу
+     *
+     * @param eventLoopGroup - группа потоков
+     */
+    public synchronized void release(@NonNull EventLoopGroup eventLoopGroup) {
+        if (release(bossGroupMap, eventLoopGroup) || release(workerGroupMap, eventLoopGroup)) {
+            return;
+        }
+
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, является ли группа потоков общей
+     *
+     * @param eventLoopGroup - группа потоков
+     */
+    public synchronized boolean isShared(@NonNull EventLoopGroup eventLoopGroup) {
+        return findTransport(bossGroupMap, eventLoopGroup) != null || findTransport(workerGroupMap, eventLoopGroup) != null;
+    }
+
+    /**
+     * Остановить все общие группы потоков,
+     * независимо от количества ссылок на них
+     */
+    public synchronized void shutdownGracefully() {
+        bossGroupMap.values().forEach(sharedGroup -> sharedGroup.eventLoopGroup.shutdownGracefully());
+        workerGroupMap.values().forEach(sharedGroup -> sharedGroup.eventLoopGroup.shutdownGracefully());
+
+        bossGroupMap.clear();
+        workerGroupMap.clear();
+    }
+
+
+    private EventLoopGroup acquire(Map<NettyTransport, SharedEventLoopGroup> groupMap, NettyTransport nettyTransport, int nThreads) {
+        SharedEventLoopGroup sharedGroup = groupMap.computeIfAbsent(nettyTransport,
+                transport -> new SharedEventLoopGroup(transport.createEventLoopGroup(Math.max(1, nThreads))));
+
+        sharedGroup.referenceCount++;
+        return sharedGroup.eventLoopGroup;
+    }
+
+    private boolean release(Map<NettyTransport, SharedEventLoopGroup> groupMap, EventLoopGroup eventLoopGroup) {
+        NettyTransport nettyTransport = findTransport(groupMap, eventLoopGroup);
+
+        if (nettyTransport == null) {
+            return false;
+        }
+
+        SharedEventLoopGroup sharedGroup = groupMap.get(nettyTransport);
+
+        if (--sharedGroup.referenceCount <= 0) {
+            groupMap.remove(nettyTransport);
+            sharedGroup.eventLoopGroup.shutdownGracefully();
+        }
+
+        return true;
+    }
+
+    private NettyTransport findTransport(Map<NettyTransport, SharedEventLoopGroup> groupMap, EventLoopGroup eventLoopGroup) {
+        for (Map.Entry<NettyTransport, SharedEventLoopGroup> groupEntry : groupMap.entrySet()) {
+
+            if (groupEntry.getValue().eventLoopGroup == eventLoopGroup) {
+                return groupEntry.getKey();
+            }
+        }
+
+        return null;
+    }
+
+
+    @RequiredArgsConstructor
+    private static final class SharedEventLoopGroup {
+
+        private final EventLoopGroup eventLoopGroup;
+        private int referenceCount;
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.stonlexx.gamelibrary.common.netty.bootstrap;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Транспорт, через который работают каналы
+ * серверных и клиентских бутстрапов
+ */
+public enum NettyTransport {
+
+    /**
+     * Стандартный транспорт на Java NIO,
+     * доступен на любой платформе
+     */
+    NIO {
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public Class<? extends SocketChannel> getSocketChannelClass() {
+            return NioSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends DatagramChannel> getDatagramChannelClass() {
+            return NioDatagramChannel.class;
+        }
+
+        @Override
+        public EventLoopGroup createEventLoopGroup(int nThreads) {
+            return new NioEventLoopGroup(nThreads);
+        }
+    },
+
+    /**
+     * Нативный транспорт на epoll, доступен
+     * только на Linux при наличии нативной библиотеки
+     */
+    EPOLL {
+
+        @Override
+        public boolean isAvailable() {
+            try {
+                return Epoll.isAvailable();
+            }
+
+            // нативная библиотека не загрузилась
+            catch (Throwable throwable) {
+                return false;
+            }
+        }
+
+        @Override
+        public Class<? extends SocketChannel> getSocketChannelClass() {
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends DatagramChannel> getDatagramChannelClass() {
+            return EpollDatagramChannel.class;
+        }
+
+        @Override
+        public EventLoopGroup createEventLoopGroup(int nThreads) {
+            return new EpollEventLoopGroup(nThreads);
+        }
+    };
+
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, доступен ли транспорт на текущей платформе
+     */
+    public abstract boolean isAvailable();
+
+    /**
+     * Получить класс клиентского канала
+     */
+    public abstract Class<? extends SocketChannel> getSocketChannelClass();
+
+    /**
+     * Получить класс серверного канала
+     */
+    public abstract Class<? extends ServerSocketChannel> getServerSocketChannelClass();
+
+    /**
+     * Получить класс датаграммного канала
+     */
+    public abstract Class<? extends DatagramChannel> getDatagramChannelClass();
+
+    /**
+     * Создать группу потоков для каналов транспорта
+     *
+     * @param nThreads - количество потоков, 0 - по количеству ядер
+     */
+    public abstract EventLoopGroup createEventLoopGroup(int nThreads);
+
+
+    /**
+     * Получить лучший доступный транспорт:
+     * epoll на Linux, иначе NIO
+     */
+    public static NettyTransport bestAvailable() {
+        return EPOLL.isAvailable() ? EPOLL : NIO;
+    }
+
+    /**
+     * Получить указанный транспорт, если он доступен,
+     * иначе стандартный NIO
+     *
+     * @param nettyTransport - желаемый транспорт
+     */
+    public static NettyTransport orFallback(NettyTransport nettyTransport) {
+        return nettyTransport != null && nettyTransport.isAvailable() ? nettyTransport : NIO;
+    }
+
+}
@@ -5,7 +5,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 import lombok.*;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.stonlexx.gamelibrary.GameLibrary;
@@ -13,11 +13,14 @@ import org.stonlexx.gamelibrary.common.netty.NettyConnection;
 import org.stonlexx.gamelibrary.common.netty.NettyManager;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrap;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrapChannel;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyChannelSettings;
 import org.stonlexx.gamelibrary.common.netty.builder.NettyClientBuilder;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.AbstractNettyWritability;
 import org.stonlexx.gamelibrary.common.netty.handler.server.active.AbstractNettyServerActive;
 import org.stonlexx.gamelibrary.common.netty.handler.server.active.impl.NettyConsumerServerActive;
 import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.AbstractNettyReconnect;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
 import org.stonlexx.gamelibrary.utility.query.ResponseHandler;
@@ -36,9 +39,10 @@ public class NettyClient implements NettyBootstrapChannel {
     protected final InetSocketAddress socketAddress;
 
     protected ChannelFutureListener channelFutureListener;
-    protected ChannelInitializer<NioSocketChannel> channelInitializer;
+    protected ChannelInitializer<SocketChannel> channelInitializer;
 
     protected boolean standardCodec;
+    protected final NettyChannelSettings channelSettings = new NettyChannelSettings();
 
     @Setter
     protected AbstractNettyReconnect nettyReconnect;
@@ -86,9 +90,9 @@ public class NettyClient implements NettyBootstrapChannel {
      *
      * @param channelConsumer - ответ, который возвращает канал
      */
-    public void setChannelInitializer(Consumer<NioSocketChannel> channelConsumer) {
+    public void setChannelInitializer(Consumer<SocketChannel> channelConsumer) {
         this.channelInitializer = NETTY_MANAGER.getNettyBootstrap()
-                .createClientChannelInitializer(channelConsumer, nettyReconnect, nettyServerActiveCollection, standardCodec);
+                .createClientChannelInitializer(channelConsumer, nettyReconnect, nettyServerActiveCollection, standardCodec, channelSettings);
     }
 
     /**
@@ -109,6 +113,26 @@ public class NettyClient implements NettyBootstrapChannel {
         this.standardCodec = true;
     }
 
+    /**
+     * Добавить обработчик изменения доступности
+     * канала клиента для записи
+     *
+     * @param nettyWritability - обработчик доступности
+     */
+    public void addNettyWritability(@NonNull AbstractNettyWritability nettyWritability) {
+        channelSettings.getNettyWritabilityCollection().add(nettyWritability);
+    }
+
+    /**
+     * Установить формат заголовка пакетов
+     * для стандартных кодеков
+     *
+     * @param packetHeaderMode - формат заголовка
+     */
+    public void setPacketHeaderMode(@NonNull NettyPacketHeaderMode packetHeaderMode) {
+        channelSettings.setPacketHeaderMode(packetHeaderMode);
+    }
+
     /**
      * Применить {@link NettyPacketTyping} для регистрации
      * новых пакетов и внутренних изменений
@@ -162,7 +186,8 @@ public class NettyClient implements NettyBootstrapChannel {
 
         NettyClientBuilder<String> nettyClientBuilder = NettyClientBuilder.newClientBuilder(socketAddress, String.class)
                 .futureListener(channelFutureListener)
-                .channelInitializer(channelInitializer);
+                .channelInitializer(channelInitializer)
+                .channelSettings(channelSettings);
 
         if (nettyReconnect != null) {
             nettyClientBuilder.reconnectHandler(nettyReconnect);
@@ -188,7 +213,8 @@ public class NettyClient implements NettyBootstrapChannel {
 
         NettyClientBuilder<String> nettyClientBuilder = NettyClientBuilder.newClientBuilder(socketAddress, String.class)
                 .futureListener(channelFutureListener)
-                .channelInitializer(channelInitializer);
+                .channelInitializer(channelInitializer)
+                .channelSettings(channelSettings);
 
         if (nettyReconnect != null) {
             nettyClientBuilder.reconnectHandler(nettyReconnect);
@@ -198,6 +224,32 @@ public class NettyClient implements NettyBootstrapChannel {
     }
 
 
+    /**
+     * Закрыть канал подключения к серверу без попытки
+     * переподключения, после чего вернуть группы потоков бутстрапа
+     */
+    @Override
+    public void shutdown() {
+        if (nettyReconnect != null) {
+            nettyReconnect.shutdown();
+        }
+
+        if (channel != null) {
+
+            if (channel.pipeline().get("netty-reconnect-handler") != null) {
+                channel.pipeline().remove("netty-reconnect-handler");
+            }
+
+            channel.close();
+        }
+
+        if (bootstrap != null) {
+            NETTY_MANAGER.getNettyBootstrap().releaseEventLoops(bootstrap);
+            bootstrap = null;
+        }
+    }
+
+
     @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
     @Getter
     public static class ClientPacketRegistry<K> {
@@ -0,0 +1,373 @@
+package org.stonlexx.gamelibrary.common.netty.bootstrap.impl;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.NettyConnection;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrap;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrapChannel;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.AbstractNettyReconnect;
+import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.impl.NettyEmptyReconnect;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Пул из нескольких клиентов, подключенных
+ * к одному и тому же серверу
+ *
+ * Каждый канал пула работает в своем event loop
+ * и переподключается независимо от остальных.
+ * Пакеты без ключа распределяются по {@link NettyPoolBalancer},
+ * а пакеты с ключом всегда уходят в один и тот же
+ * канал, пока он жив, поэтому порядок пакетов
+ * одного ключа (например игрока) сохраняется
+ */
+@RequiredArgsConstructor
+@Getter
+public class NettyClientPool implements NettyBootstrapChannel {
+
+    protected final InetSocketAddress socketAddress;
+    protected final int poolSize;
+
+    /**
+     * Способ выбора канала для пакетов без ключа
+     */
+    @Setter
+    @NonNull
+    protected NettyPoolBalancer poolBalancer = NettyPoolBalancer.ROUND_ROBIN;
+
+    /**
+     * Настройка каждого клиента пула перед подключением:
+     * кодеки, настройки канала, обработчики
+     */
+    @Setter
+    protected Consumer<NettyClient> clientInitializer;
+
+    /**
+     * Создание обработчика переподключения для каждого
+     * клиента пула, null - клиенты не переподключаются
+     */
+    @Setter
+    protected Supplier<AbstractNettyReconnect> reconnectSupplier = NettyEmptyReconnect::new;
+
+    /**
+     * Интервал проверки каналов пула в миллисекундах, 0 - не проверять
+     */
+    @Setter
+    protected long healthCheckMillis = 1000;
+
+    protected NettyClient[] pooledClients;
+
+    @Getter(AccessLevel.NONE)
+    protected final AtomicInteger roundRobinCounter = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    protected ScheduledFuture<?> healthCheckFuture;
+
+
+// ======================================================== // STATIC // ======================================================== //
+
+    private static final NettyBootstrap NETTY_BOOTSTRAP = GameLibrary.getInstance().getNettyManager().getNettyBootstrap();
+
+    public static NettyClientPool create(@NonNull InetSocketAddress inetSocketAddress, int poolSize) {
+        return NETTY_BOOTSTRAP.createClientPool(inetSocketAddress, poolSize);
+    }
+
+    public static NettyClientPool createLocal(int serverPort, int poolSize) {
+        return NETTY_BOOTSTRAP.createLocalClientPool(serverPort, poolSize);
+    }
+
+// ============================================================================================================================= //
+
+
+    /**
+     * Создать и подключить все клиенты пула,
+     * после чего запустить проверку их каналов
+     */
+    public synchronized void connect() {
+        if (poolSize <= 0) {
+            throw new NettyException("Client pool size must be positive: " + poolSize);
+        }
+
+        if (pooledClients != null) {
+            throw new NettyException("Client pool is already connected");
+        }
+
+        NettyClient[] pooledClients = new NettyClient[poolSize];
+
+        for (int clientIndex = 0; clientIndex < poolSize; clientIndex++) {
+            NettyClient nettyClient = new NettyClient(socketAddress);
+
+            if (reconnectSupplier != null) {
+                nettyClient.setNettyReconnect(reconnectSupplier.get());
+            }
+
+            if (clientInitializer != null) {
+                clientInitializer.accept(nettyClient);
+            }
+
+            nettyClient.connect();
+            pooledClients[clientIndex] = nettyClient;
+        }
+
+        this.pooledClients = pooledClients;
+        scheduleHealthCheck();
+    }
+
+    /**
+     * Получить количество клиентов пула,
+     * каналы которых сейчас активны
+     */
+    public int getActiveCount() {
+        NettyClient[] pooledClients = this.pooledClients;
+
+        if (pooledClients == null) {
+            return 0;
+        }
+
+        int activeCount = 0;
+
+        for (NettyClient nettyClient : pooledClients) {
+
+            if (isActive(nettyClient)) {
+                activeCount++;
+            }
+        }
+
+        return activeCount;
+    }
+
+    /**
+     * Получить подключение для пакета без ключа
+     * по текущему {@link NettyPoolBalancer}
+     *
+     * @return активное подключение, null - если активных нет
+     */
+    public NettyConnection getConnection() {
+        NettyClient[] pooledClients = this.pooledClients;
+
+        if (pooledClients == null) {
+            return null;
+        }
+
+        switch (poolBalancer) {
+
+            case LEAST_PENDING_BYTES:
+                return selectLeastPending(pooledClients);
+
+            default:
+                return selectFrom(pooledClients, roundRobinCounter.getAndIncrement());
+        }
+    }
+
+    /**
+     * Получить подключение, закрепленное за ключом
+     *
+     * Ключ закреплен за одним каналом пула, а пока
+     * этот канал переподключается, пакеты ключа
+     * уходят в следующий активный канал
+     *
+     * @param affinityKey - ключ, например UUID игрока
+     * @return активное подключение, null - если активных нет
+     */
+    public NettyConnection getConnection(@NonNull Object affinityKey) {
+        NettyClient[] pooledClients = this.pooledClients;
+
+        if (pooledClients == null) {
+            return null;
+        }
+
+        int keyHash = affinityKey.hashCode();
+        return selectFrom(pooledClients, keyHash ^ (keyHash >>> 16));
+    }
+
+    /**
+     * Отправить пакет в канал пула,
+     * выбранный по {@link NettyPoolBalancer}
+     *
+     * @param nettyPacket - пакет
+     */
+    public void sendPacket(@NonNull NettyPacket nettyPacket) {
+        send(getConnection(), nettyPacket);
+    }
+
+    /**
+     * Отправить пакет в канал пула, закрепленный за ключом
+     *
+     * @param affinityKey - ключ, порядок пакетов которого нужно сохранить
+     * @param nettyPacket - пакет
+     */
+    public void sendPacket(@NonNull Object affinityKey, @NonNull NettyPacket nettyPacket) {
+        send(getConnection(affinityKey), nettyPacket);
+    }
+
+    /**
+     * Отправить запрос в канал пула, выбранный
+     * по {@link NettyPoolBalancer}, и получить ответ на него
+     *
+     * @param nettyPacket - пакет запроса
+     */
+    public <R extends NettyPacket> CompletableFuture<R> request(@NonNull NettyPacket nettyPacket) {
+        NettyConnection nettyConnection = getConnection();
+
+        if (nettyConnection == null) {
+            ReferenceCountUtil.release(nettyPacket);
+
+            CompletableFuture<R> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(new NettyException("No active channels in client pool " + socketAddress));
+
+            return failedFuture;
+        }
+
+        return nettyConnection.request(nettyPacket);
+    }
+
+    @Override
+    public Channel getChannel() {
+        NettyConnection nettyConnection = getConnection();
+        return nettyConnection == null ? null : nettyConnection.getChannel();
+    }
+
+    @Override
+    public NettyConnection getNettyConnection() {
+        return getConnection();
+    }
+
+    /**
+     * Закрыть каналы всех клиентов пула без попыток
+     * переподключения, после чего вернуть группы потоков
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (healthCheckFuture != null) {
+            healthCheckFuture.cancel(false);
+            healthCheckFuture = null;
+        }
+
+        if (pooledClients != null) {
+
+            for (NettyClient nettyClient : pooledClients) {
+                nettyClient.shutdown();
+            }
+
+            pooledClients = null;
+        }
+    }
+
+
+    private void send(NettyConnection nettyConnection, NettyPacket nettyPacket) {
+        if (nettyConnection == null) {
+            ReferenceCountUtil.release(nettyPacket);
+            return;
+        }
+
+        nettyConnection.sendPacket(nettyPacket);
+    }
+
+    private NettyConnection selectFrom(NettyClient[] pooledClients, int startIndex) {
+        int firstIndex = Math.floorMod(startIndex, pooledClients.length);
+
+        for (int offset = 0; offset < pooledClients.length; offset++) {
+            NettyClient nettyClient = pooledClients[(firstIndex + offset) % pooledClients.length];
+
+            if (isActive(nettyClient)) {
+                return nettyClient.getNettyConnection();
+            }
+        }
+
+        return null;
+    }
+
+    private NettyConnection selectLeastPending(NettyClient[] pooledClients) {
+        NettyConnection leastConnection = null;
+        long leastPendingBytes = Long.MAX_VALUE;
+
+        // обход начинается со сдвигом, чтобы при равной
+        // нагрузке каналы не выбирались всегда первыми
+        int firstIndex = Math.floorMod(roundRobinCounter.getAndIncrement(), pooledClients.length);
+
+        for (int offset = 0; offset < pooledClients.length; offset++) {
+            NettyClient nettyClient = pooledClients[(firstIndex + offset) % pooledClients.length];
+
+            if (!isActive(nettyClient)) {
+                continue;
+            }
+
+            NettyConnection nettyConnection = nettyClient.getNettyConnection();
+            long pendingBytes = nettyConnection.getPendingBytes();
+
+            if (pendingBytes < leastPendingBytes) {
+                leastConnection = nettyConnection;
+                leastPendingBytes = pendingBytes;
+            }
+        }
+
+        return leastConnection;
+    }
+
+    private boolean isActive(NettyClient nettyClient) {
+        NettyConnection nettyConnection = nettyClient.getNettyConnection();
+        return nettyConnection != null && nettyConnection.isActive();
+    }
+
+    private void scheduleHealthCheck() {
+        Bootstrap bootstrap = pooledClients[0].getBootstrap();
+
+        if (healthCheckMillis <= 0 || bootstrap == null) {
+            return;
+        }
+
+        try {
+            healthCheckFuture = bootstrap.config().group().next()
+                    .scheduleAtFixedRate(this::checkHealth, healthCheckMillis, healthCheckMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // группа потоков клиентов уже остановлена
+        catch (RejectedExecutionException exception) {
+            healthCheckFuture = null;
+        }
+    }
+
+    /**
+     * Переподключить клиенты, каналы которых закрыты, а
+     * переподключение не запланировано: например, оно было
+     * отменено или канал закрылся до установки обработчика
+     */
+    private void checkHealth() {
+        NettyClient[] pooledClients = this.pooledClients;
+
+        if (pooledClients == null) {
+            return;
+        }
+
+        for (NettyClient nettyClient : pooledClients) {
+            AbstractNettyReconnect nettyReconnect = nettyClient.getNettyReconnect();
+            Channel channel = nettyClient.getChannel();
+
+            if (nettyReconnect == null || channel == null || channel.isActive()) {
+                continue;
+            }
+
+            if (!nettyReconnect.isReconnectPending() && !nettyReconnect.isExhausted()) {
+                nettyReconnect.setChannel(channel);
+                nettyReconnect.scheduleReconnect(channel.eventLoop());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.stonlexx.gamelibrary.common.netty.bootstrap.impl;
+
+/**
+ * Способ выбора канала {@link NettyClientPool}
+ * для отправки пакета без ключа
+ */
+public enum NettyPoolBalancer {
+
+    /**
+     * Каналы выбираются по очереди
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Выбирается канал, у которого меньше всего
+     * байтов ждут отправки в сокет
+     */
+    LEAST_PENDING_BYTES
+}
@@ -1,11 +1,14 @@
 package org.stonlexx.gamelibrary.common.netty.bootstrap.impl;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.util.ReferenceCountUtil;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -13,16 +16,22 @@ import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.netty.NettyConnection;
+import org.stonlexx.gamelibrary.common.netty.NettyConnectionRegistry;
 import org.stonlexx.gamelibrary.common.netty.NettyManager;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrap;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrapChannel;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyChannelSettings;
 import org.stonlexx.gamelibrary.common.netty.builder.NettyServerBuilder;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
 import org.stonlexx.gamelibrary.common.netty.handler.client.active.AbstractNettyClientActive;
 import org.stonlexx.gamelibrary.common.netty.handler.client.active.impl.NettyConsumerClientActive;
 import org.stonlexx.gamelibrary.common.netty.handler.client.inactive.AbstractNettyClientInactive;
 import org.stonlexx.gamelibrary.common.netty.handler.client.inactive.impl.NettyConsumerClientInactive;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.AbstractNettyWritability;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
 import org.stonlexx.gamelibrary.common.netty.packet.callback.NettyPacketCallbackHandler;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.NettyPacketEncoder;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
 import org.stonlexx.gamelibrary.utility.query.ResponseHandler;
@@ -32,6 +41,7 @@ import java.net.SocketAddress;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @RequiredArgsConstructor
 @Getter
@@ -40,9 +50,10 @@ public class NettyServer implements NettyBootstrapChannel {
     protected final InetSocketAddress socketAddress;
 
     protected ChannelFutureListener channelFutureListener;
-    protected ChannelInitializer<NioSocketChannel> channelInitializer;
+    protected ChannelInitializer<SocketChannel> channelInitializer;
 
     protected boolean standardCodec;
+    protected final NettyChannelSettings channelSettings = new NettyChannelSettings();
 
     protected final Collection<AbstractNettyClientInactive> nettyClientInactiveCollection = Collections.synchronizedCollection(new LinkedHashSet<>());
     protected final Collection<AbstractNettyClientActive> nettyClientActiveCollection = Collections.synchronizedCollection(new LinkedHashSet<>());
@@ -52,7 +63,7 @@ public class NettyServer implements NettyBootstrapChannel {
     protected Channel channel;
     protected NettyConnection nettyConnection;
 
-    protected final Map<SocketAddress, NettyConnection> clientChannelMap = new LinkedHashMap<>();
+    protected final NettyConnectionRegistry connectionRegistry = new NettyConnectionRegistry();
 
 
 // ======================================================== // STATIC // ======================================================== //
@@ -62,8 +73,8 @@ public class NettyServer implements NettyBootstrapChannel {
 // ============================================================================================================================= //
 
     {
-        addNettyClientActive(new NettyConsumerClientActive(channel -> clientChannelMap.put(channel.remoteAddress(), new NettyConnection((InetSocketAddress) channel.remoteAddress(), channel))));
-        addNettyClientInactive(new NettyConsumerClientInactive(channel -> clientChannelMap.remove(channel.remoteAddress())));
+        addNettyClientActive(new NettyConsumerClientActive(connectionRegistry::register));
+        addNettyClientInactive(new NettyConsumerClientInactive(connectionRegistry::unregister));
     }
 
 
@@ -90,8 +101,8 @@ public class NettyServer implements NettyBootstrapChannel {
      *
      * @param channelConsumer - ответ, который возвращает канал
      */
-    public void setChannelInitializer(Consumer<NioSocketChannel> channelConsumer) {
-        this.channelInitializer = NETTY_MANAGER.getNettyBootstrap().createServerChannelInitializer(channelConsumer, nettyClientActiveCollection, nettyClientInactiveCollection, standardCodec);
+    public void setChannelInitializer(Consumer<SocketChannel> channelConsumer) {
+        this.channelInitializer = NETTY_MANAGER.getNettyBootstrap().createServerChannelInitializer(channelConsumer, nettyClientActiveCollection, nettyClientInactiveCollection, standardCodec, channelSettings);
     }
 
     /**
@@ -120,6 +131,26 @@ public class NettyServer implements NettyBootstrapChannel {
         this.standardCodec = true;
     }
 
+    /**
+     * Добавить обработчик изменения доступности
+     * каналов клиентов для записи
+     *
+     * @param nettyWritability - обработчик доступности
+     */
+    public void addNettyWritability(@NonNull AbstractNettyWritability nettyWritability) {
+        channelSettings.getNettyWritabilityCollection().add(nettyWritability);
+    }
+
+    /**
+     * Установить формат заголовка пакетов
+     * для стандартных кодеков
+     *
+     * @param packetHeaderMode - формат заголовка
+     */
+    public void setPacketHeaderMode(@NonNull NettyPacketHeaderMode packetHeaderMode) {
+        channelSettings.setPacketHeaderMode(packetHeaderMode);
+    }
+
     /**
      * Применить {@link NettyPacketTyping} для регистрации
      * новых пакетов и внутренних изменений
@@ -162,8 +193,62 @@ public class NettyServer implements NettyBootstrapChannel {
      * @param nettyPacket - пакет
      */
     public void sendPacketToClients(@NonNull NettyPacket nettyPacket) {
-        for (NettyConnection nettyConnection : clientChannelMap.values())
-            nettyConnection.sendPacket(nettyPacket);
+        sendPacketToClients(nettyPacket, (Predicate<NettyConnection>) null);
+    }
+
+    /**
+     * Отправить пакет клиентам, подключенным
+     * к серверу и подходящим под фильтр
+     *
+     * Пакет кодируется один раз для всех каналов с одинаковым
+     * форматом заголовка, после чего готовые байты записываются
+     * в каждый канал в обход энкодера пакетов. Обработчики,
+     * стоящие в pipeline после энкодера, при этом пропускаются.
+     * Каналы, недоступные для записи, получают пакет через
+     * свою очередь исходящих пакетов
+     *
+     * @param nettyPacket      - пакет
+     * @param connectionFilter - фильтр получателей, null - отправить всем
+     */
+    public void sendPacketToClients(@NonNull NettyPacket nettyPacket, Predicate<NettyConnection> connectionFilter) {
+        Map<Object, ByteBuf> encodedFrameMap = new HashMap<>();
+
+        try {
+            Object nettyPacketId = NETTY_MANAGER.getNettyPacketId(NettyPacketDirection.ONLY_ENCODE, nettyPacket.getClass());
+
+            if (nettyPacketId == null) {
+                throw new NettyException(String.format("NettyPacket %s is not registered for encode", nettyPacket.getClass().getName()));
+            }
+
+            for (NettyConnection nettyConnection : connectionRegistry.getConnections()) {
+                if (connectionFilter != null && !connectionFilter.test(nettyConnection)) {
+                    continue;
+                }
+
+                if (!nettyConnection.isActive()) {
+                    continue;
+                }
+
+                ChannelHandlerContext encoderContext = nettyConnection.getChannel().pipeline().context(NettyPacketEncoder.class);
+
+                // канал без стандартных кодеков кодирует пакет сам, а медленный
+                // канал ставит пакет в свою очередь за уже ожидающими пакетами
+                if (encoderContext == null || !nettyConnection.isWritable() || nettyConnection.getPendingCount() > 0) {
+                    nettyConnection.sendPacket(ReferenceCountUtil.retain(nettyPacket));
+                    continue;
+                }
+
+                NettyPacketEncoder nettyPacketEncoder = (NettyPacketEncoder) encoderContext.handler();
+                ByteBuf encodedFrame = encodedFrameMap.computeIfAbsent(nettyPacketEncoder.getFrameKey(nettyPacketId),
+                        frameKey -> nettyPacketEncoder.encodeFrame(encoderContext.alloc(), nettyPacket));
+
+                encoderContext.writeAndFlush(encodedFrame.retainedDuplicate());
+            }
+        }
+        finally {
+            encodedFrameMap.values().forEach(ByteBuf::release);
+            ReferenceCountUtil.release(nettyPacket);
+        }
     }
 
     /**
@@ -173,8 +258,10 @@ public class NettyServer implements NettyBootstrapChannel {
      * @param nettyPacket - пакет
      */
     public <P extends NettyPacket> void sendPacketToClients(@NonNull P nettyPacket, @NonNull NettyPacketCallbackHandler<P> nettyPacketCallbackHandler) {
-        for (NettyConnection nettyConnection : clientChannelMap.values())
-            nettyConnection.sendPacket(nettyPacket, nettyPacketCallbackHandler);
+        for (NettyConnection nettyConnection : connectionRegistry.getConnections())
+            nettyConnection.sendPacket(ReferenceCountUtil.retain(nettyPacket), nettyPacketCallbackHandler);
+
+        ReferenceCountUtil.release(nettyPacket);
     }
 
     /**
@@ -184,7 +271,27 @@ public class NettyServer implements NettyBootstrapChannel {
      * @param socketAddress - адрес клиента
      */
     public NettyConnection getConnectedClient(@NonNull SocketAddress socketAddress) {
-        return clientChannelMap.get(socketAddress);
+        return connectionRegistry.getConnection(socketAddress);
+    }
+
+    /**
+     * Получить подключенный к данному серверу клиент
+     * по номеру его подключения
+     *
+     * @param connectionId - номер подключения
+     */
+    public NettyConnection getConnectedClient(long connectionId) {
+        return connectionRegistry.getConnection(connectionId);
+    }
+
+    /**
+     * Получить подключенных клиентов по их адресам
+     *
+     * @deprecated подключения хранятся в {@link #getConnectionRegistry()}
+     */
+    @Deprecated
+    public Map<SocketAddress, NettyConnection> getClientChannelMap() {
+        return connectionRegistry.getConnectionAddressMap();
     }
 
 
@@ -205,7 +312,8 @@ public class NettyServer implements NettyBootstrapChannel {
 
         NettyServerBuilder<String> nettyServerBuilder = NettyServerBuilder.newServerBuilder(socketAddress, String.class)
                 .futureListener(channelFutureListener)
-                .channelInitializer(channelInitializer);
+                .channelInitializer(channelInitializer)
+                .channelSettings(channelSettings);
 
         this.serverBootstrap = nettyServerBuilder.bindServer();
     }
@@ -227,12 +335,37 @@ public class NettyServer implements NettyBootstrapChannel {
 
         NettyServerBuilder<String> nettyServerBuilder = NettyServerBuilder.newServerBuilder(socketAddress, String.class)
                 .futureListener(channelFutureListener)
-                .channelInitializer(channelInitializer);
+                .channelInitializer(channelInitializer)
+                .channelSettings(channelSettings);
 
         this.serverBootstrap = nettyServerBuilder.bindServer(parentThreads, childThreads);
     }
 
 
+    /**
+     * Закрыть канал сервера и всех подключенных клиентов,
+     * после чего вернуть группы потоков бутстрапа
+     */
+    @Override
+    public void shutdown() {
+        for (NettyConnection nettyConnection : connectionRegistry.getConnections()) {
+
+            if (nettyConnection.getChannel() != null) {
+                nettyConnection.getChannel().close();
+            }
+        }
+
+        if (channel != null) {
+            channel.close();
+        }
+
+        if (serverBootstrap != null) {
+            NETTY_MANAGER.getNettyBootstrap().releaseEventLoops(serverBootstrap);
+            serverBootstrap = null;
+        }
+    }
+
+
     @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
     @Getter
     public static class ServerPacketRegistry<K> {
@@ -4,7 +4,7 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -13,9 +13,16 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.netty.NettyManager;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrap;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyChannelSettings;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyTransport;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.AbstractNettyWritability;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOverflowPolicy;
 import org.stonlexx.gamelibrary.common.netty.handler.server.active.AbstractNettyServerActive;
 import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.AbstractNettyReconnect;
+import org.stonlexx.gamelibrary.common.netty.handler.server.reconnect.NettyReconnectPolicy;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.handler.NettyDispatchMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
 
@@ -35,12 +42,13 @@ public class NettyClientBuilder<K> {
 
     private NettyPacketTyping<K> nettyPacketTyping;
     private ChannelFutureListener channelFutureListener;
-    private ChannelInitializer<NioSocketChannel> channelInitializer;
+    private ChannelInitializer<SocketChannel> channelInitializer;
     private AbstractNettyReconnect nettyReconnect;
 
     private final Collection<AbstractNettyServerActive> nettyServerActiveCollection = Collections.synchronizedCollection(new LinkedHashSet<>());
 
     private boolean standardCodec = false;
+    private NettyChannelSettings channelSettings = new NettyChannelSettings();
 
 
     private final NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
@@ -129,6 +137,162 @@ public class NettyClientBuilder<K> {
         return this;
     }
 
+    /**
+     * Установить настройки каналов целиком
+     *
+     * @param channelSettings - настройки каналов
+     */
+    public NettyClientBuilder<K> channelSettings(@NonNull NettyChannelSettings channelSettings) {
+
+        this.channelSettings = channelSettings;
+        return this;
+    }
+
+    /**
+     * Установить транспорт каналов, если он
+     * недоступен, будет использован NIO
+     *
+     * @param transport - транспорт
+     */
+    public NettyClientBuilder<K> transport(@NonNull NettyTransport transport) {
+
+        channelSettings.setTransport(transport);
+        return this;
+    }
+
+    /**
+     * Установить формат заголовка пакетов
+     * для стандартных кодеков
+     *
+     * @param packetHeaderMode - формат заголовка
+     */
+    public NettyClientBuilder<K> packetHeaderMode(@NonNull NettyPacketHeaderMode packetHeaderMode) {
+
+        channelSettings.setPacketHeaderMode(packetHeaderMode);
+        return this;
+    }
+
+    /**
+     * Установить максимальную длину входящего
+     * фрейма для стандартных кодеков
+     *
+     * @param maxFrameLength - максимальная длина фрейма в байтах
+     */
+    public NettyClientBuilder<K> maxFrameLength(int maxFrameLength) {
+
+        channelSettings.setMaxFrameLength(maxFrameLength);
+        return this;
+    }
+
+    /**
+     * Включить сжатие пакетов стандартных кодеков,
+     * сжатие должно быть включено на обеих сторонах
+     *
+     * @param compressionThreshold - минимальный размер сжимаемого пакета в байтах, -1 - выключить сжатие
+     */
+    public NettyClientBuilder<K> compression(int compressionThreshold) {
+
+        channelSettings.setCompressionThreshold(compressionThreshold);
+        return this;
+    }
+
+    /**
+     * Включить сжатие пакетов стандартных кодеков,
+     * сжатие должно быть включено на обеих сторонах
+     *
+     * @param compressionThreshold  - минимальный размер сжимаемого пакета в байтах, -1 - выключить сжатие
+     * @param compressionLevel      - уровень сжатия {@link java.util.zip.Deflater}
+     * @param maxDecompressedLength - максимальный размер входящего пакета после распаковки в байтах
+     */
+    public NettyClientBuilder<K> compression(int compressionThreshold, int compressionLevel, int maxDecompressedLength) {
+
+        channelSettings.setCompressionThreshold(compressionThreshold);
+        channelSettings.setCompressionLevel(compressionLevel);
+        channelSettings.setMaxDecompressedLength(maxDecompressedLength);
+        return this;
+    }
+
+    /**
+     * Включить объединение flush`ей: записанные пакеты уходят
+     * в сокет одним вызовом в конце итерации event loop
+     * или после указанного количества flush`ей
+     *
+     * @param flushConsolidationLimit - максимальное количество объединяемых flush`ей
+     */
+    public NettyClientBuilder<K> flushConsolidation(int flushConsolidationLimit) {
+
+        channelSettings.setFlushConsolidationLimit(flushConsolidationLimit);
+        return this;
+    }
+
+    /**
+     * Установить, где обрабатываются пришедшие пакеты:
+     * в потоке event loop, в общем пуле потоков или
+     * в исполнителе из аннотации класса пакета
+     *
+     * @param dispatchMode - режим обработки пакетов
+     */
+    public NettyClientBuilder<K> dispatchMode(@NonNull NettyDispatchMode dispatchMode) {
+
+        channelSettings.setDispatchMode(dispatchMode);
+        return this;
+    }
+
+    /**
+     * Включить служебный ping для замера RTT и закрытие
+     * каналов, от которых долго ничего не приходит
+     *
+     * @param heartbeatIntervalMillis - интервал отправки ping в миллисекундах, 0 - не отправлять
+     * @param idleTimeoutMillis       - время молчания канала до его закрытия в миллисекундах, 0 - не закрывать
+     */
+    public NettyClientBuilder<K> heartbeat(long heartbeatIntervalMillis, long idleTimeoutMillis) {
+
+        channelSettings.setHeartbeatIntervalMillis(heartbeatIntervalMillis);
+        channelSettings.setIdleTimeoutMillis(idleTimeoutMillis);
+        return this;
+    }
+
+    /**
+     * Установить отметки исходящего буфера каналов,
+     * между которыми канал становится недоступным
+     * и снова доступным для записи
+     *
+     * @param lowWaterMark  - нижняя отметка в байтах
+     * @param highWaterMark - верхняя отметка в байтах
+     */
+    public NettyClientBuilder<K> writeBufferWaterMark(int lowWaterMark, int highWaterMark) {
+
+        channelSettings.setWriteBufferLowWaterMark(lowWaterMark);
+        channelSettings.setWriteBufferHighWaterMark(highWaterMark);
+        return this;
+    }
+
+    /**
+     * Установить очередь пакетов, которые ждут,
+     * пока канал недоступен для записи
+     *
+     * @param outboundQueueLimit - максимальное количество пакетов в очереди
+     * @param overflowPolicy     - что делать с пакетом при переполнении очереди
+     */
+    public NettyClientBuilder<K> outboundQueue(int outboundQueueLimit, @NonNull NettyOverflowPolicy overflowPolicy) {
+
+        channelSettings.setOutboundQueueLimit(outboundQueueLimit);
+        channelSettings.setOverflowPolicy(overflowPolicy);
+        return this;
+    }
+
+    /**
+     * Добавить обработчик изменения доступности
+     * каналов для записи
+     *
+     * @param nettyWritability - обработчик доступности
+     */
+    public NettyClientBuilder<K> writability(@NonNull AbstractNettyWritability nettyWritability) {
+
+        channelSettings.getNettyWritabilityCollection().add(nettyWritability);
+        return this;
+    }
+
     /**
      * Прослушка результата подключения клиента
      * к серверу
@@ -155,8 +319,8 @@ public class NettyClientBuilder<K> {
      *
      * @param channelConsumer - обработчик канала
      */
-    public NettyClientBuilder<K> channelInitializer(Consumer<NioSocketChannel> channelConsumer) {
-        return channelInitializer(nettyBootstrap.createClientChannelInitializer(channelConsumer, nettyReconnect, nettyServerActiveCollection, standardCodec));
+    public NettyClientBuilder<K> channelInitializer(Consumer<SocketChannel> channelConsumer) {
+        return channelInitializer(nettyBootstrap.createClientChannelInitializer(channelConsumer, nettyReconnect, nettyServerActiveCollection, standardCodec, channelSettings));
     }
 
     /**
@@ -164,7 +328,7 @@ public class NettyClientBuilder<K> {
      *
      * @param channelInitializer - обработчик канала
      */
-    public NettyClientBuilder<K> channelInitializer(@NonNull ChannelInitializer<NioSocketChannel> channelInitializer) {
+    public NettyClientBuilder<K> channelInitializer(@NonNull ChannelInitializer<SocketChannel> channelInitializer) {
         this.channelInitializer = channelInitializer;
         return this;
     }
@@ -180,6 +344,18 @@ public class NettyClientBuilder<K> {
         return this;
     }
 
+    /**
+     * Установить обработчик переподключения клиента
+     * к серверу с указанным расписанием попыток
+     *
+     * @param nettyReconnect  - обработчик переподключения
+     * @param reconnectPolicy - задержки, лимит попыток и размыкание переподключения
+     */
+    public NettyClientBuilder<K> reconnectHandler(@NonNull AbstractNettyReconnect nettyReconnect, @NonNull NettyReconnectPolicy reconnectPolicy) {
+        nettyReconnect.setReconnectPolicy(reconnectPolicy);
+        return reconnectHandler(nettyReconnect);
+    }
+
     /**
      * Добавить обработчик подключения
      * сервера к клиенту
@@ -200,19 +376,18 @@ public class NettyClientBuilder<K> {
      */
     public Bootstrap connectToServer() {
         if (channelInitializer == null) {
-            channelInitializer((Consumer<NioSocketChannel>) null);
+            channelInitializer((Consumer<SocketChannel>) null);
         }
 
         if (channelFutureListener == null) {
             futureListener((ChannelFutureListener) null);
         }
 
-        Bootstrap bootstrap = nettyBootstrap.createClientBootstrap(inetSocketAddress, channelFutureListener, channelInitializer);
+        Bootstrap bootstrap = nettyBootstrap.createClientBootstrap(inetSocketAddress, channelFutureListener, channelInitializer, 0, channelSettings);
 
-        if (nettyReconnect != null) {
-            nettyReconnect.setConnectRunnable(
-                    () -> nettyBootstrap.createClientBootstrap(inetSocketAddress, channelFutureListener, channelInitializer)
-            );
+        if (nettyReconnect != null && bootstrap != null) {
+            nettyReconnect.setConnectRunnable(() -> nettyReconnect.onConnectStarted(
+                    nettyBootstrap.reconnectClientBootstrap(bootstrap, channelFutureListener)));
         }
 
         return bootstrap;
@@ -226,19 +401,18 @@ public class NettyClientBuilder<K> {
      */
     public Bootstrap connectToServer(int nThreads) {
         if (channelInitializer == null) {
-            channelInitializer((Consumer<NioSocketChannel>) null);
+            channelInitializer((Consumer<SocketChannel>) null);
         }
 
         if (channelFutureListener == null) {
             futureListener((ChannelFutureListener) null);
         }
 
-        Bootstrap bootstrap = nettyBootstrap.createClientBootstrap(inetSocketAddress, channelFutureListener, channelInitializer, nThreads);
+        Bootstrap bootstrap = nettyBootstrap.createClientBootstrap(inetSocketAddress, channelFutureListener, channelInitializer, nThreads, channelSettings);
 
-        if (nettyReconnect != null) {
-            nettyReconnect.setConnectRunnable(
-                    () -> nettyBootstrap.createClientBootstrap(inetSocketAddress, channelFutureListener, channelInitializer, nThreads)
-            );
+        if (nettyReconnect != null && bootstrap != null) {
+            nettyReconnect.setConnectRunnable(() -> nettyReconnect.onConnectStarted(
+                    nettyBootstrap.reconnectClientBootstrap(bootstrap, channelFutureListener)));
         }
 
         return bootstrap;
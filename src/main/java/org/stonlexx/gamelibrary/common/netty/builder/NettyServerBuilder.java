@@ -4,7 +4,7 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -13,9 +13,15 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.netty.NettyManager;
 import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyBootstrap;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyChannelSettings;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyTransport;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.handler.NettyDispatchMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.AbstractNettyWritability;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.NettyOverflowPolicy;
 import org.stonlexx.gamelibrary.common.netty.handler.client.active.AbstractNettyClientActive;
 import org.stonlexx.gamelibrary.common.netty.handler.client.inactive.AbstractNettyClientInactive;
 
@@ -35,12 +41,13 @@ public class NettyServerBuilder<K> {
 
     private NettyPacketTyping<K> nettyPacketTyping;
     private ChannelFutureListener channelFutureListener;
-    private ChannelInitializer<NioSocketChannel> channelInitializer;
+    private ChannelInitializer<SocketChannel> channelInitializer;
 
     private final Collection<AbstractNettyClientInactive> nettyClientInactiveCollection = Collections.synchronizedCollection(new LinkedHashSet<>());
     private final Collection<AbstractNettyClientActive> nettyClientActiveCollection = Collections.synchronizedCollection(new LinkedHashSet<>());
 
     private boolean standardCodec = false;
+    private NettyChannelSettings channelSettings = new NettyChannelSettings();
 
 
     private final static NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
@@ -129,6 +136,162 @@ public class NettyServerBuilder<K> {
         return this;
     }
 
+    /**
+     * Установить настройки каналов целиком
+     *
+     * @param channelSettings - настройки каналов
+     */
+    public NettyServerBuilder<K> channelSettings(@NonNull NettyChannelSettings channelSettings) {
+
+        this.channelSettings = channelSettings;
+        return this;
+    }
+
+    /**
+     * Установить транспорт каналов, если он
+     * недоступен, будет использован NIO
+     *
+     * @param transport - транспорт
+     */
+    public NettyServerBuilder<K> transport(@NonNull NettyTransport transport) {
+
+        channelSettings.setTransport(transport);
+        return this;
+    }
+
+    /**
+     * Установить формат заголовка пакетов
+     * для стандартных кодеков
+     *
+     * @param packetHeaderMode - формат заголовка
+     */
+    public NettyServerBuilder<K> packetHeaderMode(@NonNull NettyPacketHeaderMode packetHeaderMode) {
+
+        channelSettings.setPacketHeaderMode(packetHeaderMode);
+        return this;
+    }
+
+    /**
+     * Установить максимальную длину входящего
+     * фрейма для стандартных кодеков
+     *
+     * @param maxFrameLength - максимальная длина фрейма в байтах
+     */
+    public NettyServerBuilder<K> maxFrameLength(int maxFrameLength) {
+
+        channelSettings.setMaxFrameLength(maxFrameLength);
+        return this;
+    }
+
+    /**
+     * Включить сжатие пакетов стандартных кодеков,
+     * сжатие должно быть включено на обеих сторонах
+     *
+     * @param compressionThreshold - минимальный размер сжимаемого пакета в байтах, -1 - выключить сжатие
+     */
+    public NettyServerBuilder<K> compression(int compressionThreshold) {
+
+        channelSettings.setCompressionThreshold(compressionThreshold);
+        return this;
+    }
+
+    /**
+     * Включить сжатие пакетов стандартных кодеков,
+     * сжатие должно быть включено на обеих сторонах
+     *
+     * @param compressionThreshold  - минимальный размер сжимаемого пакета в байтах, -1 - выключить сжатие
+     * @param compressionLevel      - уровень сжатия {@link java.util.zip.Deflater}
+     * @param maxDecompressedLength - максимальный размер входящего пакета после распаковки в байтах
+     */
+    public NettyServerBuilder<K> compression(int compressionThreshold, int compressionLevel, int maxDecompressedLength) {
+
+        channelSettings.setCompressionThreshold(compressionThreshold);
+        channelSettings.setCompressionLevel(compressionLevel);
+        channelSettings.setMaxDecompressedLength(maxDecompressedLength);
+        return this;
+    }
+
+    /**
+     * Включить объединение flush`ей: записанные пакеты уходят
+     * в сокет одним вызовом в конце итерации event loop
+     * или после указанного количества flush`ей
+     *
+     * @param flushConsolidationLimit - максимальное количество объединяемых flush`ей
+     */
+    public NettyServerBuilder<K> flushConsolidation(int flushConsolidationLimit) {
+
+        channelSettings.setFlushConsolidationLimit(flushConsolidationLimit);
+        return this;
+    }
+
+    /**
+     * Установить, где обрабатываются пришедшие пакеты:
+     * в потоке event loop, в общем пуле потоков или
+     * в исполнителе из аннотации класса пакета
+     *
+     * @param dispatchMode - режим обработки пакетов
+     */
+    public NettyServerBuilder<K> dispatchMode(@NonNull NettyDispatchMode dispatchMode) {
+
+        channelSettings.setDispatchMode(dispatchMode);
+        return this;
+    }
+
+    /**
+     * Включить служебный ping для замера RTT и закрытие
+     * каналов, от которых долго ничего не приходит
+     *
+     * @param heartbeatIntervalMillis - интервал отправки ping в миллисекундах, 0 - не отправлять
+     * @param idleTimeoutMillis       - время молчания канала до его закрытия в миллисекундах, 0 - не закрывать
+     */
+    public NettyServerBuilder<K> heartbeat(long heartbeatIntervalMillis, long idleTimeoutMillis) {
+
+        channelSettings.setHeartbeatIntervalMillis(heartbeatIntervalMillis);
+        channelSettings.setIdleTimeoutMillis(idleTimeoutMillis);
+        return this;
+    }
+
+    /**
+     * Установить отметки исходящего буфера каналов,
+     * между которыми канал становится недоступным
+     * и снова доступным для записи
+     *
+     * @param lowWaterMark  - нижняя отметка в байтах
+     * @param highWaterMark - верхняя отметка в байтах
+     */
+    public NettyServerBuilder<K> writeBufferWaterMark(int lowWaterMark, int highWaterMark) {
+
+        channelSettings.setWriteBufferLowWaterMark(lowWaterMark);
+        channelSettings.setWriteBufferHighWaterMark(highWaterMark);
+        return this;
+    }
+
+    /**
+     * Установить очередь пакетов, которые ждут,
+     * пока канал недоступен для записи
+     *
+     * @param outboundQueueLimit - максимальное количество пакетов в очереди
+     * @param overflowPolicy     - что делать с пакетом при переполнении очереди
+     */
+    public NettyServerBuilder<K> outboundQueue(int outboundQueueLimit, @NonNull NettyOverflowPolicy overflowPolicy) {
+
+        channelSettings.setOutboundQueueLimit(outboundQueueLimit);
+        channelSettings.setOverflowPolicy(overflowPolicy);
+        return this;
+    }
+
+    /**
+     * Добавить обработчик изменения доступности
+     * каналов для записи
+     *
+     * @param nettyWritability - обработчик доступности
+     */
+    public NettyServerBuilder<K> writability(@NonNull AbstractNettyWritability nettyWritability) {
+
+        channelSettings.getNettyWritabilityCollection().add(nettyWritability);
+        return this;
+    }
+
     /**
      * Добавить обработчик отключения
      * клиентов от сервера
@@ -175,8 +338,8 @@ public class NettyServerBuilder<K> {
      *
      * @param channelConsumer - обработчик канала
      */
-    public NettyServerBuilder<K> channelInitializer(Consumer<NioSocketChannel> channelConsumer) {
-        return channelInitializer(nettyBootstrap.createServerChannelInitializer(channelConsumer, nettyClientActiveCollection, nettyClientInactiveCollection, standardCodec));
+    public NettyServerBuilder<K> channelInitializer(Consumer<SocketChannel> channelConsumer) {
+        return channelInitializer(nettyBootstrap.createServerChannelInitializer(channelConsumer, nettyClientActiveCollection, nettyClientInactiveCollection, standardCodec, channelSettings));
     }
 
     /**
@@ -184,7 +347,7 @@ public class NettyServerBuilder<K> {
      *
      * @param channelInitializer - обработчик канала
      */
-    public NettyServerBuilder<K> channelInitializer(@NonNull ChannelInitializer<NioSocketChannel> channelInitializer) {
+    public NettyServerBuilder<K> channelInitializer(@NonNull ChannelInitializer<SocketChannel> channelInitializer) {
         this.channelInitializer = channelInitializer;
         return this;
     }
@@ -198,14 +361,14 @@ public class NettyServerBuilder<K> {
      */
     public ServerBootstrap bindServer() {
         if (channelInitializer == null) {
-            channelInitializer((Consumer<NioSocketChannel>) null);
+            channelInitializer((Consumer<SocketChannel>) null);
         }
 
         if (channelFutureListener == null) {
             futureListener((ChannelFutureListener) null);
         }
 
-        return nettyBootstrap.createServerBootstrap(inetSocketAddress, channelFutureListener, channelInitializer);
+        return nettyBootstrap.createServerBootstrap(inetSocketAddress, channelFutureListener, channelInitializer, 0, 0, channelSettings);
     }
 
     /**
@@ -216,7 +379,7 @@ public class NettyServerBuilder<K> {
      */
     public ServerBootstrap bindServer(int parentThreads, int childThreads) {
         if (channelInitializer == null) {
-            channelInitializer((Consumer<NioSocketChannel>) null);
+            channelInitializer((Consumer<SocketChannel>) null);
         }
 
         if (channelFutureListener == null) {
@@ -224,7 +387,7 @@ public class NettyServerBuilder<K> {
         }
 
         return nettyBootstrap.createServerBootstrap(inetSocketAddress, channelFutureListener, channelInitializer,
-                parentThreads, childThreads);
+                parentThreads, childThreads, channelSettings);
     }
 
 }
@@ -0,0 +1,152 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.ReferenceCountUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.NettyManager;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.net.InetSocketAddress;
+import java.util.function.BiConsumer;
+
+/**
+ * Датаграммный канал для пакетов состояния (позиции,
+ * повороты и т.п.), которым не нужна очередь TCP
+ *
+ * Использует те же {@link NettyPacket} и типизации пакетов,
+ * что и TCP каналы. Один канал общается с любым количеством
+ * адресов, поэтому пакет отправляется на указанный адрес,
+ * а пришедший пакет передается вместе с адресом отправителя
+ */
+@RequiredArgsConstructor
+@Getter
+public class NettyDatagramEndpoint {
+
+    protected final InetSocketAddress socketAddress;
+    protected final NettyDatagramSettings datagramSettings = new NettyDatagramSettings();
+
+    /**
+     * Получатель пришедших пакетов вместе с адресом
+     * отправителя, null - пакеты обрабатываются через
+     * {@link NettyPacket#handle(Channel)}
+     */
+    @Setter
+    protected BiConsumer<InetSocketAddress, NettyPacket> packetListener;
+
+    @Setter
+    protected BiConsumer<ChannelFuture, Boolean> channelFutureConsumer;
+
+    protected NettyDatagramHandler datagramHandler;
+
+    @Getter(AccessLevel.NONE)
+    protected Bootstrap bootstrap;
+
+    protected volatile Channel channel;
+
+
+// ======================================================== // STATIC // ======================================================== //
+
+    protected static final NettyManager NETTY_MANAGER = GameLibrary.getInstance().getNettyManager();
+
+    public static NettyDatagramEndpoint create(@NonNull InetSocketAddress inetSocketAddress) {
+        return NETTY_MANAGER.getNettyBootstrap().createDatagramEndpoint(inetSocketAddress);
+    }
+
+    public static NettyDatagramEndpoint createLocal(int localPort) {
+        return NETTY_MANAGER.getNettyBootstrap().createLocalDatagramEndpoint(localPort);
+    }
+
+// ============================================================================================================================= //
+
+
+    /**
+     * Забиндить канал на локальный адрес, после
+     * чего он начинает принимать датаграммы
+     */
+    public synchronized void bind() {
+        this.datagramHandler = new NettyDatagramHandler(datagramSettings, packetListener);
+
+        ChannelFutureListener futureListener = channelFuture -> {
+
+            if (channelFuture.isSuccess()) {
+                this.channel = channelFuture.channel();
+            }
+
+            if (channelFutureConsumer != null) {
+                channelFutureConsumer.accept(channelFuture, channelFuture.isSuccess());
+            }
+        };
+
+        this.bootstrap = NETTY_MANAGER.getNettyBootstrap().createDatagramBootstrap(socketAddress, futureListener, datagramHandler, datagramSettings);
+    }
+
+    /**
+     * Получить счетчики канала, null - если канал еще не создан
+     */
+    public NettyDatagramStatistics getDatagramStatistics() {
+        return datagramHandler == null ? null : datagramHandler.getDatagramStatistics();
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, забиндован ли канал
+     */
+    public boolean isActive() {
+        Channel channel = this.channel;
+        return channel != null && channel.isActive();
+    }
+
+    /**
+     * Отправить пакет на указанный адрес, надежно - если
+     * его класс указан в {@link NettyDatagramSettings#getReliablePacketClasses()}
+     *
+     * @param recipient   - адрес получателя
+     * @param nettyPacket - пакет
+     */
+    public void sendPacket(@NonNull InetSocketAddress recipient, @NonNull NettyPacket nettyPacket) {
+        sendPacket(recipient, nettyPacket, datagramSettings.isReliable(nettyPacket.getClass()));
+    }
+
+    /**
+     * Отправить пакет на указанный адрес
+     *
+     * @param recipient   - адрес получателя
+     * @param nettyPacket - пакет
+     * @param reliable    - отправлять ли пакет повторно до подтверждения
+     */
+    public void sendPacket(@NonNull InetSocketAddress recipient, @NonNull NettyPacket nettyPacket, boolean reliable) {
+        Channel channel = this.channel;
+
+        if (channel == null || !channel.isActive()) {
+            ReferenceCountUtil.release(nettyPacket);
+            return;
+        }
+
+        channel.writeAndFlush(new NettyDatagramEnvelope(recipient, nettyPacket, reliable), channel.voidPromise());
+    }
+
+    /**
+     * Закрыть канал, забыв неподтвержденные
+     * пакеты, и вернуть группу потоков
+     */
+    public synchronized void shutdown() {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+
+        if (bootstrap != null) {
+            NETTY_MANAGER.getNettyBootstrap().releaseEventLoops(bootstrap);
+            bootstrap = null;
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Пакет вместе с адресом получателя, который записывается
+ * в датаграммный канал вместо самого пакета
+ *
+ * Счетчик ссылок делегируется пакету, как и у
+ * {@link org.stonlexx.gamelibrary.common.netty.packet.request.NettyCorrelatedPacket}
+ */
+@RequiredArgsConstructor
+@Getter
+public final class NettyDatagramEnvelope implements ReferenceCounted {
+
+    @NonNull
+    private final InetSocketAddress recipient;
+
+    @NonNull
+    private final NettyPacket packet;
+
+    /**
+     * Отправлять ли пакет повторно до подтверждения
+     */
+    private final boolean reliable;
+
+
+    @Override
+    public int refCnt() {
+        return packet instanceof ReferenceCounted ? ((ReferenceCounted) packet).refCnt() : 1;
+    }
+
+    @Override
+    public NettyDatagramEnvelope retain() {
+        ReferenceCountUtil.retain(packet);
+        return this;
+    }
+
+    @Override
+    public NettyDatagramEnvelope retain(int increment) {
+        ReferenceCountUtil.retain(packet, increment);
+        return this;
+    }
+
+    @Override
+    public NettyDatagramEnvelope touch() {
+        ReferenceCountUtil.touch(packet);
+        return this;
+    }
+
+    @Override
+    public NettyDatagramEnvelope touch(Object hint) {
+        ReferenceCountUtil.touch(packet, hint);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return ReferenceCountUtil.release(packet);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return ReferenceCountUtil.release(packet, decrement);
+    }
+
+}
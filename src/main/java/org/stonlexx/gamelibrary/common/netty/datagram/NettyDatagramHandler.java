@@ -0,0 +1,551 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketProtocol;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Кодирует пакеты в датаграммы и обратно
+ *
+ * Каждая датаграмма начинается с флагов, сессии и номера пакета,
+ * за которыми идут номер и количество фрагментов (если пакет
+ * разбит) и заголовок с содержимым пакета. Ненадежный пакет
+ * отбрасывается, если более новый пакет того же класса от
+ * того же адреса уже обработан. Надежный пакет отправляется
+ * повторно, пока на него не придет подтверждение, и
+ * обрабатывается один раз, но без упорядочивания. Надежные
+ * и ненадежные пакеты нумеруются независимо
+ *
+ * Сессия выбирается случайно при создании обработчика. Если
+ * с того же адреса пришла датаграмма другой сессии, значит
+ * отправитель перезапустился и начал нумерацию заново, поэтому
+ * все состояние этого адреса забывается
+ *
+ * Рукопожатия у датаграмм нет, поэтому заголовок
+ * пакета всегда пишется в формате {@link NettyPacketHeaderMode#LEGACY}
+ */
+@RequiredArgsConstructor
+public class NettyDatagramHandler extends ChannelDuplexHandler {
+
+    static final int FLAG_RELIABLE = 0x01;
+    static final int FLAG_FRAGMENT = 0x02;
+    static final int FLAG_ACK      = 0x04;
+
+    /**
+     * Максимальный размер заголовка датаграммы: флаги, сессия,
+     * номер пакета, номер и количество фрагментов
+     */
+    static final int MAX_HEADER_SIZE = 1 + 4 + 5 + 3 + 3;
+
+    /**
+     * Максимальное количество пакетов одного адреса,
+     * фрагменты которых собираются одновременно
+     */
+    static final int MAX_ASSEMBLIES = 64;
+
+
+    private final NettyDatagramSettings datagramSettings;
+
+    /**
+     * Получатель пришедших пакетов вместе с адресом
+     * отправителя, null - пакеты обрабатываются через
+     * {@link NettyPacket#handle(io.netty.channel.Channel)}
+     */
+    private final BiConsumer<InetSocketAddress, NettyPacket> packetListener;
+
+    @Getter
+    private final NettyDatagramStatistics datagramStatistics = new NettyDatagramStatistics();
+
+    private final int sessionId = ThreadLocalRandom.current().nextInt();
+
+    private final NettyPacketProtocol packetProtocol = new NettyPacketProtocol(NettyPacketHeaderMode.LEGACY);
+    private final Map<InetSocketAddress, NettyDatagramPeer> peerMap = new HashMap<>();
+
+    private ScheduledFuture<?> maintenanceFuture;
+
+
+    @Override
+    public void channelActive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        long tickMillis = Math.max(10, datagramSettings.getResendIntervalMillis() / 2);
+
+        maintenanceFuture = channelHandlerContext.executor().scheduleAtFixedRate(() -> maintain(channelHandlerContext),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        super.channelActive(channelHandlerContext);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        releasePeers();
+        super.channelInactive(channelHandlerContext);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext channelHandlerContext) {
+        releasePeers();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext channelHandlerContext, Object message, ChannelPromise channelPromise) throws Exception {
+        if (!(message instanceof NettyDatagramEnvelope)) {
+            super.write(channelHandlerContext, message, channelPromise);
+            return;
+        }
+
+        NettyDatagramEnvelope datagramEnvelope = (NettyDatagramEnvelope) message;
+        ByteBuf payloadBuf;
+
+        try {
+            payloadBuf = encodePayload(channelHandlerContext, datagramEnvelope.getPacket());
+        }
+        catch (RuntimeException exception) {
+            channelPromise.tryFailure(exception);
+            return;
+        }
+        finally {
+            ReferenceCountUtil.release(datagramEnvelope);
+        }
+
+        try {
+            writePayload(channelHandlerContext, datagramEnvelope, payloadBuf, channelPromise);
+        }
+        finally {
+            payloadBuf.release();
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext channelHandlerContext, Object message) throws Exception {
+        if (!(message instanceof DatagramPacket)) {
+            super.channelRead(channelHandlerContext, message);
+            return;
+        }
+
+        DatagramPacket datagramPacket = (DatagramPacket) message;
+        NettyPacket nettyPacket;
+
+        try {
+            nettyPacket = readDatagram(channelHandlerContext, datagramPacket.sender(), datagramPacket.content());
+        }
+        finally {
+            datagramPacket.release();
+        }
+
+        if (nettyPacket == null) {
+            return;
+        }
+
+        try {
+            if (packetListener != null) {
+                packetListener.accept(datagramPacket.sender(), nettyPacket);
+
+            } else {
+
+                nettyPacket.handle(channelHandlerContext.channel());
+            }
+        }
+        finally {
+            ReferenceCountUtil.release(nettyPacket);
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext channelHandlerContext) throws Exception {
+        // подтверждения, записанные при чтении, уходят одной пачкой
+        channelHandlerContext.flush();
+        super.channelReadComplete(channelHandlerContext);
+    }
+
+
+    private ByteBuf encodePayload(ChannelHandlerContext channelHandlerContext, NettyPacket nettyPacket) {
+        NettyPacketIndex.Entry packetEntry = GameLibrary.getInstance().getNettyManager()
+                .findPacketEntry(NettyPacketDirection.ONLY_ENCODE, nettyPacket.getClass());
+
+        if (packetEntry == null) {
+            throw new NettyException("Packet " + nettyPacket.getClass().getSimpleName() + " is not registered!");
+        }
+
+        int estimatedSize = nettyPacket.estimatedSize();
+        ByteBuf payloadBuf = channelHandlerContext.alloc().heapBuffer(estimatedSize < 0 ? 256 : 64 + estimatedSize);
+
+        try {
+            NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(payloadBuf);
+
+            packetProtocol.writeHeader(nettyPacketBuffer, packetEntry.getPacketId());
+            packetEntry.writePacket(nettyPacket, nettyPacketBuffer);
+
+            return payloadBuf;
+        }
+        catch (RuntimeException exception) {
+            payloadBuf.release();
+            throw exception;
+        }
+    }
+
+    private void writePayload(ChannelHandlerContext channelHandlerContext, NettyDatagramEnvelope datagramEnvelope,
+                              ByteBuf payloadBuf, ChannelPromise channelPromise) {
+
+        int fragmentSize = datagramSettings.getMtu() - MAX_HEADER_SIZE;
+        int payloadLength = payloadBuf.readableBytes();
+
+        int fragmentCount = fragmentSize <= 0 ? Integer.MAX_VALUE : Math.max(1, (payloadLength + fragmentSize - 1) / fragmentSize);
+
+        if (fragmentCount > datagramSettings.getMaxFragments()) {
+            channelPromise.tryFailure(new NettyException(String.format("Packet %s is too large for datagram: %s bytes, mtu %s, max fragments %s",
+                    datagramEnvelope.getPacket().getClass().getSimpleName(), payloadLength, datagramSettings.getMtu(), datagramSettings.getMaxFragments())));
+
+            return;
+        }
+
+        NettyDatagramPeer datagramPeer = getPeer(datagramEnvelope.getRecipient());
+        boolean reliable = datagramEnvelope.isReliable();
+
+        // номер старше окна получатель примет за повтор
+        if (reliable && !datagramPeer.canSendReliable()) {
+            datagramStatistics.onLost();
+            channelPromise.tryFailure(new NettyException("Too many unacknowledged datagrams to " + datagramEnvelope.getRecipient()));
+
+            return;
+        }
+
+        int sequence = datagramPeer.nextSequence(reliable);
+        int flags = (reliable ? FLAG_RELIABLE : 0) | (fragmentCount > 1 ? FLAG_FRAGMENT : 0);
+
+        ByteBuf[] datagrams = new ByteBuf[fragmentCount];
+
+        for (int fragmentIndex = 0; fragmentIndex < fragmentCount; fragmentIndex++) {
+            int fragmentOffset = fragmentIndex * fragmentSize;
+            int fragmentLength = Math.min(fragmentSize, payloadLength - fragmentOffset);
+
+            ByteBuf datagramBuf = channelHandlerContext.alloc().ioBuffer(MAX_HEADER_SIZE + fragmentLength);
+            NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(datagramBuf);
+
+            datagramBuf.writeByte(flags);
+            datagramBuf.writeInt(sessionId);
+            nettyPacketBuffer.writeVarInt(sequence);
+
+            if (fragmentCount > 1) {
+                nettyPacketBuffer.writeVarInt(fragmentIndex);
+                nettyPacketBuffer.writeVarInt(fragmentCount);
+            }
+
+            datagramBuf.writeBytes(payloadBuf, payloadBuf.readerIndex() + fragmentOffset, fragmentLength);
+            datagrams[fragmentIndex] = datagramBuf;
+        }
+
+        long currentMillis = System.currentTimeMillis();
+
+        if (reliable) {
+            NettyDatagramPeer.PendingMessage pendingMessage = new NettyDatagramPeer.PendingMessage(datagrams);
+            pendingMessage.lastSendMillis = currentMillis;
+
+            datagramPeer.getPendingMessageMap().put(sequence, pendingMessage);
+        }
+
+        for (int fragmentIndex = 0; fragmentIndex < fragmentCount; fragmentIndex++) {
+            ByteBuf datagramBuf = reliable ? datagrams[fragmentIndex].retainedDuplicate() : datagrams[fragmentIndex];
+            ChannelPromise fragmentPromise = fragmentIndex == fragmentCount - 1 ? channelPromise : channelHandlerContext.voidPromise();
+
+            channelHandlerContext.write(new DatagramPacket(datagramBuf, datagramEnvelope.getRecipient()), fragmentPromise);
+            datagramStatistics.onDatagramSent();
+        }
+
+        datagramPeer.onSent(currentMillis);
+        datagramStatistics.onSent();
+    }
+
+    /**
+     * Разобрать пришедшую датаграмму
+     *
+     * @return пакет, готовый к обработке, null - датаграмма
+     *         была служебной, повтором, фрагментом или устарела
+     */
+    private NettyPacket readDatagram(ChannelHandlerContext channelHandlerContext, InetSocketAddress sender, ByteBuf contentBuf) {
+        datagramStatistics.onDatagramReceived();
+
+        ByteBuf payloadBuf = null;
+
+        try {
+            NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(contentBuf);
+
+            int flags = contentBuf.readUnsignedByte();
+
+            if ((flags & ~(FLAG_RELIABLE | FLAG_FRAGMENT | FLAG_ACK)) != 0) {
+                throw new NettyException("Unknown datagram flags: " + flags);
+            }
+
+            int remoteSessionId = contentBuf.readInt();
+            int sequence = nettyPacketBuffer.readVarInt();
+
+            // состояние адреса заводится только после разбора заголовка,
+            // а подтверждение от незнакомого адреса ничего не подтверждает
+            NettyDatagramPeer datagramPeer = getPeer(sender, remoteSessionId, (flags & FLAG_ACK) == 0);
+
+            if (datagramPeer == null) {
+                return null;
+            }
+
+            datagramPeer.onReceived(System.currentTimeMillis());
+
+            if ((flags & FLAG_ACK) != 0) {
+                datagramPeer.acknowledge(sequence);
+                return null;
+            }
+
+            boolean reliable = (flags & FLAG_RELIABLE) != 0;
+
+            // подтверждение могло потеряться, поэтому на повтор отвечаем снова
+            if (reliable && datagramPeer.getReliableWindow().isReceived(sequence)) {
+                datagramStatistics.onDuplicate();
+                writeAcknowledge(channelHandlerContext, sender, sequence);
+
+                return null;
+            }
+
+            payloadBuf = (flags & FLAG_FRAGMENT) != 0
+                    ? readFragment(datagramPeer, reliable, sequence, nettyPacketBuffer, contentBuf)
+                    : contentBuf.retainedSlice();
+
+            if (payloadBuf == null) {
+                return null;
+            }
+
+            if (reliable) {
+                datagramPeer.getReliableWindow().markReceived(sequence);
+                writeAcknowledge(channelHandlerContext, sender, sequence);
+            }
+
+            NettyPacketBuffer payloadBuffer = new NettyPacketBuffer(payloadBuf);
+            NettyPacketIndex.Entry packetEntry = packetProtocol.readHeader(payloadBuffer);
+
+            if (!reliable && datagramPeer.isStale(packetEntry.getPacketClass(), sequence)) {
+                datagramStatistics.onStale();
+                return null;
+            }
+
+            NettyPacket nettyPacket = packetEntry.createPacket();
+
+            try {
+                packetEntry.readPacket(nettyPacket, payloadBuffer);
+            }
+            catch (RuntimeException exception) {
+                ReferenceCountUtil.release(nettyPacket);
+                throw exception;
+            }
+
+            datagramStatistics.onReceived();
+            return nettyPacket;
+        }
+
+        // чужой или поврежденный пакет не должен ронять канал,
+        // через который общаются все остальные адреса
+        catch (Exception exception) {
+            datagramStatistics.onMalformed();
+            return null;
+        }
+        finally {
+            if (payloadBuf != null) {
+                payloadBuf.release();
+            }
+        }
+    }
+
+    private ByteBuf readFragment(NettyDatagramPeer datagramPeer, boolean reliable, int sequence,
+                                 NettyPacketBuffer nettyPacketBuffer, ByteBuf contentBuf) {
+
+        int fragmentIndex = nettyPacketBuffer.readVarInt();
+        int fragmentCount = nettyPacketBuffer.readVarInt();
+
+        if (fragmentCount < 2 || fragmentCount > datagramSettings.getMaxFragments() || fragmentIndex < 0 || fragmentIndex >= fragmentCount) {
+            throw new NettyException(String.format("Invalid datagram fragment %s/%s", fragmentIndex, fragmentCount));
+        }
+
+        Map<Long, NettyDatagramPeer.FragmentAssembly> fragmentAssemblyMap = datagramPeer.getFragmentAssemblyMap();
+        long assemblyKey = NettyDatagramPeer.getAssemblyKey(reliable, sequence);
+
+        if (fragmentAssemblyMap.size() >= MAX_ASSEMBLIES && !fragmentAssemblyMap.containsKey(assemblyKey)) {
+            throw new NettyException("Too many incomplete datagram packets from " + datagramPeer.getAddress());
+        }
+
+        NettyDatagramPeer.FragmentAssembly fragmentAssembly = fragmentAssemblyMap.computeIfAbsent(assemblyKey,
+                key -> new NettyDatagramPeer.FragmentAssembly(fragmentCount, System.currentTimeMillis()));
+
+        if (fragmentAssembly.fragments.length != fragmentCount) {
+            throw new NettyException(String.format("Datagram fragment count mismatch: %s, expected %s", fragmentCount, fragmentAssembly.fragments.length));
+        }
+
+        ByteBuf payloadBuf = fragmentAssembly.addFragment(fragmentIndex, contentBuf.retainedSlice());
+
+        if (payloadBuf != null) {
+            fragmentAssemblyMap.remove(assemblyKey);
+        }
+
+        return payloadBuf;
+    }
+
+    private void writeAcknowledge(ChannelHandlerContext channelHandlerContext, InetSocketAddress recipient, int sequence) {
+        ByteBuf acknowledgeBuf = channelHandlerContext.alloc().ioBuffer(10);
+
+        acknowledgeBuf.writeByte(FLAG_ACK);
+        acknowledgeBuf.writeInt(sessionId);
+        new NettyPacketBuffer(acknowledgeBuf).writeVarInt(sequence);
+
+        channelHandlerContext.write(new DatagramPacket(acknowledgeBuf, recipient), channelHandlerContext.voidPromise());
+        datagramStatistics.onDatagramSent();
+    }
+
+    private NettyDatagramPeer getPeer(InetSocketAddress address) {
+        return peerMap.computeIfAbsent(address, NettyDatagramPeer::new);
+    }
+
+    /**
+     * Получить состояние адреса, от которого пришла датаграмма,
+     * и забыть его, если отправитель сменил сессию
+     *
+     * @param sender          - адрес отправителя
+     * @param remoteSessionId - сессия из заголовка датаграммы
+     * @param create          - заводить ли состояние незнакомого адреса
+     * @return null - датаграмма запоздала из прошлой сессии,
+     *         адрес незнаком или адресов уже слишком много
+     */
+    private NettyDatagramPeer getPeer(InetSocketAddress sender, int remoteSessionId, boolean create) {
+        NettyDatagramPeer datagramPeer = peerMap.get(sender);
+
+        if (datagramPeer == null) {
+
+            if (!create) {
+                return null;
+            }
+
+            if (peerMap.size() >= datagramSettings.getMaxPeers()) {
+                datagramStatistics.onRejected();
+                return null;
+            }
+
+            datagramPeer = new NettyDatagramPeer(sender);
+            peerMap.put(sender, datagramPeer);
+        }
+
+        Integer currentSessionId = datagramPeer.getRemoteSessionId();
+
+        if (currentSessionId == null) {
+            datagramPeer.setRemoteSessionId(remoteSessionId);
+            return datagramPeer;
+        }
+
+        if (currentSessionId == remoteSessionId) {
+            return datagramPeer;
+        }
+
+        if (Objects.equals(datagramPeer.getRetiredSessionId(), remoteSessionId)) {
+            datagramStatistics.onStale();
+            return null;
+        }
+
+        // неподтвержденные пакеты предназначались прошлой сессии
+        datagramPeer.release();
+
+        NettyDatagramPeer sessionPeer = new NettyDatagramPeer(sender);
+        sessionPeer.setRemoteSessionId(remoteSessionId);
+        sessionPeer.setRetiredSessionId(currentSessionId);
+
+        peerMap.put(sender, sessionPeer);
+        datagramStatistics.onSessionReset();
+
+        return sessionPeer;
+    }
+
+    /**
+     * Повторить неподтвержденные надежные пакеты, выбросить
+     * несобранные фрагменты и забыть молчащие адреса
+     */
+    private void maintain(ChannelHandlerContext channelHandlerContext) {
+        long currentMillis = System.currentTimeMillis();
+        boolean written = false;
+
+        Iterator<NettyDatagramPeer> peerIterator = peerMap.values().iterator();
+
+        while (peerIterator.hasNext()) {
+            NettyDatagramPeer datagramPeer = peerIterator.next();
+            Iterator<NettyDatagramPeer.PendingMessage> pendingIterator = datagramPeer.getPendingMessageMap().values().iterator();
+
+            while (pendingIterator.hasNext()) {
+                NettyDatagramPeer.PendingMessage pendingMessage = pendingIterator.next();
+
+                if (currentMillis - pendingMessage.lastSendMillis < datagramSettings.getResendIntervalMillis()) {
+                    continue;
+                }
+
+                if (pendingMessage.sendAttempts >= datagramSettings.getMaxSendAttempts()) {
+                    pendingMessage.release();
+                    pendingIterator.remove();
+
+                    datagramStatistics.onLost();
+                    continue;
+                }
+
+                for (ByteBuf datagramBuf : pendingMessage.datagrams) {
+                    channelHandlerContext.write(new DatagramPacket(datagramBuf.retainedDuplicate(), datagramPeer.getAddress()), channelHandlerContext.voidPromise());
+                    datagramStatistics.onDatagramSent();
+                }
+
+                pendingMessage.sendAttempts++;
+                pendingMessage.lastSendMillis = currentMillis;
+
+                datagramPeer.onSent(currentMillis);
+                datagramStatistics.onResent();
+
+                written = true;
+            }
+
+            int expiredCount = datagramPeer.expireFragments(currentMillis, datagramSettings.getFragmentTimeoutMillis());
+
+            if (expiredCount > 0) {
+                datagramStatistics.onFragmentsExpired(expiredCount);
+            }
+
+            if (datagramPeer.isExpired(currentMillis, datagramSettings.getPeerTimeoutMillis())) {
+                datagramPeer.release();
+                peerIterator.remove();
+            }
+        }
+
+        if (written) {
+            channelHandlerContext.flush();
+        }
+    }
+
+    private void releasePeers() {
+        if (maintenanceFuture != null) {
+            maintenanceFuture.cancel(false);
+            maintenanceFuture = null;
+        }
+
+        peerMap.values().forEach(NettyDatagramPeer::release);
+        peerMap.clear();
+    }
+
+}
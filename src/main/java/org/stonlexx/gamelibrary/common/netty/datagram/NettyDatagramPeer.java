@@ -0,0 +1,258 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Состояние обмена датаграммами с одним адресом:
+ * номера пакетов, неподтвержденные надежные пакеты
+ * и недособранные фрагменты
+ *
+ * Используется только из event loop канала
+ */
+@RequiredArgsConstructor
+@Getter
+final class NettyDatagramPeer {
+
+    private final InetSocketAddress address;
+
+    /**
+     * Сессия, в которой адрес сейчас шлет датаграммы, и
+     * предыдущая сессия, запоздавшие датаграммы которой
+     * отбрасываются. null - от адреса еще ничего не приходило
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private Integer remoteSessionId;
+
+    @Setter(AccessLevel.PACKAGE)
+    private Integer retiredSessionId;
+
+    /**
+     * Номера ненадежных и надежных пакетов идут раздельно, чтобы
+     * поток ненадежных пакетов не сдвигал окно повторов
+     */
+    private int nextSequence;
+    private int nextReliableSequence;
+
+    private long lastReceiveMillis;
+    private long lastSendMillis;
+
+    /**
+     * Окно надежных пакетов, создается при первом
+     * надежном пакете от адреса
+     */
+    @Getter(AccessLevel.NONE)
+    private NettyDatagramWindow reliableWindow;
+
+    /**
+     * Номер последнего обработанного ненадежного
+     * пакета каждого класса
+     */
+    private final Map<Class<? extends NettyPacket>, Integer> latestSequenceMap = new HashMap<>();
+
+    private final Map<Integer, PendingMessage> pendingMessageMap = new LinkedHashMap<>();
+    private final Map<Long, FragmentAssembly> fragmentAssemblyMap = new HashMap<>();
+
+
+    NettyDatagramWindow getReliableWindow() {
+        if (reliableWindow == null) {
+            reliableWindow = new NettyDatagramWindow();
+        }
+
+        return reliableWindow;
+    }
+
+    int nextSequence(boolean reliable) {
+        return reliable ? nextReliableSequence++ : nextSequence++;
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том, можно ли
+     * отправить еще один надежный пакет: самый старый
+     * неподтвержденный пакет должен остаться в окне получателя
+     */
+    boolean canSendReliable() {
+        Iterator<Integer> pendingIterator = pendingMessageMap.keySet().iterator();
+        return !pendingIterator.hasNext() || nextReliableSequence - pendingIterator.next() < NettyDatagramWindow.WINDOW_SIZE;
+    }
+
+    /**
+     * Получить ключ сборки фрагментов: номера надежных
+     * и ненадежных пакетов могут совпадать
+     *
+     * @param reliable - надежный ли пакет
+     * @param sequence - номер пакета
+     */
+    static long getAssemblyKey(boolean reliable, int sequence) {
+        return (reliable ? 1L << 32 : 0L) | (sequence & 0xFFFFFFFFL);
+    }
+
+    void onReceived(long currentMillis) {
+        this.lastReceiveMillis = currentMillis;
+    }
+
+    void onSent(long currentMillis) {
+        this.lastSendMillis = currentMillis;
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том, пришел ли
+     * уже более новый ненадежный пакет того же класса, и
+     * запомнить номер пакета, если он новее
+     *
+     * @param nettyPacketClass - класс пакета
+     * @param sequence         - номер пакета
+     */
+    boolean isStale(Class<? extends NettyPacket> nettyPacketClass, int sequence) {
+        Integer latestSequence = latestSequenceMap.get(nettyPacketClass);
+
+        if (latestSequence != null && sequence - latestSequence <= 0) {
+            return true;
+        }
+
+        latestSequenceMap.put(nettyPacketClass, sequence);
+        return false;
+    }
+
+    /**
+     * Снять надежный пакет с повторной отправки
+     * после получения подтверждения на него
+     *
+     * @param sequence - номер пакета
+     */
+    void acknowledge(int sequence) {
+        PendingMessage pendingMessage = pendingMessageMap.remove(sequence);
+
+        if (pendingMessage != null) {
+            pendingMessage.release();
+        }
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * можно ли забыть состояние этого адреса
+     *
+     * @param currentMillis     - текущее время
+     * @param peerTimeoutMillis - время молчания адреса
+     */
+    boolean isExpired(long currentMillis, long peerTimeoutMillis) {
+        return pendingMessageMap.isEmpty() && currentMillis - Math.max(lastReceiveMillis, lastSendMillis) > peerTimeoutMillis;
+    }
+
+    /**
+     * Освободить буферы всех неподтвержденных
+     * пакетов и недособранных фрагментов
+     */
+    void release() {
+        pendingMessageMap.values().forEach(PendingMessage::release);
+        pendingMessageMap.clear();
+
+        fragmentAssemblyMap.values().forEach(FragmentAssembly::release);
+        fragmentAssemblyMap.clear();
+    }
+
+    /**
+     * Выбросить фрагменты, которые собираются дольше
+     * отведенного времени
+     *
+     * @param currentMillis - текущее время
+     * @param timeoutMillis - время сборки фрагментов
+     * @return количество выброшенных пакетов
+     */
+    int expireFragments(long currentMillis, long timeoutMillis) {
+        int expiredCount = 0;
+        Iterator<FragmentAssembly> assemblyIterator = fragmentAssemblyMap.values().iterator();
+
+        while (assemblyIterator.hasNext()) {
+            FragmentAssembly fragmentAssembly = assemblyIterator.next();
+
+            if (currentMillis - fragmentAssembly.createdMillis > timeoutMillis) {
+                fragmentAssembly.release();
+                assemblyIterator.remove();
+
+                expiredCount++;
+            }
+        }
+
+        return expiredCount;
+    }
+
+
+    /**
+     * Надежный пакет, который ждет подтверждения:
+     * готовые датаграммы всех его фрагментов
+     */
+    @RequiredArgsConstructor
+    static final class PendingMessage {
+
+        final ByteBuf[] datagrams;
+
+        int sendAttempts = 1;
+        long lastSendMillis;
+
+        void release() {
+            for (ByteBuf datagram : datagrams) {
+                datagram.release();
+            }
+        }
+    }
+
+    /**
+     * Пакет, фрагменты которого еще не пришли полностью
+     */
+    static final class FragmentAssembly {
+
+        final ByteBuf[] fragments;
+        final long createdMillis;
+
+        int receivedCount;
+
+        FragmentAssembly(int fragmentCount, long createdMillis) {
+            this.fragments = new ByteBuf[fragmentCount];
+            this.createdMillis = createdMillis;
+        }
+
+        /**
+         * Добавить фрагмент, повторный фрагмент освобождается
+         *
+         * @param fragmentIndex - номер фрагмента
+         * @param fragment      - байты фрагмента
+         * @return собранный пакет, null - пришли еще не все фрагменты
+         */
+        ByteBuf addFragment(int fragmentIndex, ByteBuf fragment) {
+            if (fragments[fragmentIndex] != null) {
+                fragment.release();
+                return null;
+            }
+
+            fragments[fragmentIndex] = fragment;
+
+            if (++receivedCount < fragments.length) {
+                return null;
+            }
+
+            return Unpooled.wrappedBuffer(fragments);
+        }
+
+        void release() {
+            for (ByteBuf fragment : fragments) {
+
+                if (fragment != null) {
+                    fragment.release();
+                }
+            }
+        }
+    }
+
+}
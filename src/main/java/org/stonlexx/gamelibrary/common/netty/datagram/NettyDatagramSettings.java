@@ -0,0 +1,108 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.common.netty.bootstrap.NettyTransport;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+public class NettyDatagramSettings {
+
+    /**
+     * Транспорт канала, по умолчанию epoll на Linux,
+     * если он доступен, иначе NIO
+     */
+    @NonNull
+    private NettyTransport transport = NettyTransport.bestAvailable();
+
+    /**
+     * Максимальный размер одной датаграммы в байтах вместе
+     * с заголовком, пакеты больше него делятся на фрагменты
+     */
+    private int mtu = 1200;
+
+    /**
+     * Максимальное количество фрагментов одного пакета
+     */
+    private int maxFragments = 64;
+
+    /**
+     * Время ожидания недостающих фрагментов пакета в миллисекундах
+     */
+    private long fragmentTimeoutMillis = 2000;
+
+    /**
+     * Интервал повторной отправки надежного пакета,
+     * на который еще не пришло подтверждение, в миллисекундах
+     */
+    private long resendIntervalMillis = 100;
+
+    /**
+     * Количество отправок надежного пакета,
+     * после которого он считается потерянным
+     */
+    private int maxSendAttempts = 10;
+
+    /**
+     * Время в миллисекундах, после которого состояние
+     * молчащего адреса (номера, фрагменты) забывается
+     */
+    private long peerTimeoutMillis = 30000;
+
+    /**
+     * Максимальное количество адресов, от которых одновременно
+     * принимаются датаграммы. Датаграммы новых адресов сверх
+     * него отбрасываются, пока молчащие адреса не будут забыты
+     */
+    private int maxPeers = 4096;
+
+    /**
+     * Размер буфера сокета на прием в байтах, 0 - по умолчанию ОС
+     *
+     * Датаграммы, не влезшие в буфер, пока event loop их
+     * не прочитал, теряются, поэтому буфер по умолчанию
+     * больше системного (ядро урезает его до net.core.rmem_max)
+     */
+    private int receiveBufferSize = 1 << 20;
+
+    /**
+     * Размер буфера сокета на отправку в байтах, 0 - по умолчанию ОС
+     */
+    private int sendBufferSize = 0;
+
+    /**
+     * Классы пакетов, которые доставляются надежно:
+     * отправляются повторно до подтверждения и
+     * не отбрасываются как устаревшие
+     */
+    @Setter(AccessLevel.NONE)
+    private final Set<Class<? extends NettyPacket>> reliablePacketClasses = Collections.synchronizedSet(new LinkedHashSet<>());
+
+
+    /**
+     * Доставлять пакеты указанного класса надежно
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    public void addReliablePacket(@NonNull Class<? extends NettyPacket> nettyPacketClass) {
+        reliablePacketClasses.add(nettyPacketClass);
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * доставляются ли пакеты указанного класса надежно
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    public boolean isReliable(@NonNull Class<? extends NettyPacket> nettyPacketClass) {
+        return reliablePacketClasses.contains(nettyPacketClass);
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики датаграммного канала
+ *
+ * Счетчики увеличиваются только из event loop канала,
+ * а читать их можно из любого потока
+ */
+public final class NettyDatagramStatistics {
+
+    private final LongAdder sentPackets         = new LongAdder();
+    private final LongAdder sentDatagrams       = new LongAdder();
+    private final LongAdder receivedPackets     = new LongAdder();
+    private final LongAdder receivedDatagrams   = new LongAdder();
+
+    private final LongAdder stalePackets        = new LongAdder();
+    private final LongAdder duplicatePackets    = new LongAdder();
+    private final LongAdder malformedDatagrams  = new LongAdder();
+    private final LongAdder rejectedDatagrams   = new LongAdder();
+
+    private final LongAdder resentPackets       = new LongAdder();
+    private final LongAdder lostPackets         = new LongAdder();
+    private final LongAdder expiredFragments    = new LongAdder();
+    private final LongAdder sessionResets       = new LongAdder();
+
+
+    /**
+     * Получить количество отправленных пакетов
+     */
+    public long getSentPackets() {
+        return sentPackets.sum();
+    }
+
+    /**
+     * Получить количество отправленных датаграмм,
+     * включая фрагменты, повторы и подтверждения
+     */
+    public long getSentDatagrams() {
+        return sentDatagrams.sum();
+    }
+
+    /**
+     * Получить количество полученных и обработанных пакетов
+     */
+    public long getReceivedPackets() {
+        return receivedPackets.sum();
+    }
+
+    /**
+     * Получить количество полученных датаграмм
+     */
+    public long getReceivedDatagrams() {
+        return receivedDatagrams.sum();
+    }
+
+    /**
+     * Получить количество пакетов, выброшенных потому, что
+     * более новый пакет того же класса уже пришел
+     */
+    public long getStalePackets() {
+        return stalePackets.sum();
+    }
+
+    /**
+     * Получить количество повторно пришедших надежных пакетов
+     */
+    public long getDuplicatePackets() {
+        return duplicatePackets.sum();
+    }
+
+    /**
+     * Получить количество датаграмм, которые
+     * не удалось разобрать
+     */
+    public long getMalformedDatagrams() {
+        return malformedDatagrams.sum();
+    }
+
+    /**
+     * Получить количество датаграмм от новых адресов, отброшенных
+     * из-за ограничения {@link NettyDatagramSettings#getMaxPeers()}
+     */
+    public long getRejectedDatagrams() {
+        return rejectedDatagrams.sum();
+    }
+
+    /**
+     * Получить количество повторных отправок надежных пакетов
+     */
+    public long getResentPackets() {
+        return resentPackets.sum();
+    }
+
+    /**
+     * Получить количество надежных пакетов, которые
+     * так и не были подтверждены или не влезли в окно
+     */
+    public long getLostPackets() {
+        return lostPackets.sum();
+    }
+
+    /**
+     * Получить количество пакетов, фрагменты
+     * которых не собрались за отведенное время
+     */
+    public long getExpiredFragments() {
+        return expiredFragments.sum();
+    }
+
+    /**
+     * Получить количество адресов, состояние которых было
+     * забыто из-за смены сессии отправителя (перезапуска)
+     */
+    public long getSessionResets() {
+        return sessionResets.sum();
+    }
+
+
+    void onSent() {
+        sentPackets.increment();
+    }
+
+    void onDatagramSent() {
+        sentDatagrams.increment();
+    }
+
+    void onReceived() {
+        receivedPackets.increment();
+    }
+
+    void onDatagramReceived() {
+        receivedDatagrams.increment();
+    }
+
+    void onStale() {
+        stalePackets.increment();
+    }
+
+    void onDuplicate() {
+        duplicatePackets.increment();
+    }
+
+    void onMalformed() {
+        malformedDatagrams.increment();
+    }
+
+    void onRejected() {
+        rejectedDatagrams.increment();
+    }
+
+    void onResent() {
+        resentPackets.increment();
+    }
+
+    void onLost() {
+        lostPackets.increment();
+    }
+
+    void onFragmentsExpired(int expiredCount) {
+        expiredFragments.add(expiredCount);
+    }
+
+    void onSessionReset() {
+        sessionResets.increment();
+    }
+
+}
@@ -0,0 +1,64 @@
+package org.stonlexx.gamelibrary.common.netty.datagram;
+
+/**
+ * Окно последних полученных номеров надежных пакетов
+ * одного адреса, по которому отбрасываются повторы
+ *
+ * Номера сравниваются с учетом переполнения int, а номер
+ * старше окна считается повтором, поэтому отправитель не
+ * уходит от самого старого неподтвержденного пакета дальше
+ * {@link #WINDOW_SIZE} номеров. Ненадежные пакеты нумеруются
+ * отдельно и окно не сдвигают
+ */
+final class NettyDatagramWindow {
+
+    static final int WINDOW_SIZE = 1024;
+
+    private final boolean[] receivedFlags = new boolean[WINDOW_SIZE];
+    private final int[] receivedSequences = new int[WINDOW_SIZE];
+
+    private boolean empty = true;
+    private int highestSequence;
+
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * был ли номер уже получен (или он старше окна)
+     *
+     * @param sequence - номер пакета
+     */
+    boolean isReceived(int sequence) {
+        if (empty) {
+            return false;
+        }
+
+        if (sequence - highestSequence > 0) {
+            return false;
+        }
+
+        if (highestSequence - sequence >= WINDOW_SIZE) {
+            return true;
+        }
+
+        int slot = sequence & (WINDOW_SIZE - 1);
+        return receivedFlags[slot] && receivedSequences[slot] == sequence;
+    }
+
+    /**
+     * Отметить номер полученным
+     *
+     * @param sequence - номер пакета
+     */
+    void markReceived(int sequence) {
+        if (empty || sequence - highestSequence > 0) {
+            highestSequence = sequence;
+            empty = false;
+        }
+
+        int slot = sequence & (WINDOW_SIZE - 1);
+
+        receivedFlags[slot] = true;
+        receivedSequences[slot] = sequence;
+    }
+
+}
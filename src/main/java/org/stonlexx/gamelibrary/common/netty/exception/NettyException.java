@@ -6,4 +6,8 @@ public class NettyException extends RuntimeException {
         super(errorMessage);
     }
 
+    public NettyException(String errorMessage, Throwable cause) {
+        super(errorMessage, cause);
+    }
+
 }
@@ -0,0 +1,86 @@
+package org.stonlexx.gamelibrary.common.netty.handler.heartbeat;
+
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправляет ping раз в интервал, отвечает на ping другой
+ * стороны и закрывает канал, от которого слишком долго
+ * ничего не приходило
+ *
+ * Ping и pong обрабатываются прямо в event loop канала,
+ * минуя режим обработки пакетов, чтобы очередь обработчиков
+ * не попадала в замер RTT. Молчание канала определяет
+ * стоящий перед кодеками {@link io.netty.handler.timeout.IdleStateHandler}
+ */
+@RequiredArgsConstructor
+public class NettyHeartbeatHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * Интервал отправки ping в миллисекундах, 0 - не отправлять
+     */
+    private final long heartbeatIntervalMillis;
+
+    private ScheduledFuture<?> heartbeatFuture;
+
+
+    @Override
+    public void channelActive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        if (heartbeatIntervalMillis > 0) {
+            heartbeatFuture = channelHandlerContext.executor().scheduleAtFixedRate(() -> sendPing(channelHandlerContext),
+                    heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        super.channelActive(channelHandlerContext);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        if (heartbeatFuture != null) {
+            heartbeatFuture.cancel(false);
+            heartbeatFuture = null;
+        }
+
+        super.channelInactive(channelHandlerContext);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext channelHandlerContext, Object message) throws Exception {
+        if (!(message instanceof NettyPingPacket)) {
+            super.channelRead(channelHandlerContext, message);
+            return;
+        }
+
+        try {
+            ((NettyPingPacket) message).handle(channelHandlerContext.channel());
+        }
+        finally {
+            ReferenceCountUtil.release(message);
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext channelHandlerContext, Object event) throws Exception {
+        if (event instanceof IdleStateEvent && ((IdleStateEvent) event).state() == IdleState.READER_IDLE) {
+            channelHandlerContext.close();
+            return;
+        }
+
+        super.userEventTriggered(channelHandlerContext, event);
+    }
+
+
+    private void sendPing(ChannelHandlerContext channelHandlerContext) {
+        if (channelHandlerContext.channel().isActive()) {
+            channelHandlerContext.writeAndFlush(new NettyPingPacket(System.nanoTime(), false), channelHandlerContext.voidPromise());
+        }
+    }
+
+}
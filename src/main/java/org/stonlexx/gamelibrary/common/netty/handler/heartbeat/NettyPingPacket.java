@@ -0,0 +1,57 @@
+package org.stonlexx.gamelibrary.common.netty.handler.heartbeat;
+
+import io.netty.channel.Channel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+/**
+ * Служебный пакет ping/pong
+ *
+ * Отправитель кладет в ping свое время System.nanoTime(),
+ * другая сторона возвращает его без изменений в pong,
+ * поэтому часы сторон сравнивать не нужно
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class NettyPingPacket extends AbstractNettyPacket {
+
+    /**
+     * Ключ пакета в служебной типизации
+     */
+    public static final String PACKET_ID = "gamelibrary:ping";
+
+    private long pingNanos;
+    private boolean pong;
+
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeLong(pingNanos);
+        packetBuffer.writeBoolean(pong);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        pingNanos = packetBuffer.readLong();
+        pong = packetBuffer.readBoolean();
+    }
+
+    @Override
+    public void handle(Channel channel) {
+        if (!pong) {
+            channel.writeAndFlush(new NettyPingPacket(pingNanos, true), channel.voidPromise());
+            return;
+        }
+
+        long rttNanos = System.nanoTime() - pingNanos;
+        NettyRoundTripTime.getOrCreate(channel).onSample(rttNanos);
+
+        GameLibrary.getInstance().getNettyManager().getPacketMetrics().onRoundTrip(rttNanos);
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.stonlexx.gamelibrary.common.netty.handler.heartbeat;
+
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сглаженная оценка времени полного пути (RTT)
+ * и его разброса по ответам на ping подключения
+ *
+ * Оценка считается как в TCP (RFC 6298): новый замер
+ * входит в среднее с весом 1/8, а в разброс - с весом 1/4
+ */
+@Getter
+public final class NettyRoundTripTime {
+
+    public static final AttributeKey<NettyRoundTripTime> RTT_ATTRIBUTE = AttributeKey.valueOf("netty-round-trip-time");
+
+    /**
+     * Сглаженное RTT в наносекундах
+     */
+    private volatile long smoothedNanos;
+
+    /**
+     * Сглаженное отклонение RTT от среднего
+     * в наносекундах, то есть джиттер
+     */
+    private volatile long jitterNanos;
+
+    /**
+     * Последний замер RTT в наносекундах
+     */
+    private volatile long lastNanos;
+
+    /**
+     * Минимальный замер RTT в наносекундах
+     */
+    private volatile long minNanos;
+
+    /**
+     * Количество замеров
+     */
+    private volatile long sampleCount;
+
+    /**
+     * Время последнего замера в миллисекундах
+     */
+    private volatile long lastSampleMillis;
+
+
+    /**
+     * Учесть новый замер RTT
+     *
+     * @param rttNanos - время от отправки ping до получения pong
+     */
+    public synchronized void onSample(long rttNanos) {
+        rttNanos = Math.max(0, rttNanos);
+
+        if (sampleCount == 0) {
+            smoothedNanos = rttNanos;
+            jitterNanos = rttNanos / 2;
+            minNanos = rttNanos;
+
+        } else {
+
+            jitterNanos += (Math.abs(smoothedNanos - rttNanos) - jitterNanos) / 4;
+            smoothedNanos += (rttNanos - smoothedNanos) / 8;
+            minNanos = Math.min(minNanos, rttNanos);
+        }
+
+        lastNanos = rttNanos;
+        lastSampleMillis = System.currentTimeMillis();
+
+        sampleCount++;
+    }
+
+    /**
+     * Получить сглаженное RTT в миллисекундах
+     */
+    public double getSmoothedMillis() {
+        return smoothedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Получить джиттер RTT в миллисекундах
+     */
+    public double getJitterMillis() {
+        return jitterNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+
+    /**
+     * Получить оценку RTT канала, null - если
+     * по каналу еще не было ни одного замера
+     *
+     * @param channel - канал подключения
+     */
+    public static NettyRoundTripTime get(@NonNull Channel channel) {
+        return channel.attr(RTT_ATTRIBUTE).get();
+    }
+
+    /**
+     * Получить (или создать) оценку RTT канала
+     *
+     * @param channel - канал подключения
+     */
+    public static NettyRoundTripTime getOrCreate(@NonNull Channel channel) {
+        Attribute<NettyRoundTripTime> rttAttribute = channel.attr(RTT_ATTRIBUTE);
+        NettyRoundTripTime roundTripTime = rttAttribute.get();
+
+        if (roundTripTime == null) {
+            NettyRoundTripTime createdRoundTripTime = new NettyRoundTripTime();
+            roundTripTime = rttAttribute.setIfAbsent(createdRoundTripTime);
+
+            if (roundTripTime == null) {
+                roundTripTime = createdRoundTripTime;
+            }
+        }
+
+        return roundTripTime;
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.stonlexx.gamelibrary.common.netty.handler.outbound;
+
+import io.netty.channel.Channel;
+import lombok.NonNull;
+
+public abstract class AbstractNettyWritability {
+
+    /**
+     * Что происходит, когда исходящий буфер канала
+     * превышает верхнюю или опускается ниже нижней
+     * отметки {@link io.netty.channel.WriteBufferWaterMark}
+     *
+     * @param channel  - канал подключения
+     * @param writable - доступен ли канал для записи
+     */
+    public abstract void onWritabilityChanged(@NonNull Channel channel, boolean writable);
+}
@@ -0,0 +1,225 @@
+package org.stonlexx.gamelibrary.common.netty.handler.outbound;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.ThrowableUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ограниченная очередь исходящих пакетов подключения
+ *
+ * Пока исходящий буфер канала ниже верхней отметки
+ * {@link io.netty.channel.WriteBufferWaterMark}, пакеты проходят
+ * насквозь. После ее превышения пакеты ждут в очереди и
+ * записываются, когда буфер опустится ниже нижней отметки.
+ * При переполнении очереди срабатывает {@link NettyOverflowPolicy}
+ *
+ * Обработчик стоит в pipeline после энкодера пакетов,
+ * поэтому в очереди лежат еще не закодированные пакеты
+ */
+@RequiredArgsConstructor
+public class NettyOutboundQueueHandler extends ChannelDuplexHandler {
+
+    private static final NettyException OVERFLOW_EXCEPTION = ThrowableUtil.unknownStackTrace(
+            new NettyException("Outbound queue overflow"), NettyOutboundQueueHandler.class, "write(...)");
+
+    private static final NettyException CLOSED_EXCEPTION = ThrowableUtil.unknownStackTrace(
+            new NettyException("Channel closed before the queued write"), NettyOutboundQueueHandler.class, "channelInactive(...)");
+
+    private final int queueLimit;
+    private final NettyOverflowPolicy overflowPolicy;
+
+    private final Collection<AbstractNettyWritability> nettyWritabilityCollection;
+
+    @Getter
+    private final NettyOutboundStatistics outboundStatistics = new NettyOutboundStatistics();
+
+    private final ArrayDeque<PendingWrite> pendingQueue = new ArrayDeque<>();
+    private final Map<Class<?>, PendingWrite> pendingTypeMap = new HashMap<>();
+
+    /**
+     * Текущее количество пакетов в очереди
+     */
+    @Getter
+    private volatile int pendingCount;
+
+
+    @Override
+    public void write(ChannelHandlerContext channelHandlerContext, Object message, ChannelPromise channelPromise) {
+        if (pendingQueue.isEmpty() && channelHandlerContext.channel().isWritable()) {
+            channelHandlerContext.write(message, channelPromise);
+            return;
+        }
+
+        enqueue(channelHandlerContext, message, channelPromise);
+        pendingCount = pendingQueue.size();
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext channelHandlerContext) {
+        if (!pendingQueue.isEmpty()) {
+            drain(channelHandlerContext);
+        }
+
+        channelHandlerContext.flush();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext channelHandlerContext) {
+        boolean writable = channelHandlerContext.channel().isWritable();
+
+        if (!writable) {
+            outboundStatistics.onUnwritable();
+
+        } else if (!pendingQueue.isEmpty()) {
+
+            drain(channelHandlerContext);
+            channelHandlerContext.flush();
+        }
+
+        if (nettyWritabilityCollection != null) {
+            for (AbstractNettyWritability nettyWritability : nettyWritabilityCollection)
+                nettyWritability.onWritabilityChanged(channelHandlerContext.channel(), writable);
+        }
+
+        channelHandlerContext.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        dropAll(CLOSED_EXCEPTION);
+        super.channelInactive(channelHandlerContext);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext channelHandlerContext) {
+        dropAll(CLOSED_EXCEPTION);
+    }
+
+
+    private void enqueue(ChannelHandlerContext channelHandlerContext, Object message, ChannelPromise channelPromise) {
+
+        boolean coalesce = overflowPolicy == NettyOverflowPolicy.COALESCE && message instanceof NettyPacket;
+
+        // пока очередь не заполнена, пакеты одного класса копятся
+        // по порядку, и только при переполнении новый пакет занимает
+        // место последнего ожидающего пакета того же класса
+        if (coalesce && pendingQueue.size() >= queueLimit) {
+            PendingWrite pendingWrite = pendingTypeMap.get(message.getClass());
+
+            if (pendingWrite != null) {
+                outboundStatistics.onCoalesced(pendingWrite.message);
+                discard(pendingWrite.message, pendingWrite.promise, OVERFLOW_EXCEPTION);
+
+                pendingWrite.message = message;
+                pendingWrite.promise = channelPromise;
+                return;
+            }
+        }
+
+        if (pendingQueue.size() >= queueLimit) {
+            switch (overflowPolicy) {
+
+                case DROP_OLDEST: {
+                    PendingWrite oldestWrite = poll();
+
+                    if (oldestWrite == null) {
+                        drop(message, channelPromise, OVERFLOW_EXCEPTION);
+                        return;
+                    }
+
+                    drop(oldestWrite.message, oldestWrite.promise, OVERFLOW_EXCEPTION);
+                    break;
+                }
+
+                case DISCONNECT: {
+                    drop(message, channelPromise, OVERFLOW_EXCEPTION);
+                    dropAll(OVERFLOW_EXCEPTION);
+
+                    outboundStatistics.onDisconnect();
+                    channelHandlerContext.close();
+                    return;
+                }
+
+                default: {
+                    drop(message, channelPromise, OVERFLOW_EXCEPTION);
+                    return;
+                }
+            }
+        }
+
+        PendingWrite pendingWrite = new PendingWrite(message, channelPromise);
+        pendingQueue.add(pendingWrite);
+
+        if (coalesce) {
+            pendingTypeMap.put(message.getClass(), pendingWrite);
+        }
+
+        outboundStatistics.onQueued();
+    }
+
+    private void drain(ChannelHandlerContext channelHandlerContext) {
+        while (!pendingQueue.isEmpty() && channelHandlerContext.channel().isWritable()) {
+            PendingWrite pendingWrite = poll();
+
+            channelHandlerContext.write(pendingWrite.message, pendingWrite.promise);
+        }
+
+        pendingCount = pendingQueue.size();
+    }
+
+    private PendingWrite poll() {
+        PendingWrite pendingWrite = pendingQueue.poll();
+
+        if (pendingWrite != null) {
+            pendingTypeMap.remove(pendingWrite.message.getClass(), pendingWrite);
+        }
+
+        return pendingWrite;
+    }
+
+    private void dropAll(NettyException cause) {
+        PendingWrite pendingWrite;
+
+        while ((pendingWrite = poll()) != null) {
+            drop(pendingWrite.message, pendingWrite.promise, cause);
+        }
+
+        pendingCount = 0;
+    }
+
+    private void drop(@NonNull Object message, ChannelPromise channelPromise, NettyException cause) {
+        outboundStatistics.onDropped(message);
+        discard(message, channelPromise, cause);
+    }
+
+    private void discard(Object message, ChannelPromise channelPromise, NettyException cause) {
+        ReferenceCountUtil.release(message);
+
+        // void promise при ошибке вызывает exceptionCaught
+        if (!channelPromise.isVoid()) {
+            channelPromise.tryFailure(cause);
+        }
+    }
+
+
+    @AllArgsConstructor
+    private static final class PendingWrite {
+
+        private Object message;
+        private ChannelPromise promise;
+    }
+
+}
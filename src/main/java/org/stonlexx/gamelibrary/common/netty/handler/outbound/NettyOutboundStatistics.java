@@ -0,0 +1,101 @@
+package org.stonlexx.gamelibrary.common.netty.handler.outbound;
+
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики очереди исходящих пакетов подключения
+ *
+ * Счетчики увеличиваются только из event loop канала,
+ * а читать их можно из любого потока
+ */
+public final class NettyOutboundStatistics {
+
+    private final LongAdder queuedCount         = new LongAdder();
+    private final LongAdder droppedCount        = new LongAdder();
+    private final LongAdder coalescedCount      = new LongAdder();
+    private final LongAdder disconnectCount     = new LongAdder();
+    private final LongAdder unwritableCount     = new LongAdder();
+
+    private final Map<Class<?>, LongAdder> droppedTypeMap = new ConcurrentHashMap<>();
+
+
+    /**
+     * Получить количество пакетов, которые
+     * ждали в очереди, пока канал был недоступен
+     */
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    /**
+     * Получить количество выброшенных пакетов
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Получить количество пакетов, замененных
+     * в очереди более новым пакетом того же класса
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Получить количество отключений
+     * из-за переполнения очереди
+     */
+    public long getDisconnectCount() {
+        return disconnectCount.sum();
+    }
+
+    /**
+     * Получить количество превышений верхней
+     * отметки исходящего буфера канала
+     */
+    public long getUnwritableCount() {
+        return unwritableCount.sum();
+    }
+
+    /**
+     * Получить количество выброшенных и замененных
+     * пакетов с разбивкой по их классам
+     */
+    public Map<Class<?>, Long> getDroppedTypeMap() {
+        Map<Class<?>, Long> droppedTypeMap = new HashMap<>();
+        this.droppedTypeMap.forEach((messageClass, counter) -> droppedTypeMap.put(messageClass, counter.sum()));
+
+        return Collections.unmodifiableMap(droppedTypeMap);
+    }
+
+
+    void onQueued() {
+        queuedCount.increment();
+    }
+
+    void onDropped(@NonNull Object message) {
+        droppedCount.increment();
+        droppedTypeMap.computeIfAbsent(message.getClass(), messageClass -> new LongAdder()).increment();
+    }
+
+    void onCoalesced(@NonNull Object message) {
+        coalescedCount.increment();
+        droppedTypeMap.computeIfAbsent(message.getClass(), messageClass -> new LongAdder()).increment();
+    }
+
+    void onDisconnect() {
+        disconnectCount.increment();
+    }
+
+    void onUnwritable() {
+        unwritableCount.increment();
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.stonlexx.gamelibrary.common.netty.handler.outbound;
+
+/**
+ * Что делать с пакетом, когда канал недоступен
+ * для записи, а очередь ожидающих пакетов заполнена
+ */
+public enum NettyOverflowPolicy {
+
+    /**
+     * Выбросить самый старый пакет из
+     * очереди и поставить новый в ее конец
+     */
+    DROP_OLDEST,
+
+    /**
+     * Выбросить новый пакет, очередь
+     * остается без изменений
+     */
+    DROP_NEWEST,
+
+    /**
+     * Заменить ожидающий пакет того же класса новым,
+     * сохранив его место в очереди. Если пакета того же
+     * класса в очереди нет, новый пакет выбрасывается.
+     * Запросы, ответы и сырые байты никогда не заменяются
+     */
+    COALESCE,
+
+    /**
+     * Закрыть канал медленного подключения,
+     * выбросив все ожидающие пакеты
+     */
+    DISCONNECT,
+}
@@ -0,0 +1,20 @@
+package org.stonlexx.gamelibrary.common.netty.handler.outbound.impl;
+
+import io.netty.channel.Channel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.handler.outbound.AbstractNettyWritability;
+
+import java.util.function.BiConsumer;
+
+@RequiredArgsConstructor
+public class NettyConsumerWritability extends AbstractNettyWritability {
+
+    private final BiConsumer<Channel, Boolean> writabilityConsumer;
+
+    @Override
+    public void onWritabilityChanged(@NonNull Channel channel, boolean writable) {
+        writabilityConsumer.accept(channel, writable);
+    }
+
+}
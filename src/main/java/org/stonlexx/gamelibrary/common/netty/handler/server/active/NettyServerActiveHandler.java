@@ -16,6 +16,9 @@ public class NettyServerActiveHandler extends ChannelInboundHandlerAdapter {
     public void channelActive(ChannelHandlerContext channelHandlerContext) {
         for (AbstractNettyServerActive nettyServerActive : nettyServerActiveCollection)
             nettyServerActive.onServerActive(channelHandlerContext.channel());
+
+        // дальше по pipeline стоит обработчик переподключения
+        channelHandlerContext.fireChannelActive();
     }
 
 }
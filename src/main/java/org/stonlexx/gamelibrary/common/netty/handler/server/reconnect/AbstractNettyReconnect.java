@@ -1,8 +1,17 @@
 package org.stonlexx.gamelibrary.common.netty.handler.server.reconnect;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.Setter;
+import org.stonlexx.gamelibrary.GameLibrary;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Getter
 @Setter
@@ -14,6 +23,51 @@ public abstract class AbstractNettyReconnect {
 
     protected Runnable connectRunnable;
 
+    @NonNull
+    protected NettyReconnectPolicy reconnectPolicy = new NettyReconnectPolicy();
+
+    /**
+     * Количество неудачных попыток переподключения подряд
+     */
+    @Setter(AccessLevel.NONE)
+    private int failedAttempts;
+
+    /**
+     * Разомкнуто ли переподключение после серии неудачных попыток
+     */
+    @Setter(AccessLevel.NONE)
+    private boolean circuitOpen;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean attemptInProgress;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ScheduledFuture<?> reconnectFuture;
+
+    /**
+     * Номер расписания, меняется при отмене, чтобы уже
+     * начатая попытка из старого расписания не выполнилась
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int scheduleGeneration;
+
+    /**
+     * Остановлено ли переподключение насовсем, после
+     * этого новые попытки больше не планируются
+     */
+    @Setter(AccessLevel.NONE)
+    private boolean cancelled;
+
+    /**
+     * Подключение, начатое последней попыткой
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ChannelFuture connectFuture;
+
 
     /**
      * Что будет происходит при попытке
@@ -21,6 +75,16 @@ public abstract class AbstractNettyReconnect {
      */
     public abstract void onReconnect();
 
+    /**
+     * Переопределяющийся метод
+     *
+     * Вызывается, когда попытки переподключения
+     * исчерпаны и переподключение прекращено
+     */
+    public void onReconnectFailed() {
+        GameLibrary.getInstance().getLogger().warning("Reconnect gave up after " + failedAttempts + " failed attempts");
+    }
+
 
     /**
      * Обработка переподключения к серверу
@@ -30,4 +94,144 @@ public abstract class AbstractNettyReconnect {
         connectRunnable.run();
     }
 
+    /**
+     * Запланировать попытку переподключения в event loop
+     * канала по расписанию {@link NettyReconnectPolicy}
+     *
+     * Если попытка уже запланирована, новая не добавляется,
+     * а вызов после неудачной попытки увеличивает задержку
+     *
+     * @param eventLoop - event loop, в котором выполнится попытка
+     */
+    public synchronized void scheduleReconnect(@NonNull EventLoop eventLoop) {
+        if (cancelled || (reconnectFuture != null && !reconnectFuture.isDone())) {
+            return;
+        }
+
+        if (attemptInProgress) {
+            attemptInProgress = false;
+            failedAttempts++;
+        }
+
+        if (reconnectPolicy.isExhausted(failedAttempts)) {
+            onReconnectFailed();
+            return;
+        }
+
+        if (!circuitOpen && reconnectPolicy.isCircuitOpen(failedAttempts)) {
+            GameLibrary.getInstance().getLogger().warning("Reconnect circuit opened after " + failedAttempts + " failed attempts, next attempt in "
+                    + reconnectPolicy.getCircuitOpenMillis() + "ms");
+        }
+
+        circuitOpen = reconnectPolicy.isCircuitOpen(failedAttempts);
+        long delayMillis = reconnectPolicy.getDelayMillis(failedAttempts, circuitOpen);
+
+        int generation = scheduleGeneration;
+
+        try {
+            reconnectFuture = eventLoop.schedule(() -> runScheduledReconnect(generation), delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // группа потоков клиента уже остановлена
+        catch (RejectedExecutionException exception) {
+            reconnectFuture = null;
+        }
+    }
+
+    /**
+     * Сбросить счетчик неудачных попыток после
+     * успешного подключения к серверу
+     */
+    public synchronized void onConnected() {
+        failedAttempts = 0;
+        circuitOpen = false;
+        attemptInProgress = false;
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * запланирована или уже выполняется попытка переподключения
+     */
+    public synchronized boolean isReconnectPending() {
+        return attemptInProgress || (reconnectFuture != null && !reconnectFuture.isDone());
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * исчерпаны ли попытки переподключения по {@link NettyReconnectPolicy}
+     */
+    public synchronized boolean isExhausted() {
+        return reconnectPolicy.isExhausted(failedAttempts);
+    }
+
+    /**
+     * Отменить запланированную попытку переподключения
+     * и сбросить счетчик неудачных попыток
+     */
+    public synchronized void cancelReconnect() {
+        if (reconnectFuture != null) {
+            reconnectFuture.cancel(false);
+            reconnectFuture = null;
+        }
+
+        scheduleGeneration++;
+
+        onConnected();
+    }
+
+    /**
+     * Остановить переподключение насовсем: отменить
+     * запланированную попытку и закрыть канал уже
+     * начатой, чтобы ее неудача не запланировала новую
+     */
+    public void shutdown() {
+        ChannelFuture connectFuture;
+
+        synchronized (this) {
+            cancelled = true;
+            cancelReconnect();
+
+            connectFuture = this.connectFuture;
+            this.connectFuture = null;
+        }
+
+        if (connectFuture != null) {
+            connectFuture.channel().close();
+        }
+    }
+
+    /**
+     * Запомнить подключение, начатое попыткой переподключения,
+     * чтобы {@link #shutdown()} мог его прервать
+     *
+     * @param connectFuture - начатое подключение
+     */
+    public void onConnectStarted(@NonNull ChannelFuture connectFuture) {
+        synchronized (this) {
+
+            if (!cancelled) {
+                this.connectFuture = connectFuture;
+                return;
+            }
+        }
+
+        // переподключение остановили, пока попытка начиналась
+        connectFuture.channel().close();
+    }
+
+
+    private void runScheduledReconnect(int generation) {
+        synchronized (this) {
+
+            if (cancelled || generation != scheduleGeneration) {
+                return;
+            }
+
+            reconnectFuture = null;
+            attemptInProgress = true;
+        }
+
+        handleReconnect();
+    }
+
 }
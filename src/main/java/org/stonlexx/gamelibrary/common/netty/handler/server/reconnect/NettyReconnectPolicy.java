@@ -0,0 +1,100 @@
+package org.stonlexx.gamelibrary.common.netty.handler.server.reconnect;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Расписание попыток переподключения к серверу
+ *
+ * Задержка между попытками растет экспоненциально и
+ * случайно сокращается на долю jitter, чтобы клиенты,
+ * потерявшие сервер одновременно, не переподключались
+ * к нему одной волной. После серии неудачных попыток
+ * подряд переподключение размыкается и ждет дольше
+ */
+@Getter
+@Setter
+public class NettyReconnectPolicy {
+
+    /**
+     * Задержка перед первой попыткой в миллисекундах
+     */
+    private long initialDelayMillis = 250;
+
+    /**
+     * Максимальная задержка между попытками в миллисекундах
+     */
+    private long maxDelayMillis = 30_000;
+
+    /**
+     * Во сколько раз растет задержка после каждой неудачной попытки
+     */
+    private double backoffMultiplier = 2;
+
+    /**
+     * Доля задержки от 0 до 1, на которую она
+     * случайно сокращается, 0 - без случайности
+     */
+    private double jitter = 0.5;
+
+    /**
+     * Максимальное количество неудачных попыток подряд,
+     * после которого переподключение прекращается, 0 - без ограничения
+     */
+    private int maxAttempts = 0;
+
+    /**
+     * Количество неудачных попыток подряд, после
+     * которого переподключение размыкается, 0 - не размыкать
+     */
+    private int circuitOpenAttempts = 10;
+
+    /**
+     * Пауза разомкнутого переподключения перед
+     * следующей пробной попыткой в миллисекундах
+     */
+    private long circuitOpenMillis = 60_000;
+
+
+    /**
+     * Получить задержку перед попыткой переподключения
+     *
+     * @param failedAttempts - количество неудачных попыток подряд
+     * @param circuitOpen    - разомкнуто ли переподключение
+     */
+    public long getDelayMillis(int failedAttempts, boolean circuitOpen) {
+        double delayMillis = circuitOpen ? circuitOpenMillis
+                : Math.min(maxDelayMillis, initialDelayMillis * Math.pow(Math.max(1, backoffMultiplier), failedAttempts));
+
+        double jitterFraction = Math.min(1, Math.max(0, jitter));
+
+        if (jitterFraction > 0) {
+            delayMillis -= delayMillis * jitterFraction * ThreadLocalRandom.current().nextDouble();
+        }
+
+        return Math.max(0, (long) delayMillis);
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * исчерпаны ли попытки переподключения
+     *
+     * @param failedAttempts - количество неудачных попыток подряд
+     */
+    public boolean isExhausted(int failedAttempts) {
+        return maxAttempts > 0 && failedAttempts >= maxAttempts;
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том,
+     * нужно ли разомкнуть переподключение
+     *
+     * @param failedAttempts - количество неудачных попыток подряд
+     */
+    public boolean isCircuitOpen(int failedAttempts) {
+        return circuitOpenAttempts > 0 && failedAttempts >= circuitOpenAttempts;
+    }
+
+}
@@ -16,6 +16,15 @@ public class NettyServerReconnectHandler extends ChannelInboundHandlerAdapter {
     private ExceptionSession exceptionSession;
 
 
+    @Override
+    public void channelActive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        if (nettyReconnect != null) {
+            nettyReconnect.onConnected();
+        }
+
+        super.channelActive(channelHandlerContext);
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext channelHandlerContext) throws Exception {
         super.channelInactive(channelHandlerContext);
@@ -55,7 +64,9 @@ public class NettyServerReconnectHandler extends ChannelInboundHandlerAdapter {
         nettyReconnect.setChannel(channel);
         nettyReconnect.setException(throwable);
 
-        nettyReconnect.handleReconnect();
+        // попытка выполняется позже в event loop канала, а не
+        // прямо из channelInactive или слушателя подключения
+        nettyReconnect.scheduleReconnect(channel.eventLoop());
     }
 
     @RequiredArgsConstructor
@@ -27,4 +27,41 @@ public interface NettyPacket {
      * @param channel - канал, с которого пришел пакет
      */
     void handle(@NonNull Channel channel);
+
+    /**
+     * Обработать пакет, пришедший как запрос
+     * через {@link org.stonlexx.gamelibrary.common.netty.NettyConnection#request(NettyPacket)},
+     * и вернуть пакет ответа
+     *
+     * По умолчанию пакет обрабатывается через {@link #handle(Channel)}
+     * и отправляется обратно как ответ, null - не отвечать на запрос
+     *
+     * @param channel - канал, с которого пришел запрос
+     */
+    default NettyPacket handleRequest(@NonNull Channel channel) {
+        handle(channel);
+        return this;
+    }
+
+    /**
+     * Примерный размер пакета в байтах, который
+     * будет записан в {@link #writePacket(NettyPacketBuffer)}
+     *
+     * Используется для выделения буфера нужного размера
+     * при кодировании, -1 - если размер неизвестен
+     */
+    default int estimatedSize() {
+        return -1;
+    }
+
+    /**
+     * Сбросить состояние пакета перед его
+     * возвратом в пул
+     *
+     * Вызывается только для пакетов с аннотацией
+     * {@link org.stonlexx.gamelibrary.common.netty.packet.annotation.Pooled}
+     */
+    default void reset() {
+        // override me...
+    }
 }
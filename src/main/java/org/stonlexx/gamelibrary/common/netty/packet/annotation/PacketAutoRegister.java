@@ -2,6 +2,13 @@ package org.stonlexx.gamelibrary.common.netty.packet.annotation;
 
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
 public @interface PacketAutoRegister {
 
     String id();
@@ -0,0 +1,25 @@
+package org.stonlexx.gamelibrary.common.netty.packet.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Пакеты с этой аннотацией в режиме
+ * {@link org.stonlexx.gamelibrary.common.netty.packet.handler.NettyDispatchMode#PACKET_EXECUTOR}
+ * обрабатываются в указанном исполнителе, зарегистрированном через
+ * {@link org.stonlexx.gamelibrary.common.netty.packet.handler.NettyPacketDispatcher#registerExecutor(String, java.util.concurrent.Executor)}
+ *
+ * Пакеты одного подключения с одинаковым исполнителем
+ * обрабатываются по очереди, в порядке их получения
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PacketExecutor {
+
+    /**
+     * Название исполнителя
+     */
+    String value();
+}
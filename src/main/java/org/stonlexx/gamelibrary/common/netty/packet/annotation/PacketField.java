@@ -0,0 +1,27 @@
+package org.stonlexx.gamelibrary.common.netty.packet.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Поля с этой аннотацией сериализуются кодеком, который
+ * генерируется процессором аннотаций модуля game-library-processor
+ * на этапе компиляции, вместо ручной реализации
+ * {@link org.stonlexx.gamelibrary.common.netty.packet.NettyPacket#writePacket(org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer)}
+ * и {@link org.stonlexx.gamelibrary.common.netty.packet.NettyPacket#readPacket(org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer)}
+ *
+ * Поля записываются в порядке их объявления, начиная
+ * с полей родительских классов. Поле не может быть
+ * private или final, а его значение не может быть null
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PacketField {
+
+    /**
+     * Способ записи значения поля
+     */
+    PacketFieldEncoding value() default PacketFieldEncoding.AUTO;
+}
@@ -0,0 +1,36 @@
+package org.stonlexx.gamelibrary.common.netty.packet.annotation;
+
+/**
+ * Способ записи значения поля с аннотацией {@link PacketField}
+ */
+public enum PacketFieldEncoding {
+
+    /**
+     * Способ выбирается по типу поля: int, long и enum
+     * записываются как varint, String и UUID - своими
+     * способами, остальные примитивы - фиксированной длиной
+     */
+    AUTO,
+
+    /**
+     * Число переменной длины: 1-5 байт для int и short,
+     * 1-10 байт для long, порядковый номер для enum
+     */
+    VARINT,
+
+    /**
+     * Число фиксированной длины, по размеру его типа
+     */
+    FIXED,
+
+    /**
+     * Два long: старшие и младшие биты UUID
+     */
+    UUID,
+
+    /**
+     * Строка в UTF-8 с длиной в начале,
+     * для enum - название константы
+     */
+    STRING
+}
@@ -0,0 +1,25 @@
+package org.stonlexx.gamelibrary.common.netty.packet.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Пакеты с этой аннотацией при декодировании берутся
+ * из пула потока event loop и возвращаются в него после
+ * обработки или после записи энкодером
+ *
+ * Пакет должен наследовать {@link org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket}
+ * и очищать свое состояние в {@link org.stonlexx.gamelibrary.common.netty.packet.NettyPacket#reset()}
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Pooled {
+
+    /**
+     * Максимальное количество пакетов
+     * в пуле одного потока
+     */
+    int maxPerThread() default 1024;
+}
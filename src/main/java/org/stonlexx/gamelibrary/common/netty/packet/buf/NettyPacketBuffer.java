@@ -2,6 +2,7 @@ package org.stonlexx.gamelibrary.common.netty.packet.buf;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.util.ByteProcessor;
 import lombok.RequiredArgsConstructor;
 import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
@@ -25,28 +26,55 @@ public class NettyPacketBuffer extends ByteBuf {
 
     private final ByteBuf byteBuf;
 
+    /**
+     * Записать строку в UTF-8 напрямую в буфер,
+     * без промежуточного массива байтов
+     *
+     * @param string - строка
+     */
     public void writeString(String string) {
         if (string.length() > Short.MAX_VALUE) {
             throw new NettyException(String.format("Cannot send string longer than Short.MAX_VALUE (got %s characters)", string.length()));
         }
 
-        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int utf8Length = ByteBufUtil.utf8Bytes(string);
 
-        writeVarInt(bytes.length);
-        byteBuf.writeBytes(bytes);
+        writeVarInt(utf8Length);
+        ByteBufUtil.reserveAndWriteUtf8(byteBuf, string, utf8Length);
     }
 
+    /**
+     * Прочитать строку в UTF-8 напрямую из буфера,
+     * без промежуточного массива байтов
+     */
     public String readString() {
+        int len = readUtf8Length();
+        String string = byteBuf.toString(byteBuf.readerIndex(), len, StandardCharsets.UTF_8);
+
+        byteBuf.skipBytes(len);
+        return string;
+    }
+
+    /**
+     * Прочитать строку в UTF-8 без ее декодирования
+     *
+     * Возвращает срез байтов строки, который разделяет
+     * память с буфером пакета. Срез необходимо освободить
+     * через release() после использования
+     */
+    public ByteBuf readUtf8View() {
+        return byteBuf.readRetainedSlice(readUtf8Length());
+    }
+
+    private int readUtf8Length() {
         int len = readVarInt();
 
         if (len > Short.MAX_VALUE) {
             throw new NettyException(String.format("Cannot receive string longer than Short.MAX_VALUE (got %s characters)", len));
         }
 
-        byte[] bytes = new byte[len];
-
-        byteBuf.readBytes(bytes);
-        return new String(bytes, StandardCharsets.UTF_8);
+        checkReadableLength(len);
+        return len;
     }
 
     public void writeArray(byte[] bytes) {
@@ -58,6 +86,23 @@ public class NettyPacketBuffer extends ByteBuf {
         byteBuf.writeBytes(bytes);
     }
 
+    /**
+     * Записать массив байтов из другого буфера,
+     * не копируя его в промежуточный массив
+     *
+     * @param bytes - буфер с байтами массива
+     */
+    public void writeArray(ByteBuf bytes) {
+        int len = bytes.readableBytes();
+
+        if (len > Short.MAX_VALUE) {
+            throw new NettyException(String.format("Cannot send byte array longer than Short.MAX_VALUE (got %s bytes)", len));
+        }
+
+        writeVarInt(len);
+        byteBuf.writeBytes(bytes, bytes.readerIndex(), len);
+    }
+
     public byte[] toArray() {
         byte[] ret = new byte[byteBuf.readableBytes()];
         byteBuf.readBytes(ret);
@@ -70,22 +115,63 @@ public class NettyPacketBuffer extends ByteBuf {
     }
 
     public byte[] readArray(int limit) {
+        int len = readArrayLength(limit);
+        byte[] ret = new byte[len];
+
+        byteBuf.readBytes(ret);
+
+        return ret;
+    }
+
+    /**
+     * Прочитать массив байтов без копирования
+     *
+     * Возвращает срез, который разделяет память с буфером
+     * пакета. Срез необходимо освободить через release()
+     * после использования
+     */
+    public ByteBuf readArraySlice() {
+        return readArraySlice(byteBuf.readableBytes());
+    }
+
+    /**
+     * Прочитать массив байтов без копирования
+     *
+     * Возвращает срез, который разделяет память с буфером
+     * пакета. Срез необходимо освободить через release()
+     * после использования
+     *
+     * @param limit - максимальная длина массива
+     */
+    public ByteBuf readArraySlice(int limit) {
+        return byteBuf.readRetainedSlice(readArrayLength(limit));
+    }
+
+    private int readArrayLength(int limit) {
         int len = readVarInt();
 
         if (len > limit) {
             throw new NettyException(String.format("Cannot receive byte array longer than %s (got %s bytes)", limit, len));
         }
 
-        byte[] ret = new byte[len];
+        checkReadableLength(len);
+        return len;
+    }
 
-        byteBuf.readBytes(ret);
+    public void writeVarIntArray(int[] array) {
+        writeVarInt(array.length);
 
-        return ret;
+        for (int value : array) {
+            writeVarInt(value);
+        }
     }
 
     public int[] readVarIntArray() {
         int len = readVarInt();
 
+        // каждый VarInt занимает минимум один байт
+        checkReadableLength(len);
+
         int[] ret = new int[len];
 
         for (int i = 0; i < len; i++) {
@@ -106,6 +192,9 @@ public class NettyPacketBuffer extends ByteBuf {
     public List<String> readStringArray() {
         int len = readVarInt();
 
+        // каждая строка занимает минимум один байт длины
+        checkReadableLength(len);
+
         List<String> ret = new ArrayList<>(len);
 
         for (int i = 0; i < len; i++) {
@@ -115,6 +204,46 @@ public class NettyPacketBuffer extends ByteBuf {
         return ret;
     }
 
+    private void checkReadableLength(int len) {
+        if (len < 0 || len > byteBuf.readableBytes()) {
+            throw new NettyException(String.format("Cannot receive %s bytes, only %s bytes are readable", len, byteBuf.readableBytes()));
+        }
+    }
+
+    /**
+     * Получить количество байтов, которое
+     * займет указанное число в формате VarInt
+     *
+     * @param value - число
+     */
+    public static int getVarIntSize(int value) {
+        if ((value & 0xFFFFFF80) == 0) return 1;
+        if ((value & 0xFFFFC000) == 0) return 2;
+        if ((value & 0xFFE00000) == 0) return 3;
+        if ((value & 0xF0000000) == 0) return 4;
+
+        return 5;
+    }
+
+    /**
+     * Записать VarInt фиксированной ширины: незначащие
+     * байты дополняются битом продолжения, поэтому
+     * место под число можно зарезервировать заранее
+     *
+     * @param byteBuf - буфер
+     * @param index   - позиция записи
+     * @param value   - число
+     * @param width   - ширина в байтах
+     */
+    public static void setPaddedVarInt(ByteBuf byteBuf, int index, int value, int width) {
+        for (int i = 0; i < width - 1; i++) {
+            byteBuf.setByte(index + i, (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        byteBuf.setByte(index + width - 1, value);
+    }
+
     public int readVarInt() {
         int out = 0;
         int bytes = 0;
@@ -215,6 +344,42 @@ public class NettyPacketBuffer extends ByteBuf {
         }
     }
 
+    public long readVarLong() {
+        long out = 0;
+        int bytes = 0;
+
+        byte in;
+
+        do {
+            in = byteBuf.readByte();
+
+            out |= (long) (in & 0x7F) << (bytes++ * 7);
+
+            if (bytes > 10) {
+                throw new RuntimeException("VarLong too big");
+            }
+
+        } while ((in & 0x80) == 0x80);
+
+        return out;
+    }
+
+    public void writeVarLong(long value) {
+        int part;
+
+        do {
+            part = (int) (value & 0x7F);
+
+            value >>>= 7;
+            if (value != 0) {
+                part |= 0x80;
+            }
+
+            byteBuf.writeByte(part);
+
+        } while (value != 0);
+    }
+
     public void writeUUID(UUID value) {
         byteBuf.writeLong(value.getMostSignificantBits());
         byteBuf.writeLong(value.getLeastSignificantBits());
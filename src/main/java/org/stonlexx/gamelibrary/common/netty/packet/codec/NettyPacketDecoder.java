@@ -1,64 +1,99 @@
 package org.stonlexx.gamelibrary.common.netty.packet.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.ReferenceCountUtil;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
-import org.stonlexx.gamelibrary.GameLibrary;
-import org.stonlexx.gamelibrary.common.netty.NettyManager;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
-import org.stonlexx.gamelibrary.common.netty.packet.callback.NettyPacketCallbackHandler;
-import org.stonlexx.gamelibrary.common.netty.packet.callback.impl.EmptyPacketCallbackHandler;
-import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
-import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
-import org.stonlexx.gamelibrary.utility.JsonUtil;
+import org.stonlexx.gamelibrary.common.netty.packet.metrics.NettyPacketMetrics;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketProtocol;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyCorrelatedPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyRequestRegistry;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex;
 
 import java.util.List;
 
+@RequiredArgsConstructor
 public class NettyPacketDecoder
         extends ByteToMessageDecoder {
 
+    private final NettyPacketProtocol packetProtocol;
+
+    private final NettyPacketMetrics packetMetrics = GameLibrary.getInstance().getNettyManager().getPacketMetrics();
+
+
+    public NettyPacketDecoder() {
+        this(new NettyPacketProtocol(NettyPacketHeaderMode.LEGACY));
+    }
+
+    @Override
+    public void channelActive(@NonNull ChannelHandlerContext channelHandlerContext) throws Exception {
+        if (packetProtocol.getHeaderMode() == NettyPacketHeaderMode.COMPACT) {
+            channelHandlerContext.channel().writeAndFlush(packetProtocol.createHandshake(channelHandlerContext.alloc()));
+        }
+
+        super.channelActive(channelHandlerContext);
+    }
+
     @Override
     @SneakyThrows
     protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> handleList) {
         NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(byteBuf);
-        Channel channel = channelHandlerContext.channel();
 
-        String packetIdClassName = nettyPacketBuffer.readString();
-        String packetIdJson = nettyPacketBuffer.readString();
+        boolean metricsEnabled = packetMetrics.isEnabled();
 
-        Class<?> packetIdClass = Class.forName(packetIdClassName);
-        Object nettyPacketId = JsonUtil.fromJson(packetIdJson, packetIdClass);
+        long startTime = metricsEnabled ? System.nanoTime() : 0;
+        int startIndex = byteBuf.readerIndex();
 
-        NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
+        NettyPacketIndex.Entry packetEntry = packetProtocol.readHeader(nettyPacketBuffer);
 
-        NettyPacketTyping nettyPacketTyping
-                = nettyManager.findTypingByNettyPacket(NettyPacketDirection.ONLY_DECODE, nettyPacketId);
+        // пришло рукопожатие с таблицей номеров пакетов
+        if (packetEntry == null) {
+            return;
+        }
 
-        NettyPacket nettyPacket = nettyPacketTyping.getNettyPacket(NettyPacketDirection.ONLY_DECODE, nettyPacketId);
-        boolean hasCallback = nettyPacketBuffer.readBoolean();
+        NettyPacket nettyPacket = packetEntry.createPacket();
+        int requestHeader;
 
-        if (nettyPacket == null) {
-            return;
+        // пакет мог быть взят из пула, поэтому при битом содержимом возвращается в него
+        try {
+            requestHeader = nettyPacketBuffer.readVarInt();
+            packetEntry.readPacket(nettyPacket, nettyPacketBuffer);
+        }
+        catch (RuntimeException exception) {
+            ReferenceCountUtil.release(nettyPacket);
+            throw exception;
         }
 
-        nettyPacket.readPacket(nettyPacketBuffer);
-        handleList.add(nettyPacket);
+        if (metricsEnabled) {
+            packetMetrics.getTypeMetrics(nettyPacket.getClass()).onDecoded(byteBuf.readerIndex() - startIndex, System.nanoTime() - startTime);
+        }
 
+        if (requestHeader == 0) {
+            handleList.add(nettyPacket);
+            return;
+        }
+
+        int requestId = requestHeader >>> 1;
 
-        if (hasCallback) {
-            NettyPacketEncoder.CALLBACK_NETTY_PACKET_CACHE.cleanUp();
-            NettyPacketCallbackHandler nettyPacketCallbackHandler = NettyPacketEncoder.CALLBACK_NETTY_PACKET_CACHE.asMap().get(nettyPacketId);
+        // запрос обрабатывается как обычный пакет, но с номером для ответа
+        if ((requestHeader & 1) == 0) {
+            handleList.add(new NettyCorrelatedPacket(nettyPacket, requestId, false));
+            return;
+        }
 
-            if (nettyPacketCallbackHandler != null && nettyPacketCallbackHandler.isWaitingResponse()) {
-                nettyPacketCallbackHandler.handleCallback(nettyPacket);
-                return;
-            }
+        // ответ уходит напрямую в future запроса, минуя обработчики;
+        // ответ на запрос, который уже завершился по таймауту, выбрасывается
+        NettyRequestRegistry requestRegistry = channelHandlerContext.channel().attr(NettyRequestRegistry.REGISTRY_ATTRIBUTE).get();
 
-            NettyPacketEncoder.CALLBACK_NETTY_PACKET_CACHE.put(nettyPacketId, new EmptyPacketCallbackHandler());
-            channel.writeAndFlush(nettyPacket);
+        if (requestRegistry == null || !requestRegistry.completeRequest(requestId, nettyPacket)) {
+            ReferenceCountUtil.release(nettyPacket);
         }
     }
 
@@ -1,62 +1,254 @@
 package org.stonlexx.gamelibrary.common.netty.packet.codec;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
 import lombok.NonNull;
 import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.netty.NettyManager;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
 import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
-import org.stonlexx.gamelibrary.common.netty.packet.callback.NettyPacketCallbackHandler;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21FrameDecoder;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21LengthFieldEncoder;
+import org.stonlexx.gamelibrary.common.netty.packet.metrics.NettyPacketMetrics;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketHeaderMode;
+import org.stonlexx.gamelibrary.common.netty.packet.protocol.NettyPacketProtocol;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyCorrelatedPacket;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
-import org.stonlexx.gamelibrary.utility.JsonUtil;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
 
 public class NettyPacketEncoder
         extends MessageToByteEncoder<NettyPacket> {
 
-    public static final Cache<Object, NettyPacketCallbackHandler> CALLBACK_NETTY_PACKET_CACHE = CacheBuilder.newBuilder()
-            .expireAfterWrite(1, TimeUnit.SECONDS)
-            .build();
+    /**
+     * Примерный размер заголовка пакета
+     * и номера запроса при выделении буфера
+     */
+    private static final int PACKET_HEADER_ESTIMATE = 16;
+
+
+    private final NettyPacketProtocol packetProtocol;
+
+    /**
+     * Записывать ли длину фрейма в этом же энкодере,
+     * без отдельного {@link Varint21LengthFieldEncoder}
+     */
+    private final boolean prependLength;
+
+    /**
+     * Максимальная ширина заголовка длины фрейма, которую
+     * резервирует энкодер: не шире заголовка, который примет
+     * {@link Varint21FrameDecoder} с той же длиной фрейма
+     */
+    private final int maxReservedLengthWidth;
+
+    private final NettyPacketMetrics packetMetrics = GameLibrary.getInstance().getNettyManager().getPacketMetrics();
+
+    /**
+     * Заголовок запроса пакета, который
+     * кодируется в данный момент
+     */
+    private int requestHeader;
+
+
+    public NettyPacketEncoder() {
+        this(new NettyPacketProtocol(NettyPacketHeaderMode.LEGACY));
+    }
+
+    public NettyPacketEncoder(@NonNull NettyPacketProtocol packetProtocol) {
+        this(packetProtocol, false);
+    }
+
+    public NettyPacketEncoder(@NonNull NettyPacketProtocol packetProtocol, boolean prependLength) {
+        this(packetProtocol, prependLength, Varint21FrameDecoder.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * @param packetProtocol - протокол заголовков пакетов
+     * @param prependLength  - записывать ли длину фрейма в этом энкодере
+     * @param maxFrameLength - максимальная длина фрейма канала в байтах
+     */
+    public NettyPacketEncoder(@NonNull NettyPacketProtocol packetProtocol, boolean prependLength, int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be positive (got " + maxFrameLength + ")");
+        }
+
+        this.packetProtocol = packetProtocol;
+        this.prependLength = prependLength;
+        this.maxReservedLengthWidth = NettyPacketBuffer.getVarIntSize(maxFrameLength);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext channelHandlerContext, Object message, ChannelPromise channelPromise) throws Exception {
+
+        // сырые байты (например рукопожатие) тоже нужно обернуть во фрейм
+        if (prependLength && message instanceof ByteBuf) {
+            ByteBuf byteBuf = (ByteBuf) message;
+
+            try {
+                int length = byteBuf.readableBytes();
+                ByteBuf frameBuf = channelHandlerContext.alloc().ioBuffer(NettyPacketBuffer.getVarIntSize(length) + length);
+
+                new NettyPacketBuffer(frameBuf).writeVarInt(length);
+                frameBuf.writeBytes(byteBuf, byteBuf.readerIndex(), length);
+
+                channelHandlerContext.write(frameBuf, channelPromise);
+            }
+            finally {
+                ReferenceCountUtil.release(byteBuf);
+            }
+
+            return;
+        }
+
+        // запрос или ответ кодируется как обычный пакет, но со своим номером
+        if (message instanceof NettyCorrelatedPacket) {
+            NettyCorrelatedPacket correlatedPacket = (NettyCorrelatedPacket) message;
+            this.requestHeader = correlatedPacket.getRequestHeader();
+
+            try {
+                super.write(channelHandlerContext, correlatedPacket.getPacket(), channelPromise);
+            }
+            finally {
+                this.requestHeader = 0;
+            }
+
+            return;
+        }
+
+        super.write(channelHandlerContext, message, channelPromise);
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext channelHandlerContext, NettyPacket nettyPacket, boolean preferDirect) throws Exception {
+        if (nettyPacket.estimatedSize() < 0) {
+            return super.allocateBuffer(channelHandlerContext, nettyPacket, preferDirect);
+        }
+
+        return allocateFrameBuffer(channelHandlerContext.alloc(), nettyPacket, preferDirect);
+    }
 
     @Override
     protected void encode(ChannelHandlerContext channelHandlerContext, NettyPacket nettyPacket, ByteBuf byteBuf) {
-        NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
-        NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(byteBuf);
+        encodeFrame(channelHandlerContext.alloc(), nettyPacket, byteBuf, requestHeader);
+    }
 
-        Object nettyPacketId = nettyManager.getNettyPacketId(NettyPacketDirection.ONLY_ENCODE, nettyPacket.getClass());
-        if (nettyPacketId == null) {
-            throw new NullPointerException("Packet " + nettyPacket.getClass().getSimpleName() + " is not registered!");
+    /**
+     * Закодировать пакет в отдельный буфер точно так же,
+     * как его закодирует этот энкодер при записи в канал
+     *
+     * Полученный буфер можно отправить сразу нескольким каналам
+     * с одинаковым {@link #getFrameKey(Object)} через контекст
+     * энкодера, минуя повторное кодирование
+     *
+     * @param byteBufAllocator - аллокатор буфера
+     * @param nettyPacket      - пакет
+     */
+    public ByteBuf encodeFrame(@NonNull ByteBufAllocator byteBufAllocator, @NonNull NettyPacket nettyPacket) {
+        ByteBuf frameBuf = allocateFrameBuffer(byteBufAllocator, nettyPacket, true);
+
+        try {
+            encodeFrame(byteBufAllocator, nettyPacket, frameBuf, 0);
+            return frameBuf;
+        }
+        catch (RuntimeException exception) {
+            frameBuf.release();
+            throw exception;
+        }
+    }
+
+    /**
+     * Получить ключ байтового представления пакета: энкодеры
+     * с равными ключами записывают пакет в одинаковые байты
+     *
+     * @param nettyPacketId - номер пакета
+     */
+    public Object getFrameKey(@NonNull Object nettyPacketId) {
+        return Arrays.asList(prependLength, maxReservedLengthWidth, packetProtocol.getHeaderMode(), packetProtocol.getRemotePacketIds().get(nettyPacketId));
+    }
+
+    private ByteBuf allocateFrameBuffer(ByteBufAllocator byteBufAllocator, NettyPacket nettyPacket, boolean preferDirect) {
+        int estimatedSize = nettyPacket.estimatedSize();
+        int initialCapacity = estimatedSize < 0 ? 256 : maxReservedLengthWidth + PACKET_HEADER_ESTIMATE + estimatedSize;
+
+        return preferDirect ? byteBufAllocator.ioBuffer(initialCapacity) : byteBufAllocator.heapBuffer(initialCapacity);
+    }
+
+    private void encodeFrame(ByteBufAllocator byteBufAllocator, NettyPacket nettyPacket, ByteBuf byteBuf, int requestHeader) {
+        if (!prependLength) {
+            encodePacket(nettyPacket, byteBuf, requestHeader);
+            return;
         }
 
-        nettyPacketBuffer.writeString(nettyPacketId.getClass().getName());
-        nettyPacketBuffer.writeString(JsonUtil.toJson(nettyPacketId));
+        // место под длину фрейма резервируется заранее, а сама
+        // длина дописывается после пакета, без копирования тела
+        int frameIndex = byteBuf.writerIndex();
+        int estimatedSize = nettyPacket.estimatedSize();
+
+        int reservedWidth = estimatedSize < 0 ? 1 : Math.min(NettyPacketBuffer.getVarIntSize(PACKET_HEADER_ESTIMATE + estimatedSize), maxReservedLengthWidth);
+
+        byteBuf.writerIndex(frameIndex + reservedWidth);
+        encodePacket(nettyPacket, byteBuf, requestHeader);
+
+        int bodyLength = byteBuf.writerIndex() - frameIndex - reservedWidth;
+
+        if (NettyPacketBuffer.getVarIntSize(bodyLength) <= reservedWidth) {
+            NettyPacketBuffer.setPaddedVarInt(byteBuf, frameIndex, bodyLength, reservedWidth);
+            return;
+        }
+
+        // размер пакета оказался больше ожидаемого, тело
+        // приходится один раз сдвинуть под длинный заголовок
+        ByteBuf bodyBuf = byteBufAllocator.buffer(bodyLength);
+
+        try {
+            bodyBuf.writeBytes(byteBuf, frameIndex + reservedWidth, bodyLength);
+            byteBuf.writerIndex(frameIndex);
 
-        sendCallback(nettyPacketId, nettyPacketBuffer);
-        nettyPacket.writePacket(nettyPacketBuffer);
+            new NettyPacketBuffer(byteBuf).writeVarInt(bodyLength);
+            byteBuf.writeBytes(bodyBuf);
+        }
+        finally {
+            bodyBuf.release();
+        }
     }
 
     /**
-     * Проверить и установить разрешение на callback
+     * Записать заголовок и содержимое пакета
      *
-     * @param nettyPacketId - номер callback пакета
-     * @param nettyPacketBuffer - обработчик байтов пакета
+     * @param nettyPacket   - пакет
+     * @param byteBuf       - буфер, в который записывается пакет
+     * @param requestHeader - заголовок запроса, 0 - пакет не относится к запросу
      */
-    protected void sendCallback(@NonNull Object nettyPacketId,
-                                 @NonNull NettyPacketBuffer nettyPacketBuffer) {
+    protected void encodePacket(@NonNull NettyPacket nettyPacket, @NonNull ByteBuf byteBuf, int requestHeader) {
+        NettyManager nettyManager = GameLibrary.getInstance().getNettyManager();
+        NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(byteBuf);
+
+        boolean metricsEnabled = packetMetrics.isEnabled();
 
-        NettyPacketCallbackHandler<?> nettyPacketCallbackHandler = CALLBACK_NETTY_PACKET_CACHE.asMap().get(nettyPacketId);
-        boolean hasCallback = nettyPacketCallbackHandler != null;
+        long startTime = metricsEnabled ? System.nanoTime() : 0;
+        int startIndex = byteBuf.writerIndex();
 
-        if (hasCallback) {
-            nettyPacketCallbackHandler.waitCallbackResponse();
+        NettyPacketIndex.Entry packetEntry = nettyManager.findPacketEntry(NettyPacketDirection.ONLY_ENCODE, nettyPacket.getClass());
+        if (packetEntry == null) {
+            throw new NullPointerException("Packet " + nettyPacket.getClass().getSimpleName() + " is not registered!");
         }
 
-        nettyPacketBuffer.writeBoolean(hasCallback);
+        Object nettyPacketId = packetEntry.getPacketId();
+
+        packetProtocol.writeHeader(nettyPacketBuffer, nettyPacketId);
+
+        nettyPacketBuffer.writeVarInt(requestHeader);
+        packetEntry.writePacket(nettyPacket, nettyPacketBuffer);
+
+        if (metricsEnabled) {
+            packetMetrics.getTypeMetrics(nettyPacket.getClass()).onEncoded(byteBuf.writerIndex() - startIndex, System.nanoTime() - startTime);
+        }
     }
 
 }
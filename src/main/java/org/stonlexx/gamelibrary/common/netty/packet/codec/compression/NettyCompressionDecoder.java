@@ -0,0 +1,109 @@
+package org.stonlexx.gamelibrary.common.netty.packet.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import lombok.Getter;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Распаковка пакетов, сжатых {@link NettyCompressionEncoder}
+ *
+ * Стоит в pipeline сразу после декодера фреймов. Длина
+ * пакета до сжатия проверяется еще до распаковки, поэтому
+ * пакет не может развернуться больше допустимого размера
+ */
+public class NettyCompressionDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    /**
+     * Максимальный размер пакета
+     * после распаковки в байтах
+     */
+    @Getter
+    private final int maxDecompressedLength;
+
+    private final Inflater inflater = new Inflater();
+
+
+    /**
+     * @param maxDecompressedLength - максимальный размер пакета после распаковки в байтах
+     */
+    public NettyCompressionDecoder(int maxDecompressedLength) {
+        if (maxDecompressedLength <= 0) {
+            throw new IllegalArgumentException("maxDecompressedLength must be positive (got " + maxDecompressedLength + ")");
+        }
+
+        this.maxDecompressedLength = maxDecompressedLength;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> handleList) throws Exception {
+        int decompressedLength = new NettyPacketBuffer(byteBuf).readVarInt();
+
+        // пакет меньше порога сжатия пришел как есть
+        if (decompressedLength == 0) {
+            handleList.add(byteBuf.retain());
+            return;
+        }
+
+        if (decompressedLength < 0 || decompressedLength > maxDecompressedLength) {
+            throw new TooLongFrameException(String.format("Decompressed packet length %s exceeds %s bytes", decompressedLength, maxDecompressedLength));
+        }
+
+        int length = byteBuf.readableBytes();
+
+        ByteBuf heapBuf = byteBuf.hasArray() ? byteBuf : channelHandlerContext.alloc().heapBuffer(length).writeBytes(byteBuf, byteBuf.readerIndex(), length);
+        ByteBuf decompressedBuf = channelHandlerContext.alloc().heapBuffer(decompressedLength, decompressedLength);
+
+        try {
+            inflater.setInput(heapBuf.array(), heapBuf.arrayOffset() + heapBuf.readerIndex(), length);
+
+            while (decompressedBuf.isWritable() && !inflater.finished()) {
+                int inflatedLength = inflater.inflate(decompressedBuf.array(), decompressedBuf.arrayOffset() + decompressedBuf.writerIndex(), decompressedBuf.writableBytes());
+
+                if (inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                decompressedBuf.writerIndex(decompressedBuf.writerIndex() + inflatedLength);
+            }
+
+            // размер после распаковки обязан совпасть с заявленным
+            if (decompressedBuf.isWritable() || !inflater.finished()) {
+                throw new CorruptedFrameException(String.format("Badly compressed packet: declared %s bytes", decompressedLength));
+            }
+
+            byteBuf.skipBytes(length);
+
+            handleList.add(decompressedBuf);
+            decompressedBuf = null;
+        }
+        catch (DataFormatException exception) {
+            throw new CorruptedFrameException("Badly compressed packet", exception);
+        }
+        finally {
+            inflater.reset();
+
+            if (decompressedBuf != null) {
+                decompressedBuf.release();
+            }
+
+            if (heapBuf != byteBuf) {
+                heapBuf.release();
+            }
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext channelHandlerContext) throws Exception {
+        inflater.end();
+        super.handlerRemoved(channelHandlerContext);
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.stonlexx.gamelibrary.common.netty.packet.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import lombok.Getter;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.frame.Varint21FrameDecoder;
+
+import java.util.zip.Deflater;
+
+/**
+ * Сжатие пакетов перед отправкой в сокет
+ *
+ * Каждый пакет записывается во фрейм вида: длина фрейма,
+ * длина пакета до сжатия и тело пакета. Пакеты меньше порога
+ * не сжимаются, а вместо их длины записывается 0.
+ * Энкодер сам записывает длину фрейма, поэтому стоит
+ * в pipeline перед энкодером пакетов без prependLength
+ */
+public class NettyCompressionEncoder extends MessageToByteEncoder<ByteBuf> {
+
+    /**
+     * Минимальный размер пакета в байтах,
+     * начиная с которого он сжимается
+     */
+    @Getter
+    private final int compressionThreshold;
+
+    private final Deflater deflater;
+
+    /**
+     * Ширина длины фрейма, которую резервирует энкодер: не
+     * шире заголовка, который примет {@link Varint21FrameDecoder}
+     * с той же максимальной длиной фрейма
+     */
+    private final int reservedLengthWidth;
+
+
+    /**
+     * @param compressionThreshold - минимальный размер сжимаемого пакета в байтах
+     * @param compressionLevel     - уровень сжатия {@link Deflater}
+     */
+    public NettyCompressionEncoder(int compressionThreshold, int compressionLevel) {
+        this(compressionThreshold, compressionLevel, Varint21FrameDecoder.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * @param compressionThreshold - минимальный размер сжимаемого пакета в байтах
+     * @param compressionLevel     - уровень сжатия {@link Deflater}
+     * @param maxFrameLength       - максимальная длина фрейма канала в байтах
+     */
+    public NettyCompressionEncoder(int compressionThreshold, int compressionLevel, int maxFrameLength) {
+        super(ByteBuf.class);
+
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be positive (got " + maxFrameLength + ")");
+        }
+
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compressionThreshold must not be negative (got " + compressionThreshold + ")");
+        }
+
+        this.compressionThreshold = compressionThreshold;
+        this.deflater = new Deflater(compressionLevel);
+        this.reservedLengthWidth = NettyPacketBuffer.getVarIntSize(maxFrameLength);
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, boolean preferDirect) {
+        int length = byteBuf.readableBytes();
+
+        // Deflater пишет только в массив, поэтому сжатый фрейм собирается в heap буфере
+        if (length < compressionThreshold) {
+            return channelHandlerContext.alloc().ioBuffer(reservedLengthWidth + 1 + length);
+        }
+
+        return channelHandlerContext.alloc().heapBuffer(reservedLengthWidth + 5 + (length >>> 1));
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, ByteBuf frameBuf) {
+        int length = byteBuf.readableBytes();
+        int frameIndex = frameBuf.writerIndex();
+
+        frameBuf.writerIndex(frameIndex + reservedLengthWidth);
+        NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(frameBuf);
+
+        if (length < compressionThreshold) {
+            nettyPacketBuffer.writeVarInt(0);
+            frameBuf.writeBytes(byteBuf);
+
+        } else {
+
+            nettyPacketBuffer.writeVarInt(length);
+            deflate(channelHandlerContext, byteBuf, frameBuf);
+        }
+
+        int frameLength = frameBuf.writerIndex() - frameIndex - reservedLengthWidth;
+
+        if (NettyPacketBuffer.getVarIntSize(frameLength) <= reservedLengthWidth) {
+            NettyPacketBuffer.setPaddedVarInt(frameBuf, frameIndex, frameLength, reservedLengthWidth);
+            return;
+        }
+
+        // фрейм не уместился в зарезервированную длину,
+        // тело приходится один раз сдвинуть под длинный заголовок
+        ByteBuf bodyBuf = channelHandlerContext.alloc().buffer(frameLength);
+
+        try {
+            bodyBuf.writeBytes(frameBuf, frameIndex + reservedLengthWidth, frameLength);
+            frameBuf.writerIndex(frameIndex);
+
+            nettyPacketBuffer.writeVarInt(frameLength);
+            frameBuf.writeBytes(bodyBuf);
+        }
+        finally {
+            bodyBuf.release();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext channelHandlerContext) throws Exception {
+        deflater.end();
+        super.handlerRemoved(channelHandlerContext);
+    }
+
+    private void deflate(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, ByteBuf frameBuf) {
+        int length = byteBuf.readableBytes();
+        ByteBuf heapBuf = byteBuf.hasArray() ? byteBuf : channelHandlerContext.alloc().heapBuffer(length).writeBytes(byteBuf, byteBuf.readerIndex(), length);
+
+        try {
+            deflater.setInput(heapBuf.array(), heapBuf.arrayOffset() + heapBuf.readerIndex(), length);
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                frameBuf.ensureWritable(Math.max(64, length >>> 2));
+
+                int deflatedLength = deflater.deflate(frameBuf.array(), frameBuf.arrayOffset() + frameBuf.writerIndex(), frameBuf.writableBytes());
+                frameBuf.writerIndex(frameBuf.writerIndex() + deflatedLength);
+            }
+
+            byteBuf.skipBytes(length);
+        }
+        finally {
+            deflater.reset();
+
+            if (heapBuf != byteBuf) {
+                heapBuf.release();
+            }
+        }
+    }
+
+}
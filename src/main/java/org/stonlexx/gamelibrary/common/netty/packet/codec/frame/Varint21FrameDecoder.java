@@ -1,75 +1,98 @@
 package org.stonlexx.gamelibrary.common.netty.packet.codec.frame;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+import lombok.Getter;
 import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
 
 import java.util.List;
 
+@Getter
 public class Varint21FrameDecoder extends ByteToMessageDecoder {
 
-    private static boolean DIRECT_WARNING;
+    /**
+     * Максимальная длина фрейма по умолчанию,
+     * которая умещается в 21-битный VarInt
+     */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = (1 << 21) - 1;
 
-    @Override
-    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> list) {
-        byteBuf.markReaderIndex();
-        NettyPacketBuffer channelPacketBuffer = new NettyPacketBuffer(byteBuf);
-
-        final byte[] buf = new byte[3];
-
-        for (int i = 0; i < buf.length; i++) {
-
-            if (!byteBuf.isReadable()) {
-                byteBuf.resetReaderIndex();
-
-                return;
-            }
-
-            buf[i] = byteBuf.readByte();
 
-            if (buf[i] >= 0) {
+    private final int maxFrameLength;
+    private final int maxHeaderLength;
 
-                int length = channelPacketBuffer.readVarInt(Unpooled.wrappedBuffer(buf));
 
-                if (length == 0) {
-                    throw new CorruptedFrameException("Empty Packet!");
-                }
+    public Varint21FrameDecoder() {
+        this(DEFAULT_MAX_FRAME_LENGTH);
+    }
 
-                if (byteBuf.readableBytes() < length) {
-                    byteBuf.resetReaderIndex();
+    /**
+     * @param maxFrameLength - максимальная длина фрейма в байтах,
+     *                         фреймы длиннее будут отклонены еще
+     *                         до чтения их содержимого
+     */
+    public Varint21FrameDecoder(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be positive (got " + maxFrameLength + ")");
+        }
 
-                    return;
+        this.maxFrameLength = maxFrameLength;
+        this.maxHeaderLength = NettyPacketBuffer.getVarIntSize(maxFrameLength);
+    }
 
-                } else {
+    @Override
+    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> list) {
+        int readerIndex = byteBuf.readerIndex();
+        int writerIndex = byteBuf.writerIndex();
 
-                    if (byteBuf.hasMemoryAddress()) {
+        int length = 0;
+        int headerLength = 0;
 
-                        list.add(byteBuf.slice(byteBuf.readerIndex(), length).retain());
+        byte in;
 
-                        byteBuf.skipBytes(length);
+        // длина читается прямо из буфера без сдвига readerIndex,
+        // пока весь заголовок фрейма не будет получен
+        do {
+            if (headerLength == maxHeaderLength) {
+                discardFrames(channelHandlerContext, byteBuf);
+                throw new CorruptedFrameException(String.format("length wider than %s bytes", maxHeaderLength));
+            }
 
-                    } else {
+            if (readerIndex + headerLength >= writerIndex) {
+                return;
+            }
 
-                        if (!DIRECT_WARNING) {
-                            DIRECT_WARNING = true;
+            in = byteBuf.getByte(readerIndex + headerLength);
+            length |= (in & 0x7F) << (headerLength++ * 7);
 
-                            System.out.println("Netty is not using direct IO buffers.");
-                        }
+            // старшие байты длины только увеличивают ее, поэтому
+            // слишком длинный фрейм отклоняется еще по неполному заголовку
+            if (length < 0 || length > maxFrameLength) {
+                discardFrames(channelHandlerContext, byteBuf);
+                throw new TooLongFrameException(String.format("Frame length exceeds %s bytes", maxFrameLength));
+            }
 
-                        ByteBuf dst = channelHandlerContext.alloc().directBuffer(length);
+        } while (in < 0);
 
-                        byteBuf.readBytes(dst);
+        if (length == 0) {
+            throw new CorruptedFrameException("Empty Packet!");
+        }
 
-                        list.add(dst);
-                    }
-                    return;
-                }
-            }
+        if (writerIndex - readerIndex - headerLength < length) {
+            return;
         }
 
-        throw new CorruptedFrameException("length wider than 21-bit");
+        byteBuf.skipBytes(headerLength);
+        list.add(byteBuf.readRetainedSlice(length));
     }
+
+    private void discardFrames(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf) {
+        // после битого заголовка границы фреймов потеряны,
+        // поэтому оставшиеся байты не копятся, а канал закрывается
+        byteBuf.skipBytes(byteBuf.readableBytes());
+        channelHandlerContext.close();
+    }
+
 }
@@ -0,0 +1,40 @@
+package org.stonlexx.gamelibrary.common.netty.packet.codec.generated;
+
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+
+/**
+ * Кодек полей пакета, сгенерированный на этапе компиляции
+ * для полей с аннотацией {@link org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketField}
+ *
+ * Энкодер и декодер используют кодек вместо
+ * {@link NettyPacket#writePacket(NettyPacketBuffer)} и
+ * {@link NettyPacket#readPacket(NettyPacketBuffer)}, если он
+ * найден в {@link NettyPacketCodecRegistry}
+ *
+ * @param <P> - класс пакета
+ */
+public interface NettyPacketCodec<P extends NettyPacket> {
+
+    /**
+     * Получить класс пакета, который
+     * обслуживает этот кодек
+     */
+    Class<P> getPacketClass();
+
+    /**
+     * Записать поля пакета в буфер
+     *
+     * @param nettyPacket       - пакет
+     * @param nettyPacketBuffer - хранилище байтов
+     */
+    void write(P nettyPacket, NettyPacketBuffer nettyPacketBuffer);
+
+    /**
+     * Прочитать поля пакета из буфера
+     *
+     * @param nettyPacket       - пакет
+     * @param nettyPacketBuffer - хранилище байтов
+     */
+    void read(P nettyPacket, NettyPacketBuffer nettyPacketBuffer);
+}
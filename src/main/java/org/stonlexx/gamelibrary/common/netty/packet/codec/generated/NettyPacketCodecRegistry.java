@@ -0,0 +1,114 @@
+package org.stonlexx.gamelibrary.common.netty.packet.codec.generated;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Реестр сгенерированных кодеков пакетов
+ *
+ * Процессор аннотаций перечисляет кодеки в
+ * META-INF/services, откуда они загружаются один раз
+ * при первом обращении к реестру. Кодек привязывается к
+ * записи {@link org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex}
+ * при ее сборке, поэтому при кодировании пакетов
+ * поиск по реестру и рефлексия не используются
+ */
+@UtilityClass
+public class NettyPacketCodecRegistry {
+
+    /**
+     * Кодеки впервые загружаются еще при создании {@link org.stonlexx.gamelibrary.GameLibrary},
+     * когда его логгер недоступен, поэтому реестр пишет в свой
+     */
+    private final Logger LOGGER = Logger.getLogger(NettyPacketCodecRegistry.class.getName());
+
+    private final Map<Class<? extends NettyPacket>, NettyPacketCodec<?>> CODEC_MAP = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+
+    /**
+     * Получить кодек пакета, null,
+     * если для пакета он не сгенерирован
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends NettyPacket> NettyPacketCodec<P> getCodec(@NonNull Class<P> nettyPacketClass) {
+        if (!loaded) {
+            loadDefaultCodecs();
+        }
+
+        return (NettyPacketCodec<P>) CODEC_MAP.get(nettyPacketClass);
+    }
+
+    /**
+     * Зарегистрировать кодек пакета вручную
+     *
+     * @param nettyPacketCodec - кодек пакета
+     */
+    public void registerCodec(@NonNull NettyPacketCodec<?> nettyPacketCodec) {
+        NettyPacketTyping.getPacketIndex().update(() -> CODEC_MAP.put(nettyPacketCodec.getPacketClass(), nettyPacketCodec));
+    }
+
+    /**
+     * Загрузить кодеки, сгенерированные в классах
+     * указанного загрузчика, например загрузчика плагина
+     *
+     * @param classLoader - загрузчик классов
+     */
+    public void loadCodecs(@NonNull ClassLoader classLoader) {
+        NettyPacketTyping.getPacketIndex().update(() -> loadServices(classLoader));
+    }
+
+
+    private synchronized void loadDefaultCodecs() {
+        if (loaded) {
+            return;
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        if (contextClassLoader != null) {
+            loadServices(contextClassLoader);
+        }
+
+        loadServices(NettyPacketCodecRegistry.class.getClassLoader());
+        loaded = true;
+    }
+
+    private void loadServices(ClassLoader classLoader) {
+        // у класса кодека нет параметризованного литерала
+        @SuppressWarnings("unchecked")
+        ServiceLoader<NettyPacketCodec<?>> serviceLoader = (ServiceLoader<NettyPacketCodec<?>>) (ServiceLoader<?>) ServiceLoader.load(NettyPacketCodec.class, classLoader);
+
+        Iterator<NettyPacketCodec<?>> codecIterator = serviceLoader.iterator();
+
+        while (true) {
+            try {
+                if (!codecIterator.hasNext()) {
+                    return;
+                }
+
+                NettyPacketCodec<?> nettyPacketCodec = codecIterator.next();
+                CODEC_MAP.putIfAbsent(nettyPacketCodec.getPacketClass(), nettyPacketCodec);
+            }
+
+            // кодек удаленного пакета, оставшийся в META-INF/services
+            // после инкрементальной сборки, пакет пишется по-старому
+            catch (ServiceConfigurationError error) {
+                LOGGER.warning("Skipped generated NettyPacket codec: " + error.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.stonlexx.gamelibrary.common.netty.packet.handler;
+
+/**
+ * Где обрабатываются пришедшие пакеты
+ */
+public enum NettyDispatchMode {
+
+    /**
+     * Прямо в потоке event loop канала: самый быстрый
+     * режим, но долгая обработка одного пакета
+     * задерживает все каналы этого потока
+     */
+    EVENT_LOOP,
+
+    /**
+     * В общем пуле потоков, пакеты одного
+     * подключения обрабатываются по очереди
+     */
+    ORDERED_POOL,
+
+    /**
+     * В исполнителе, указанном в аннотации
+     * {@link org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketExecutor}
+     * класса пакета, пакеты без аннотации обрабатываются
+     * в потоке event loop
+     */
+    PACKET_EXECUTOR,
+}
@@ -0,0 +1,93 @@
+package org.stonlexx.gamelibrary.common.netty.packet.handler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики обработки пакетов одного режима
+ * {@link NettyDispatchMode} по всем каналам
+ */
+public final class NettyDispatchStatistics {
+
+    private final AtomicInteger queueDepth          = new AtomicInteger();
+
+    private final LongAdder handledCount            = new LongAdder();
+    private final LongAdder failedCount             = new LongAdder();
+
+    private final LongAdder waitNanos               = new LongAdder();
+    private final LongAdder handleNanos             = new LongAdder();
+    private final LongAccumulator maxHandleNanos    = new LongAccumulator(Math::max, 0);
+
+
+    /**
+     * Получить количество пакетов, которые
+     * ждут своей обработки прямо сейчас
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Получить количество обработанных пакетов
+     */
+    public long getHandledCount() {
+        return handledCount.sum();
+    }
+
+    /**
+     * Получить количество пакетов, обработка
+     * которых завершилась исключением
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Получить среднее время ожидания пакета
+     * в очереди до начала обработки в наносекундах
+     */
+    public long getAverageWaitNanos() {
+        long handledCount = getHandledCount();
+        return handledCount == 0 ? 0 : waitNanos.sum() / handledCount;
+    }
+
+    /**
+     * Получить среднее время обработки
+     * пакета в наносекундах
+     */
+    public long getAverageHandleNanos() {
+        long handledCount = getHandledCount();
+        return handledCount == 0 ? 0 : handleNanos.sum() / handledCount;
+    }
+
+    /**
+     * Получить максимальное время обработки
+     * пакета в наносекундах
+     */
+    public long getMaxHandleNanos() {
+        return maxHandleNanos.get();
+    }
+
+
+    void onQueued() {
+        queueDepth.incrementAndGet();
+    }
+
+    void onDequeued(long waitNanos) {
+        queueDepth.decrementAndGet();
+        this.waitNanos.add(waitNanos);
+    }
+
+    void onHandled(long handleNanos, boolean failed) {
+        handledCount.increment();
+
+        if (failed) {
+            failedCount.increment();
+        }
+
+        this.handleNanos.add(handleNanos);
+        maxHandleNanos.accumulate(handleNanos);
+    }
+
+}
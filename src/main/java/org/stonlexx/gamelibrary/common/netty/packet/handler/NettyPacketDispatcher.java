@@ -0,0 +1,127 @@
+package org.stonlexx.gamelibrary.common.netty.packet.handler;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketExecutor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Исполнители, в которых обрабатываются пакеты
+ * вне потока event loop, и счетчики их обработки
+ */
+public final class NettyPacketDispatcher {
+
+    /**
+     * Количество потоков общего пула
+     * режима {@link NettyDispatchMode#ORDERED_POOL}
+     */
+    @Getter
+    @Setter
+    private int poolThreads = Runtime.getRuntime().availableProcessors();
+
+    private ExecutorService sharedPool;
+
+    private final Map<String, Executor> executorMap = new ConcurrentHashMap<>();
+    private final Map<NettyDispatchMode, NettyDispatchStatistics> statisticsMap = new EnumMap<>(NettyDispatchMode.class);
+
+    private final ClassValue<String> executorNameCache = new ClassValue<String>() {
+
+        @Override
+        protected String computeValue(Class<?> packetClass) {
+            PacketExecutor packetExecutor = packetClass.getAnnotation(PacketExecutor.class);
+            return packetExecutor == null ? null : packetExecutor.value();
+        }
+    };
+
+
+    {
+        for (NettyDispatchMode dispatchMode : NettyDispatchMode.values()) {
+            statisticsMap.put(dispatchMode, new NettyDispatchStatistics());
+        }
+    }
+
+    /**
+     * Зарегистрировать исполнитель для пакетов с аннотацией
+     * {@link PacketExecutor}, например однопоточный исполнитель
+     * для всех запросов к базе данных
+     *
+     * @param executorName - название исполнителя из аннотации
+     * @param executor     - исполнитель
+     */
+    public void registerExecutor(@NonNull String executorName, @NonNull Executor executor) {
+        executorMap.put(executorName, executor);
+    }
+
+    /**
+     * Получить зарегистрированный исполнитель
+     *
+     * @param executorName - название исполнителя
+     */
+    public Executor getExecutor(@NonNull String executorName) {
+        Executor executor = executorMap.get(executorName);
+
+        if (executor == null) {
+            throw new NettyException(String.format("Packet executor %s is not registered", executorName));
+        }
+
+        return executor;
+    }
+
+    /**
+     * Получить название исполнителя из аннотации
+     * {@link PacketExecutor} класса пакета,
+     * null - если аннотации нет
+     *
+     * @param packetClass - класс пакета
+     */
+    public String getExecutorName(@NonNull Class<?> packetClass) {
+        return executorNameCache.get(packetClass);
+    }
+
+    /**
+     * Получить (или создать) общий пул потоков
+     * режима {@link NettyDispatchMode#ORDERED_POOL}
+     */
+    public synchronized Executor getSharedPool() {
+        if (sharedPool == null) {
+            sharedPool = Executors.newFixedThreadPool(Math.max(1, poolThreads), new DefaultThreadFactory("netty-packet-handler", true));
+        }
+
+        return sharedPool;
+    }
+
+    /**
+     * Получить счетчики обработки пакетов
+     * в указанном режиме
+     *
+     * Пакеты, обработанные прямо в потоке event loop,
+     * учитываются в {@link NettyDispatchMode#EVENT_LOOP}
+     * независимо от режима канала
+     *
+     * @param dispatchMode - режим обработки пакетов
+     */
+    public NettyDispatchStatistics getStatistics(@NonNull NettyDispatchMode dispatchMode) {
+        return statisticsMap.get(dispatchMode);
+    }
+
+    /**
+     * Остановить общий пул потоков, зарегистрированные
+     * исполнители останавливает их владелец
+     */
+    public synchronized void shutdown() {
+        if (sharedPool != null) {
+            sharedPool.shutdown();
+            sharedPool = null;
+        }
+    }
+
+}
@@ -1,14 +1,178 @@
 package org.stonlexx.gamelibrary.common.netty.packet.handler;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.ReferenceCountUtil;
+import lombok.Getter;
+import lombok.NonNull;
+import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.metrics.NettyPacketMetrics;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyCorrelatedPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.request.NettyRequestRegistry;
 
-public class NettyPacketHandler extends SimpleChannelInboundHandler<NettyPacket> {
+import java.nio.channels.ClosedChannelException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+public class NettyPacketHandler extends SimpleChannelInboundHandler<Object> {
+
+    @Getter
+    private final NettyDispatchMode dispatchMode;
+
+    private final NettyPacketDispatcher packetDispatcher = GameLibrary.getInstance().getNettyManager().getPacketDispatcher();
+    private final NettyPacketMetrics packetMetrics = GameLibrary.getInstance().getNettyManager().getPacketMetrics();
+
+    private NettySerialExecutor orderedExecutor;
+    private final Map<String, NettySerialExecutor> packetExecutorMap = new HashMap<>();
+
+
+    public NettyPacketHandler() {
+        this(NettyDispatchMode.EVENT_LOOP);
+    }
+
+    /**
+     * @param dispatchMode - где обрабатываются пришедшие пакеты
+     */
+    public NettyPacketHandler(@NonNull NettyDispatchMode dispatchMode) {
+        // пакет освобождается после обработки, которая может быть в другом потоке
+        super(false);
+
+        this.dispatchMode = dispatchMode;
+    }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext channelHandlerContext, NettyPacket nettyPacket) {
-        nettyPacket.handle(channelHandlerContext.channel());
+    public boolean acceptInboundMessage(Object message) {
+        return message instanceof NettyPacket || message instanceof NettyCorrelatedPacket;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext channelHandlerContext, Object message) {
+        Executor executor = getExecutor(message);
+
+        if (executor == null) {
+            handleMessage(channelHandlerContext.channel(), message, packetDispatcher.getStatistics(NettyDispatchMode.EVENT_LOOP));
+            return;
+        }
+
+        NettyDispatchStatistics dispatchStatistics = packetDispatcher.getStatistics(dispatchMode);
+        long queuedTime = System.nanoTime();
+
+        dispatchStatistics.onQueued();
+
+        try {
+            executor.execute(() -> {
+                dispatchStatistics.onDequeued(System.nanoTime() - queuedTime);
+                handleMessage(channelHandlerContext.channel(), message, dispatchStatistics);
+            });
+        }
+        catch (RuntimeException exception) {
+            dispatchStatistics.onDequeued(System.nanoTime() - queuedTime);
+            ReferenceCountUtil.release(message);
+
+            throw exception;
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext channelHandlerContext) throws Exception {
+        NettyRequestRegistry requestRegistry = channelHandlerContext.channel().attr(NettyRequestRegistry.REGISTRY_ATTRIBUTE).get();
+
+        if (requestRegistry != null) {
+            requestRegistry.failAll(new ClosedChannelException());
+        }
+
+        super.channelInactive(channelHandlerContext);
+    }
+
+    /**
+     * Получить исполнитель, в котором обрабатывается
+     * пакет, null - обработать в потоке event loop
+     *
+     * @param message - пакет или запрос
+     */
+    private Executor getExecutor(Object message) {
+        switch (dispatchMode) {
+
+            case ORDERED_POOL: {
+                if (orderedExecutor == null) {
+                    orderedExecutor = new NettySerialExecutor(packetDispatcher.getSharedPool());
+                }
+
+                return orderedExecutor;
+            }
+
+            case PACKET_EXECUTOR: {
+                NettyPacket nettyPacket = message instanceof NettyCorrelatedPacket ? ((NettyCorrelatedPacket) message).getPacket() : (NettyPacket) message;
+                String executorName = packetDispatcher.getExecutorName(nettyPacket.getClass());
+
+                if (executorName == null) {
+                    return null;
+                }
+
+                return packetExecutorMap.computeIfAbsent(executorName, name -> new NettySerialExecutor(packetDispatcher.getExecutor(name)));
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    private void handleMessage(Channel channel, Object message, NettyDispatchStatistics dispatchStatistics) {
+        long handleStartTime = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            // пакет из пула освобождается автоматически после обработки,
+            // поэтому сохранять его нужно через retain()
+            if (message instanceof NettyCorrelatedPacket) {
+                handleRequest(channel, (NettyCorrelatedPacket) message);
+
+            } else {
+
+                ((NettyPacket) message).handle(channel);
+            }
+
+            failed = false;
+        }
+        catch (Throwable throwable) {
+
+            // исключение вне event loop передается в pipeline канала
+            if (!channel.eventLoop().inEventLoop()) {
+                channel.pipeline().fireExceptionCaught(throwable);
+                return;
+            }
+
+            throw throwable;
+        }
+        finally {
+            long handleNanos = System.nanoTime() - handleStartTime;
+            dispatchStatistics.onHandled(handleNanos, failed);
+
+            if (packetMetrics.isEnabled()) {
+                NettyPacket nettyPacket = message instanceof NettyCorrelatedPacket ? ((NettyCorrelatedPacket) message).getPacket() : (NettyPacket) message;
+                packetMetrics.getTypeMetrics(nettyPacket.getClass()).onHandled(handleNanos, failed);
+            }
+
+            ReferenceCountUtil.release(message);
+        }
+    }
+
+    private void handleRequest(Channel channel, NettyCorrelatedPacket requestPacket) {
+        NettyPacket responsePacket = requestPacket.getPacket().handleRequest(channel);
+
+        if (responsePacket == null) {
+            return;
+        }
+
+        // ответ тем же пакетом: ссылку на запрос освободит этот обработчик
+        if (responsePacket == requestPacket.getPacket()) {
+            ReferenceCountUtil.retain(responsePacket);
+        }
+
+        channel.writeAndFlush(new NettyCorrelatedPacket(responsePacket, requestPacket.getRequestId(), true), channel.voidPromise());
     }
 
 }
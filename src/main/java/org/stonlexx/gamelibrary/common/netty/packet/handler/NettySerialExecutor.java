@@ -0,0 +1,83 @@
+package org.stonlexx.gamelibrary.common.netty.packet.handler;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Исполнитель, который выполняет задачи строго по очереди
+ * поверх общего исполнителя, не занимая его поток
+ * между задачами
+ *
+ * Задачи выполняются пачками, после чего поток общего
+ * исполнителя освобождается для других подключений
+ */
+@RequiredArgsConstructor
+public final class NettySerialExecutor implements Executor {
+
+    /**
+     * Максимальное количество задач, которые
+     * выполняются за одно занятие потока
+     */
+    private static final int MAX_TASKS_PER_RUN = 64;
+
+    private final Executor executor;
+
+    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        taskQueue.add(task);
+
+        try {
+            schedule();
+        }
+        catch (RuntimeException exception) {
+
+            // отклоненная задача не должна выполниться позже, ведь вызвавший
+            // уже освободил ее ресурсы. Если задачу успел забрать запуск из
+            // другого потока, то она выполнится, и отказа не было
+            if (taskQueue.remove(task)) {
+                throw exception;
+            }
+        }
+    }
+
+    private void schedule() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::runTasks);
+        }
+        catch (RuntimeException exception) {
+            running.set(false);
+            throw exception;
+        }
+    }
+
+    private void runTasks() {
+        try {
+            Runnable task;
+
+            for (int taskIndex = 0; taskIndex < MAX_TASKS_PER_RUN && (task = taskQueue.poll()) != null; taskIndex++) {
+                task.run();
+            }
+        }
+        finally {
+            running.set(false);
+
+            if (!taskQueue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+}
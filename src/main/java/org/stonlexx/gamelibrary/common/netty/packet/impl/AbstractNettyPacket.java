@@ -1,14 +1,22 @@
 package org.stonlexx.gamelibrary.common.netty.packet.impl;
 
 import io.netty.channel.Channel;
+import io.netty.util.ReferenceCounted;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NonNull;
 import org.stonlexx.gamelibrary.GameLibrary;
 import org.stonlexx.gamelibrary.common.event.impl.PacketHandleEvent;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
 import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.pool.NettyPacketPool;
 
 @Getter
-public abstract class AbstractNettyPacket implements NettyPacket {
+public abstract class AbstractNettyPacket implements NettyPacket, ReferenceCounted {
+
+    @Getter(AccessLevel.NONE)
+    private NettyPacketPool.PoolHandle poolHandle;
 
 
     @Override
@@ -35,4 +43,82 @@ public abstract class AbstractNettyPacket implements NettyPacket {
         GameLibrary.getInstance().getEventManager().callEvent(new PacketHandleEvent(channel, this));
     }
 
+
+    /**
+     * Привязать пакет к пулу, из которого
+     * он был создан
+     *
+     * @param poolHandle - состояние пакета внутри пула
+     */
+    public final void attachPoolHandle(@NonNull NettyPacketPool.PoolHandle poolHandle) {
+        if (this.poolHandle != null) {
+            throw new NettyException(String.format("NettyPacket %s is already attached to pool", getClass().getName()));
+        }
+
+        this.poolHandle = poolHandle;
+    }
+
+    /**
+     * Получить состояние пакета внутри пула,
+     * null, если пакет создан не из пула
+     */
+    public final NettyPacketPool.PoolHandle getPoolHandle() {
+        return poolHandle;
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее
+     * о том, был ли пакет взят из пула
+     */
+    public final boolean isPooled() {
+        return poolHandle != null;
+    }
+
+
+    // Пакеты, созданные не из пула, не считают ссылки
+    // и никогда не освобождаются
+
+    @Override
+    public int refCnt() {
+        return poolHandle == null ? 1 : poolHandle.refCnt();
+    }
+
+    @Override
+    public ReferenceCounted retain() {
+        return retain(1);
+    }
+
+    @Override
+    public ReferenceCounted retain(int increment) {
+        if (poolHandle != null) {
+            poolHandle.retain(increment);
+        }
+
+        return this;
+    }
+
+    @Override
+    public ReferenceCounted touch() {
+        return touch(null);
+    }
+
+    @Override
+    public ReferenceCounted touch(Object hint) {
+        if (poolHandle != null) {
+            poolHandle.touch(hint);
+        }
+
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return release(1);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return poolHandle != null && poolHandle.release(this, decrement);
+    }
+
 }
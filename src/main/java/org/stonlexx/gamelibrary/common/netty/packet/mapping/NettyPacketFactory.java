@@ -0,0 +1,100 @@
+package org.stonlexx.gamelibrary.common.netty.packet.mapping;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+@UtilityClass
+public class NettyPacketFactory {
+
+    private final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final MethodType SUPPLIER_INVOKED_TYPE = MethodType.methodType(Supplier.class);
+    private final MethodType SUPPLIER_METHOD_TYPE = MethodType.methodType(Object.class);
+
+
+    /**
+     * Создать фабрику пакетов по пустому конструктору
+     * класса пакета
+     *
+     * Конструктор ищется один раз: для публичных классов,
+     * видимых загрузчику библиотеки, фабрика генерируется через
+     * {@link LambdaMetafactory} и становится обычным вызовом new,
+     * для остальных (например пакетов плагинов) используется
+     * закешированный {@link MethodHandle}.
+     * Если пакет невозможно создать, то фабрика будет
+     * выбрасывать исключение при каждом вызове
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    public Supplier<NettyPacket> createFactory(@NonNull Class<? extends NettyPacket> nettyPacketClass) {
+        Constructor<? extends NettyPacket> packetConstructor;
+
+        try {
+            packetConstructor = nettyPacketClass.getDeclaredConstructor();
+        }
+
+        catch (NoSuchMethodException exception) {
+            return () -> {
+                throw new NettyException(String.format("NettyPacket %s has no empty constructor", nettyPacketClass.getName()), exception);
+            };
+        }
+
+        try {
+            MethodHandle constructorHandle;
+
+            if (Modifier.isPublic(nettyPacketClass.getModifiers()) && Modifier.isPublic(packetConstructor.getModifiers())
+                    && isVisible(nettyPacketClass)) {
+                constructorHandle = LOOKUP.unreflectConstructor(packetConstructor);
+
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get", SUPPLIER_INVOKED_TYPE,
+                        SUPPLIER_METHOD_TYPE, constructorHandle, constructorHandle.type());
+
+                return (Supplier<NettyPacket>) callSite.getTarget().invokeExact();
+            }
+
+            packetConstructor.setAccessible(true);
+            constructorHandle = LOOKUP.unreflectConstructor(packetConstructor).asType(MethodType.methodType(NettyPacket.class));
+
+            MethodHandle factoryHandle = constructorHandle;
+            return () -> {
+
+                try {
+                    return (NettyPacket) factoryHandle.invokeExact();
+                }
+
+                catch (Throwable throwable) {
+                    throw new NettyException(String.format("Failed to create NettyPacket %s", nettyPacketClass.getName()), throwable);
+                }
+            };
+        }
+
+        catch (Throwable throwable) {
+            return () -> {
+                throw new NettyException(String.format("Failed to create factory for NettyPacket %s", nettyPacketClass.getName()), throwable);
+            };
+        }
+    }
+
+    /**
+     * Вернуть булевое выражение, говорящее о том, найдет ли
+     * класс пакета лямбда, сгенерированная в загрузчике библиотеки
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    private boolean isVisible(Class<? extends NettyPacket> nettyPacketClass) {
+        try {
+            return Class.forName(nettyPacketClass.getName(), false, NettyPacketFactory.class.getClassLoader()) == nettyPacketClass;
+        }
+        catch (ClassNotFoundException | LinkageError exception) {
+            return false;
+        }
+    }
+
+}
@@ -6,10 +6,16 @@ import lombok.Getter;
 import lombok.NonNull;
 import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.annotation.Pooled;
+import org.stonlexx.gamelibrary.common.netty.packet.pool.NettyPacketPool;
 import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
 import org.stonlexx.gamelibrary.utility.query.ResponseHandler;
 
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public final class NettyPacketMapper<T> {
 
@@ -21,6 +27,9 @@ public final class NettyPacketMapper<T> {
         put(NettyPacketDirection.ONLY_ENCODE, HashBiMap.create());
     }};
 
+    @Getter
+    private final Map<Class<? extends NettyPacket>, Supplier<NettyPacket>> packetFactoryMap = new HashMap<>();
+
 
     /**
      * Зарегистрировать пакет в маппере
@@ -41,7 +50,7 @@ public final class NettyPacketMapper<T> {
             return;
         }
 
-        packetMap.get(nettyPacketDirection).put(nettyPacketClass, nettyPacketId);
+        putPacket(nettyPacketDirection, nettyPacketClass, nettyPacketId);
     }
 
     /**
@@ -68,7 +77,7 @@ public final class NettyPacketMapper<T> {
             return;
         }
 
-        packetMap.get(nettyPacketDirection).put(nettyPacketClass, nettyPacketId);
+        putPacket(nettyPacketDirection, nettyPacketClass, nettyPacketId);
     }
 
     /**
@@ -84,16 +93,22 @@ public final class NettyPacketMapper<T> {
             throw new NettyException(String.format("NettyPacket(id:%s) is not registered", nettyPacketId));
         }
 
-        try {
+        return getPacketFactory(packetClass).get();
+    }
 
-            return packetClass.getConstructor().newInstance();
-        }
+    /**
+     * Получить закешированную фабрику пакета
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    public Supplier<NettyPacket> getPacketFactory(@NonNull Class<? extends NettyPacket> nettyPacketClass) {
+        Supplier<NettyPacket> packetFactory = packetFactoryMap.get(nettyPacketClass);
 
-        catch (Throwable exception) {
-            exception.printStackTrace();
+        if (packetFactory == null) {
+            throw new NettyException(String.format("NettyPacket %s is not registered for decode", nettyPacketClass.getName()));
         }
 
-        return null;
+        return packetFactory;
     }
 
     /**
@@ -126,4 +141,22 @@ public final class NettyPacketMapper<T> {
         return packetMap.get(nettyPacketDirection).containsValue(nettyPacketId);
     }
 
+    private void putPacket(NettyPacketDirection nettyPacketDirection,
+                           Class<? extends NettyPacket> nettyPacketClass,
+
+                           T nettyPacketId) {
+
+        NettyPacketTyping.getPacketIndex().update(() -> {
+
+            // конструктор пакета ищется один раз, а не при каждом декодировании
+            if (nettyPacketDirection == NettyPacketDirection.ONLY_DECODE) {
+                packetFactoryMap.computeIfAbsent(nettyPacketClass, packetClass -> packetClass.isAnnotationPresent(Pooled.class)
+                        ? NettyPacketPool.getPacketPool(packetClass)
+                        : NettyPacketFactory.createFactory(packetClass));
+            }
+
+            packetMap.get(nettyPacketDirection).put(nettyPacketClass, nettyPacketId);
+        });
+    }
+
 }
@@ -0,0 +1,123 @@
+package org.stonlexx.gamelibrary.common.netty.packet.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в наносекундах с корзинами
+ * по степеням двойки
+ *
+ * Запись - это один подсчет ведущих нулей и одно увеличение
+ * {@link LongAdder}, поэтому ее можно вызывать из любого
+ * количества потоков без общей блокировки. Перцентили
+ * возвращаются с точностью до верхней границы корзины
+ */
+public final class NettyLatencyHistogram {
+
+    /**
+     * Количество корзин: последняя собирает все
+     * задержки от 2^38 наносекунд (~4.5 минуты)
+     */
+    public static final int BUCKET_COUNT = 40;
+
+    private final LongAdder[] buckets           = new LongAdder[BUCKET_COUNT];
+
+    private final LongAdder totalNanos          = new LongAdder();
+    private final LongAccumulator maxNanos      = new LongAccumulator(Math::max, 0);
+
+
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Записать задержку
+     *
+     * @param nanos - задержка в наносекундах
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets[Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKET_COUNT - 1)].increment();
+
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Получить количество записей в каждой корзине:
+     * корзина i содержит задержки меньше 2^i наносекунд
+     */
+    public long[] getBucketCounts() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = buckets[i].sum();
+        }
+
+        return bucketCounts;
+    }
+
+    /**
+     * Получить сумму всех записанных задержек
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Получить максимальную записанную задержку
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Сбросить все записи гистограммы
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+
+    /**
+     * Получить перцентиль по снимку корзин
+     *
+     * @param bucketCounts - количество записей в корзинах
+     * @param percentile   - перцентиль от 0 до 100
+     */
+    public static long getPercentileNanos(long[] bucketCounts, double percentile) {
+        long totalCount = 0;
+
+        for (long bucketCount : bucketCounts) {
+            totalCount += bucketCount;
+        }
+
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long targetCount = Math.max(1, (long) Math.ceil(totalCount * percentile / 100));
+        long seenCount = 0;
+
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seenCount += bucketCounts[i];
+
+            if (seenCount >= targetCount) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.stonlexx.gamelibrary.common.netty.packet.metrics;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Метрики трафика и задержек по классам пакетов
+ *
+ * Энкодер, декодер и обработчик пакетов проверяют
+ * {@link #isEnabled()} перед каждой записью, поэтому
+ * выключенные метрики не вызывают даже System.nanoTime()
+ */
+public final class NettyPacketMetrics {
+
+    /**
+     * Включены ли метрики, по умолчанию
+     * выключены
+     */
+    @Getter
+    @Setter
+    private volatile boolean enabled = Boolean.getBoolean("gamelibrary.netty.packetMetrics");
+
+    private final Map<Class<? extends NettyPacket>, NettyPacketTypeMetrics> typeMetricsMap = new ConcurrentHashMap<>();
+
+    /**
+     * RTT всех подключений по ответам на служебный ping
+     */
+    @Getter
+    private final NettyLatencyHistogram roundTripHistogram = new NettyLatencyHistogram();
+
+    private final ClassValue<NettyPacketTypeMetrics> typeMetricsCache = new ClassValue<NettyPacketTypeMetrics>() {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected NettyPacketTypeMetrics computeValue(Class<?> packetClass) {
+            return typeMetricsMap.computeIfAbsent((Class<? extends NettyPacket>) packetClass, NettyPacketTypeMetrics::new);
+        }
+    };
+
+
+    /**
+     * Получить (или создать) счетчики
+     * указанного класса пакетов
+     *
+     * @param nettyPacketClass - класс пакета
+     */
+    public NettyPacketTypeMetrics getTypeMetrics(@NonNull Class<? extends NettyPacket> nettyPacketClass) {
+        return typeMetricsCache.get(nettyPacketClass);
+    }
+
+    /**
+     * Учесть замер RTT подключения
+     *
+     * @param rttNanos - время от отправки ping до получения pong
+     */
+    public void onRoundTrip(long rttNanos) {
+        if (enabled) {
+            roundTripHistogram.record(rttNanos);
+        }
+    }
+
+    /**
+     * Получить снимок счетчиков всех классов пакетов,
+     * начиная с классов с наибольшим трафиком
+     */
+    public List<NettyPacketMetricsSnapshot> snapshot() {
+        List<NettyPacketMetricsSnapshot> snapshots = new ArrayList<>(typeMetricsMap.size());
+
+        for (NettyPacketTypeMetrics typeMetrics : typeMetricsMap.values()) {
+            snapshots.add(typeMetrics.snapshot());
+        }
+
+        snapshots.sort(Comparator.comparingLong(NettyPacketMetricsSnapshot::getTotalBytes).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Сбросить счетчики всех классов пакетов
+     */
+    public void reset() {
+        typeMetricsMap.values().forEach(NettyPacketTypeMetrics::reset);
+        roundTripHistogram.reset();
+    }
+
+}
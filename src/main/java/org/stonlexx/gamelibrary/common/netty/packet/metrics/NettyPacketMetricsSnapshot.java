@@ -0,0 +1,100 @@
+package org.stonlexx.gamelibrary.common.netty.packet.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+/**
+ * Неизменяемый снимок счетчиков
+ * одного класса пакетов
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public final class NettyPacketMetricsSnapshot {
+
+    private final Class<? extends NettyPacket> packetClass;
+
+    private final long encodedCount;
+    private final long encodedBytes;
+    private final long encodeNanos;
+
+    private final long decodedCount;
+    private final long decodedBytes;
+    private final long decodeNanos;
+
+    private final long failedCount;
+
+    @Getter(AccessLevel.NONE)
+    private final long[] handleBuckets;
+
+    private final long handleNanos;
+    private final long maxHandleNanos;
+
+
+    /**
+     * Получить количество обработанных пакетов
+     */
+    public long getHandledCount() {
+        long handledCount = 0;
+
+        for (long bucketCount : handleBuckets) {
+            handledCount += bucketCount;
+        }
+
+        return handledCount;
+    }
+
+    /**
+     * Получить среднее время кодирования
+     * пакета в наносекундах
+     */
+    public long getAverageEncodeNanos() {
+        return encodedCount == 0 ? 0 : encodeNanos / encodedCount;
+    }
+
+    /**
+     * Получить среднее время декодирования
+     * пакета в наносекундах
+     */
+    public long getAverageDecodeNanos() {
+        return decodedCount == 0 ? 0 : decodeNanos / decodedCount;
+    }
+
+    /**
+     * Получить среднее время обработки
+     * пакета в наносекундах
+     */
+    public long getAverageHandleNanos() {
+        long handledCount = getHandledCount();
+        return handledCount == 0 ? 0 : handleNanos / handledCount;
+    }
+
+    /**
+     * Получить перцентиль времени обработки пакета
+     * в наносекундах, с точностью до степени двойки
+     *
+     * @param percentile - перцентиль от 0 до 100
+     */
+    public long getHandlePercentileNanos(double percentile) {
+        return NettyLatencyHistogram.getPercentileNanos(handleBuckets, percentile);
+    }
+
+    /**
+     * Получить общий трафик пакетов
+     * этого класса в байтах
+     */
+    public long getTotalBytes() {
+        return encodedBytes + decodedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{out=%d/%dB enc=%dns, in=%d/%dB dec=%dns, handled=%d failed=%d avg=%dns p99<=%dns max=%dns}",
+                packetClass.getSimpleName(),
+                encodedCount, encodedBytes, getAverageEncodeNanos(),
+                decodedCount, decodedBytes, getAverageDecodeNanos(),
+                getHandledCount(), failedCount, getAverageHandleNanos(), getHandlePercentileNanos(99), maxHandleNanos);
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.stonlexx.gamelibrary.common.netty.packet.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики трафика и задержек одного класса пакетов
+ *
+ * Исходящие пакеты считаются при кодировании, входящие -
+ * при декодировании и обработке. Размер пакета считается
+ * без длины фрейма и до сжатия
+ */
+@RequiredArgsConstructor
+public final class NettyPacketTypeMetrics {
+
+    @Getter
+    private final Class<? extends NettyPacket> packetClass;
+
+    private final LongAdder encodedCount        = new LongAdder();
+    private final LongAdder encodedBytes        = new LongAdder();
+    private final LongAdder encodeNanos         = new LongAdder();
+
+    private final LongAdder decodedCount        = new LongAdder();
+    private final LongAdder decodedBytes        = new LongAdder();
+    private final LongAdder decodeNanos         = new LongAdder();
+
+    private final LongAdder failedCount         = new LongAdder();
+
+    @Getter
+    private final NettyLatencyHistogram handleHistogram = new NettyLatencyHistogram();
+
+
+    /**
+     * Учесть закодированный пакет
+     *
+     * @param bytes - размер пакета в байтах
+     * @param nanos - время кодирования
+     */
+    public void onEncoded(int bytes, long nanos) {
+        encodedCount.increment();
+        encodedBytes.add(bytes);
+        encodeNanos.add(nanos);
+    }
+
+    /**
+     * Учесть декодированный пакет
+     *
+     * @param bytes - размер пакета в байтах
+     * @param nanos - время декодирования
+     */
+    public void onDecoded(int bytes, long nanos) {
+        decodedCount.increment();
+        decodedBytes.add(bytes);
+        decodeNanos.add(nanos);
+    }
+
+    /**
+     * Учесть обработанный пакет
+     *
+     * @param nanos  - время обработки
+     * @param failed - завершилась ли обработка исключением
+     */
+    public void onHandled(long nanos, boolean failed) {
+        if (failed) {
+            failedCount.increment();
+        }
+
+        handleHistogram.record(nanos);
+    }
+
+    /**
+     * Получить неизменяемый снимок счетчиков
+     */
+    public NettyPacketMetricsSnapshot snapshot() {
+        return new NettyPacketMetricsSnapshot(packetClass,
+                encodedCount.sum(), encodedBytes.sum(), encodeNanos.sum(),
+                decodedCount.sum(), decodedBytes.sum(), decodeNanos.sum(),
+
+                failedCount.sum(), handleHistogram.getBucketCounts(),
+                handleHistogram.getTotalNanos(), handleHistogram.getMaxNanos());
+    }
+
+    /**
+     * Сбросить все счетчики
+     */
+    public void reset() {
+        encodedCount.reset();
+        encodedBytes.reset();
+        encodeNanos.reset();
+
+        decodedCount.reset();
+        decodedBytes.reset();
+        decodeNanos.reset();
+
+        failedCount.reset();
+        handleHistogram.reset();
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.stonlexx.gamelibrary.common.netty.packet.pool;
+
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.Recycler;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakTracker;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.annotation.Pooled;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.mapping.NettyPacketFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * Пул пакетов одного класса с аннотацией {@link Pooled}
+ *
+ * Каждый поток (event loop) имеет свой собственный
+ * пул, а вернуть пакет можно из любого потока.
+ * Пакеты возвращаются через счетчик ссылок:
+ * {@link AbstractNettyPacket#release()} вызывается
+ * автоматически после обработки пакета и после
+ * его записи энкодером
+ */
+public final class NettyPacketPool implements Supplier<NettyPacket> {
+
+    /**
+     * Режим отладки: отслеживание утечек пакетов,
+     * которые взяли из пула, но так и не вернули
+     */
+    @Getter
+    @Setter
+    private static volatile boolean debug = Boolean.getBoolean("gamelibrary.netty.packetPoolDebug");
+
+    private static final Map<Class<? extends NettyPacket>, NettyPacketPool> PACKET_POOL_MAP = new ConcurrentHashMap<>();
+
+    private static final ResourceLeakDetector<AbstractNettyPacket> LEAK_DETECTOR = new ResourceLeakDetector<AbstractNettyPacket>(AbstractNettyPacket.class, 1) {
+
+        @Override
+        protected void reportTracedLeak(String resourceType, String records) {
+            GameLibrary.getInstance().getLogger().warning("LEAK: pooled NettyPacket was not released before it was garbage-collected." + records);
+        }
+
+        @Override
+        protected void reportUntracedLeak(String resourceType) {
+            GameLibrary.getInstance().getLogger().warning("LEAK: pooled NettyPacket was not released before it was garbage-collected.");
+        }
+    };
+
+
+    /**
+     * Получить (или создать) пул пакетов
+     * указанного класса
+     *
+     * @param nettyPacketClass - класс пакета с аннотацией {@link Pooled}
+     */
+    public static NettyPacketPool getPacketPool(@NonNull Class<? extends NettyPacket> nettyPacketClass) {
+        return PACKET_POOL_MAP.computeIfAbsent(nettyPacketClass, packetClass -> {
+            Pooled pooled = packetClass.getDeclaredAnnotation(Pooled.class);
+
+            if (pooled == null || !AbstractNettyPacket.class.isAssignableFrom(packetClass)) {
+                throw new NettyException(String.format("NettyPacket %s must extend AbstractNettyPacket and be annotated with @Pooled", packetClass.getName()));
+            }
+
+            return new NettyPacketPool(NettyPacketFactory.createFactory(packetClass), pooled.maxPerThread());
+        });
+    }
+
+    /**
+     * Взять пакет из пула потока, например
+     * для его последующей отправки
+     *
+     * Отправленный пакет вернется в пул после записи,
+     * поэтому после отправки его нельзя использовать
+     *
+     * @param nettyPacketClass - класс пакета с аннотацией {@link Pooled}
+     */
+    public static <P extends NettyPacket> P acquire(@NonNull Class<P> nettyPacketClass) {
+        return nettyPacketClass.cast(getPacketPool(nettyPacketClass).get());
+    }
+
+
+    private final Recycler<AbstractNettyPacket> packetRecycler;
+
+    private NettyPacketPool(Supplier<NettyPacket> packetFactory, int maxPerThread) {
+        this.packetRecycler = new Recycler<AbstractNettyPacket>(maxPerThread) {
+
+            @Override
+            protected AbstractNettyPacket newObject(Handle<AbstractNettyPacket> recyclerHandle) {
+                AbstractNettyPacket nettyPacket = (AbstractNettyPacket) packetFactory.get();
+                nettyPacket.attachPoolHandle(new PoolHandle(recyclerHandle));
+
+                return nettyPacket;
+            }
+        };
+    }
+
+    @Override
+    public NettyPacket get() {
+        AbstractNettyPacket nettyPacket = packetRecycler.get();
+        nettyPacket.getPoolHandle().acquire(nettyPacket);
+
+        return nettyPacket;
+    }
+
+
+    /**
+     * Состояние пакета внутри пула: счетчик
+     * ссылок и трекер утечек
+     */
+    public static final class PoolHandle {
+
+        private static final AtomicIntegerFieldUpdater<PoolHandle> REFERENCE_COUNT_UPDATER
+                = AtomicIntegerFieldUpdater.newUpdater(PoolHandle.class, "referenceCount");
+
+        private final Recycler.Handle<AbstractNettyPacket> recyclerHandle;
+
+        private volatile int referenceCount;
+        private ResourceLeakTracker<AbstractNettyPacket> leakTracker;
+
+
+        private PoolHandle(Recycler.Handle<AbstractNettyPacket> recyclerHandle) {
+            this.recyclerHandle = recyclerHandle;
+        }
+
+        private void acquire(AbstractNettyPacket nettyPacket) {
+            this.leakTracker = debug ? LEAK_DETECTOR.track(nettyPacket) : null;
+            this.referenceCount = 1;
+        }
+
+        public int refCnt() {
+            return referenceCount;
+        }
+
+        public void retain(int increment) {
+            int oldCount = REFERENCE_COUNT_UPDATER.getAndAdd(this, increment);
+
+            if (oldCount <= 0) {
+                REFERENCE_COUNT_UPDATER.getAndAdd(this, -increment);
+                throw new IllegalReferenceCountException(oldCount, increment);
+            }
+
+            touch("retain");
+        }
+
+        public boolean release(@NonNull AbstractNettyPacket nettyPacket, int decrement) {
+            int oldCount = REFERENCE_COUNT_UPDATER.getAndAdd(this, -decrement);
+
+            // повторный возврат в пул
+            if (oldCount < decrement) {
+                REFERENCE_COUNT_UPDATER.getAndAdd(this, decrement);
+                throw new IllegalReferenceCountException(oldCount, -decrement);
+            }
+
+            if (oldCount != decrement) {
+                touch("release");
+                return false;
+            }
+
+            if (leakTracker != null) {
+                leakTracker.close(nettyPacket);
+                leakTracker = null;
+            }
+
+            nettyPacket.reset();
+            recyclerHandle.recycle(nettyPacket);
+
+            return true;
+        }
+
+        public void touch(Object hint) {
+            ResourceLeakTracker<AbstractNettyPacket> leakTracker = this.leakTracker;
+
+            if (leakTracker != null) {
+                leakTracker.record(hint);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.stonlexx.gamelibrary.common.netty.packet.protocol;
+
+public enum NettyPacketHeaderMode {
+
+    /**
+     * Старый формат заголовка: название класса
+     * ключа пакета и сам ключ в виде JSON
+     * в каждом фрейме
+     *
+     * Старым остается только заголовок ключа: за ним, как и в
+     * {@link #COMPACT}, идет varint заголовок запроса вместо
+     * прежнего boolean флага callback. Поэтому фреймы несовместимы
+     * с узлами на версиях до {@link org.stonlexx.gamelibrary.common.netty.packet.request.NettyRequestRegistry}:
+     * обе стороны подключения должны быть обновлены
+     */
+    LEGACY,
+
+    /**
+     * Таблицы пакетов обмениваются один раз при
+     * подключении, после чего в заголовке
+     * передается только varint номер пакета
+     */
+    COMPACT
+}
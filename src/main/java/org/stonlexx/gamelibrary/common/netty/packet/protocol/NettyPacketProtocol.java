@@ -0,0 +1,180 @@
+package org.stonlexx.gamelibrary.common.netty.packet.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AttributeKey;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketIndex;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketTyping;
+import org.stonlexx.gamelibrary.utility.JsonUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Getter
+public class NettyPacketProtocol {
+
+    public static final AttributeKey<NettyPacketProtocol> PROTOCOL_ATTRIBUTE = AttributeKey.valueOf("netty-packet-protocol");
+
+    public static final int INLINE_HEADER_ID        = 0;
+    public static final int HANDSHAKE_HEADER_ID     = 1;
+    public static final int FIRST_COMPACT_ID        = 2;
+
+
+    private final NettyPacketHeaderMode headerMode;
+
+    private NettyPacketIndex.Entry[] localPacketEntries = new NettyPacketIndex.Entry[0];
+    private volatile Map<Object, Integer> remotePacketIds = Collections.emptyMap();
+
+
+    /**
+     * Создать фрейм рукопожатия с таблицей номеров
+     * всех пакетов, которые может принять данный канал
+     *
+     * @param byteBufAllocator - аллокатор канала
+     */
+    public ByteBuf createHandshake(@NonNull ByteBufAllocator byteBufAllocator) {
+        this.localPacketEntries = NettyPacketTyping.getPacketIndex().getEntries(NettyPacketDirection.ONLY_DECODE)
+                .toArray(new NettyPacketIndex.Entry[0]);
+
+        ByteBuf handshakeBuf = byteBufAllocator.buffer();
+        NettyPacketBuffer nettyPacketBuffer = new NettyPacketBuffer(handshakeBuf);
+
+        nettyPacketBuffer.writeVarInt(HANDSHAKE_HEADER_ID);
+        nettyPacketBuffer.writeVarInt(localPacketEntries.length);
+
+        for (NettyPacketIndex.Entry packetEntry : localPacketEntries) {
+            writeInlineHeader(nettyPacketBuffer, packetEntry.getPacketId());
+        }
+
+        return handshakeBuf;
+    }
+
+    /**
+     * Прочитать таблицу номеров пакетов, которую
+     * прислала другая сторона подключения
+     *
+     * @param nettyPacketBuffer - хранилище байтов
+     */
+    public void readHandshake(@NonNull NettyPacketBuffer nettyPacketBuffer) {
+        int packetIdsCount = nettyPacketBuffer.readVarInt();
+        Map<Object, Integer> remotePacketIds = new HashMap<>(packetIdsCount * 2);
+
+        for (int index = 0; index < packetIdsCount; index++) {
+            String packetIdClassName = nettyPacketBuffer.readString();
+            String packetIdJson = nettyPacketBuffer.readString();
+
+            try {
+                Object nettyPacketId = JsonUtil.fromJson(packetIdJson, Class.forName(packetIdClassName));
+                remotePacketIds.put(nettyPacketId, FIRST_COMPACT_ID + index);
+            }
+
+            // ключ неизвестен на этой стороне, такой пакет будет отправляться с полным заголовком
+            catch (ClassNotFoundException ignored) { }
+        }
+
+        this.remotePacketIds = remotePacketIds;
+    }
+
+    /**
+     * Записать заголовок пакета
+     *
+     * @param nettyPacketBuffer - хранилище байтов
+     * @param nettyPacketId     - номер пакета
+     */
+    public void writeHeader(@NonNull NettyPacketBuffer nettyPacketBuffer, @NonNull Object nettyPacketId) {
+        if (headerMode == NettyPacketHeaderMode.LEGACY) {
+            writeInlineHeader(nettyPacketBuffer, nettyPacketId);
+            return;
+        }
+
+        Integer compactPacketId = remotePacketIds.get(nettyPacketId);
+
+        if (compactPacketId != null) {
+            nettyPacketBuffer.writeVarInt(compactPacketId);
+            return;
+        }
+
+        nettyPacketBuffer.writeVarInt(INLINE_HEADER_ID);
+        writeInlineHeader(nettyPacketBuffer, nettyPacketId);
+    }
+
+    /**
+     * Прочитать заголовок пакета и получить
+     * запись индекса пришедшего пакета
+     *
+     * Возвращает null, если вместо пакета
+     * пришел фрейм рукопожатия
+     *
+     * @param nettyPacketBuffer - хранилище байтов
+     */
+    public NettyPacketIndex.Entry readHeader(@NonNull NettyPacketBuffer nettyPacketBuffer) throws ClassNotFoundException {
+        if (headerMode == NettyPacketHeaderMode.LEGACY) {
+            return findDecodeEntry(readInlineHeader(nettyPacketBuffer));
+        }
+
+        int headerId = nettyPacketBuffer.readVarInt();
+
+        switch (headerId) {
+
+            case INLINE_HEADER_ID:
+                return findDecodeEntry(readInlineHeader(nettyPacketBuffer));
+
+            case HANDSHAKE_HEADER_ID:
+                readHandshake(nettyPacketBuffer);
+                return null;
+        }
+
+        int localIndex = headerId - FIRST_COMPACT_ID;
+
+        if (localIndex < 0 || localIndex >= localPacketEntries.length) {
+            throw new NettyException(String.format("Compact NettyPacket(id:%s) is not negotiated", headerId));
+        }
+
+        return localPacketEntries[localIndex];
+    }
+
+    private NettyPacketIndex.Entry findDecodeEntry(Object nettyPacketId) {
+        NettyPacketIndex.Entry packetEntry = NettyPacketTyping.getPacketIndex().getEntry(NettyPacketDirection.ONLY_DECODE, nettyPacketId);
+
+        if (packetEntry == null) {
+            throw new NettyException(String.format("NettyPacket(id:%s) is not registered", nettyPacketId));
+        }
+
+        return packetEntry;
+    }
+
+
+    /**
+     * Записать полный заголовок пакета:
+     * название класса ключа и сам ключ в JSON
+     *
+     * @param nettyPacketBuffer - хранилище байтов
+     * @param nettyPacketId     - номер пакета
+     */
+    public static void writeInlineHeader(@NonNull NettyPacketBuffer nettyPacketBuffer, @NonNull Object nettyPacketId) {
+        nettyPacketBuffer.writeString(nettyPacketId.getClass().getName());
+        nettyPacketBuffer.writeString(JsonUtil.toJson(nettyPacketId));
+    }
+
+    /**
+     * Прочитать полный заголовок пакета:
+     * название класса ключа и сам ключ в JSON
+     *
+     * @param nettyPacketBuffer - хранилище байтов
+     */
+    public static Object readInlineHeader(@NonNull NettyPacketBuffer nettyPacketBuffer) throws ClassNotFoundException {
+        String packetIdClassName = nettyPacketBuffer.readString();
+        String packetIdJson = nettyPacketBuffer.readString();
+
+        return JsonUtil.fromJson(packetIdJson, Class.forName(packetIdClassName));
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.stonlexx.gamelibrary.common.netty.packet.request;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+/**
+ * Пакет вместе с номером запроса, к которому он относится
+ *
+ * В канал записывается вместо самого пакета, когда пакет
+ * является запросом или ответом на запрос. Счетчик ссылок
+ * делегируется пакету, поэтому обертку можно освобождать
+ * так же, как и сам пакет
+ */
+@RequiredArgsConstructor
+@Getter
+public final class NettyCorrelatedPacket implements ReferenceCounted {
+
+    @NonNull
+    private final NettyPacket packet;
+
+    /**
+     * Номер запроса внутри канала
+     */
+    private final int requestId;
+
+    /**
+     * Является ли пакет ответом на запрос
+     */
+    private final boolean response;
+
+
+    /**
+     * Получить заголовок запроса, который
+     * записывается в канал перед пакетом:
+     * 0 - пакет не относится к запросу
+     */
+    public int getRequestHeader() {
+        return (requestId << 1) | (response ? 1 : 0);
+    }
+
+    @Override
+    public int refCnt() {
+        return packet instanceof ReferenceCounted ? ((ReferenceCounted) packet).refCnt() : 1;
+    }
+
+    @Override
+    public NettyCorrelatedPacket retain() {
+        ReferenceCountUtil.retain(packet);
+        return this;
+    }
+
+    @Override
+    public NettyCorrelatedPacket retain(int increment) {
+        ReferenceCountUtil.retain(packet, increment);
+        return this;
+    }
+
+    @Override
+    public NettyCorrelatedPacket touch() {
+        ReferenceCountUtil.touch(packet);
+        return this;
+    }
+
+    @Override
+    public NettyCorrelatedPacket touch(Object hint) {
+        ReferenceCountUtil.touch(packet, hint);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return ReferenceCountUtil.release(packet);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return ReferenceCountUtil.release(packet, decrement);
+    }
+
+}
@@ -0,0 +1,171 @@
+package org.stonlexx.gamelibrary.common.netty.packet.request;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.Timeout;
+import lombok.Getter;
+import lombok.NonNull;
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ожидающие ответа запросы одного канала
+ *
+ * Номера запросов уникальны только внутри канала,
+ * поэтому одновременные запросы одного типа пакетов
+ * не пересекаются. Таймауты всех запросов обслуживает
+ * один общий {@link io.netty.util.HashedWheelTimer}
+ */
+public final class NettyRequestRegistry {
+
+    public static final AttributeKey<NettyRequestRegistry> REGISTRY_ATTRIBUTE = AttributeKey.valueOf("netty-request-registry");
+
+    /**
+     * Номер запроса записывается в заголовок вместе с флагом
+     * ответа, поэтому под сам номер остается 30 бит
+     */
+    private static final int MAX_REQUEST_ID = (1 << 30) - 1;
+
+
+    /**
+     * Получить (или создать) запросы канала
+     *
+     * @param channel - канал
+     */
+    public static NettyRequestRegistry getRegistry(@NonNull Channel channel) {
+        NettyRequestRegistry requestRegistry = channel.attr(REGISTRY_ATTRIBUTE).get();
+
+        if (requestRegistry == null) {
+            NettyRequestRegistry createdRegistry = new NettyRequestRegistry();
+            requestRegistry = channel.attr(REGISTRY_ATTRIBUTE).setIfAbsent(createdRegistry);
+
+            return requestRegistry == null ? createdRegistry : requestRegistry;
+        }
+
+        return requestRegistry;
+    }
+
+
+    private final AtomicInteger requestIdCounter = new AtomicInteger();
+    private final Map<Integer, PendingRequest<?>> pendingRequestMap = new ConcurrentHashMap<>();
+
+
+    /**
+     * Создать запрос, ожидающий ответа
+     *
+     * @param timeout  - время ожидания ответа
+     * @param timeUnit - единица времени ожидания
+     */
+    public <R extends NettyPacket> PendingRequest<R> createRequest(long timeout, @NonNull TimeUnit timeUnit) {
+        PendingRequest<R> pendingRequest;
+
+        do {
+            pendingRequest = new PendingRequest<>(nextRequestId());
+        }
+        while (pendingRequestMap.putIfAbsent(pendingRequest.requestId, pendingRequest) != null);
+
+        int requestId = pendingRequest.requestId;
+
+        pendingRequest.timeout = GameLibrary.getInstance().getNettyManager().getRequestTimer().newTimeout(timeoutTask ->
+                failRequest(requestId, new TimeoutException(String.format("NettyPacket request(id:%s) timed out after %s %s", requestId, timeout, timeUnit))),
+
+                timeout, timeUnit);
+
+        return pendingRequest;
+    }
+
+    /**
+     * Завершить запрос пришедшим ответом
+     *
+     * Возвращает false, если запрос уже завершился,
+     * например по таймауту
+     *
+     * @param requestId      - номер запроса
+     * @param responsePacket - пакет ответа
+     */
+    @SuppressWarnings("unchecked")
+    public boolean completeRequest(int requestId, @NonNull NettyPacket responsePacket) {
+        PendingRequest<NettyPacket> pendingRequest = (PendingRequest<NettyPacket>) pendingRequestMap.remove(requestId);
+
+        if (pendingRequest == null) {
+            return false;
+        }
+
+        pendingRequest.cancelTimeout();
+        return pendingRequest.future.complete(responsePacket);
+    }
+
+    /**
+     * Завершить запрос исключением
+     *
+     * @param requestId - номер запроса
+     * @param throwable - исключение
+     */
+    public void failRequest(int requestId, @NonNull Throwable throwable) {
+        PendingRequest<?> pendingRequest = pendingRequestMap.remove(requestId);
+
+        if (pendingRequest != null) {
+            pendingRequest.cancelTimeout();
+            pendingRequest.future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Завершить исключением все ожидающие запросы,
+     * например после закрытия канала
+     *
+     * @param throwable - исключение
+     */
+    public void failAll(@NonNull Throwable throwable) {
+        for (Integer requestId : new ArrayList<>(pendingRequestMap.keySet())) {
+            failRequest(requestId, throwable);
+        }
+    }
+
+    /**
+     * Получить количество запросов,
+     * ожидающих ответа
+     */
+    public int getPendingCount() {
+        return pendingRequestMap.size();
+    }
+
+    private int nextRequestId() {
+        int requestId = requestIdCounter.incrementAndGet() & MAX_REQUEST_ID;
+        return requestId == 0 ? nextRequestId() : requestId;
+    }
+
+
+    public static final class PendingRequest<R extends NettyPacket> {
+
+        @Getter
+        private final int requestId;
+
+        @Getter
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private volatile Timeout timeout;
+
+
+        private PendingRequest(int requestId) {
+            this.requestId = requestId;
+        }
+
+        private void cancelTimeout() {
+            Timeout timeout = this.timeout;
+
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+
+}
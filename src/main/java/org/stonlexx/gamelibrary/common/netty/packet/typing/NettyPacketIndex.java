@@ -0,0 +1,236 @@
+package org.stonlexx.gamelibrary.common.netty.packet.typing;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.exception.NettyException;
+import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.generated.NettyPacketCodec;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.generated.NettyPacketCodecRegistry;
+import org.stonlexx.gamelibrary.common.netty.packet.mapping.NettyPacketMapper;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Глобальный индекс всех зарегистрированных пакетов
+ * из всех {@link NettyPacketTyping}
+ *
+ * Индекс неизменяемый и пересобирается целиком при
+ * каждой регистрации пакета, поэтому чтение из него
+ * не требует блокировок и стоит одного поиска по хешу
+ * в обе стороны: по классу пакета и по его ключу.
+ * Ключи сравниваются через equals, поэтому ключи
+ * разных типов (например 1 и "1") не пересекаются
+ *
+ * Типизации и мапперы пакетов изменяются только под
+ * монитором индекса (см. {@link #update(Runnable)}), иначе
+ * пересборка может прочитать их посреди изменения
+ */
+public final class NettyPacketIndex {
+
+    private volatile Snapshot snapshot = new Snapshot();
+
+
+    /**
+     * Пересобрать индекс по текущему состоянию
+     * всех типизаций пакетов
+     *
+     * При конфликте ключей или классов выигрывает
+     * типизация, которая была создана раньше
+     */
+    public synchronized void rebuild() {
+        Snapshot snapshot = new Snapshot();
+
+        for (NettyPacketTyping<?> nettyPacketTyping : NettyPacketTyping.getPacketTypingMap().values()) {
+            NettyPacketMapper<?> nettyPacketMapper = nettyPacketTyping.getPacketMapper();
+            Map<NettyPacketDirection, ? extends Map<Class<? extends NettyPacket>, ?>> packetMap = nettyPacketMapper.getPacketMap();
+
+            for (NettyPacketDirection nettyPacketDirection : packetMap.keySet()) {
+                DirectionIndex directionIndex = snapshot.getDirectionIndex(nettyPacketDirection);
+
+                for (Map.Entry<Class<? extends NettyPacket>, ?> packetEntry : packetMap.get(nettyPacketDirection).entrySet()) {
+                    Class<? extends NettyPacket> nettyPacketClass = packetEntry.getKey();
+
+                    directionIndex.addEntry(new Entry(nettyPacketTyping, nettyPacketDirection, nettyPacketClass, packetEntry.getValue(),
+                            nettyPacketMapper.getPacketFactoryMap().get(nettyPacketClass),
+                            NettyPacketCodecRegistry.getCodec(nettyPacketClass)));
+                }
+            }
+        }
+
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Изменить типизации, мапперы или кодеки пакетов
+     * и пересобрать индекс под одной блокировкой
+     *
+     * @param indexUpdate - изменение, после которого индекс устарел
+     */
+    public synchronized void update(@NonNull Runnable indexUpdate) {
+        indexUpdate.run();
+        rebuild();
+    }
+
+    /**
+     * Получить запись индекса по классу пакета
+     *
+     * @param nettyPacketDirection - директория пакета
+     * @param nettyPacketClass     - класс пакета
+     */
+    public Entry getEntry(@NonNull NettyPacketDirection nettyPacketDirection,
+                          @NonNull Class<? extends NettyPacket> nettyPacketClass) {
+
+        DirectionIndex directionIndex = snapshot.directionIndexes.get(nettyPacketDirection);
+        return directionIndex == null ? null : directionIndex.classIndex.get(nettyPacketClass);
+    }
+
+    /**
+     * Получить запись индекса по ключу пакета
+     *
+     * @param nettyPacketDirection - директория пакета
+     * @param nettyPacketId        - ключ пакета
+     */
+    public Entry getEntry(@NonNull NettyPacketDirection nettyPacketDirection,
+                          @NonNull Object nettyPacketId) {
+
+        if (nettyPacketId instanceof Integer) {
+            return getEntry(nettyPacketDirection, ((Integer) nettyPacketId).intValue());
+        }
+
+        DirectionIndex directionIndex = snapshot.directionIndexes.get(nettyPacketDirection);
+        return directionIndex == null ? null : directionIndex.idIndex.get(nettyPacketId);
+    }
+
+    /**
+     * Получить запись индекса по числовому
+     * ключу пакета без упаковки в Integer
+     *
+     * @param nettyPacketDirection - директория пакета
+     * @param nettyPacketId        - ключ пакета
+     */
+    public Entry getEntry(@NonNull NettyPacketDirection nettyPacketDirection, int nettyPacketId) {
+        DirectionIndex directionIndex = snapshot.directionIndexes.get(nettyPacketDirection);
+        return directionIndex == null ? null : directionIndex.intIdIndex.get(nettyPacketId);
+    }
+
+    /**
+     * Получить все записи индекса указанной
+     * директории в порядке их регистрации
+     *
+     * @param nettyPacketDirection - директория пакета
+     */
+    public List<Entry> getEntries(@NonNull NettyPacketDirection nettyPacketDirection) {
+        DirectionIndex directionIndex = snapshot.directionIndexes.get(nettyPacketDirection);
+        return directionIndex == null ? Collections.emptyList() : Collections.unmodifiableList(directionIndex.entries);
+    }
+
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    public static final class Entry {
+
+        private final NettyPacketTyping<?> packetTyping;
+        private final NettyPacketDirection packetDirection;
+
+        private final Class<? extends NettyPacket> packetClass;
+        private final Object packetId;
+
+        private final Supplier<NettyPacket> packetFactory;
+        private final NettyPacketCodec<? extends NettyPacket> packetCodec;
+
+
+        /**
+         * Создать новый экземпляр пакета
+         * через закешированную фабрику
+         */
+        public NettyPacket createPacket() {
+            if (packetFactory == null) {
+                throw new NettyException(String.format("NettyPacket %s is not registered for decode", packetClass.getName()));
+            }
+
+            return packetFactory.get();
+        }
+
+        /**
+         * Записать содержимое пакета через сгенерированный
+         * кодек, а при его отсутствии - через сам пакет
+         *
+         * @param nettyPacket       - пакет
+         * @param nettyPacketBuffer - хранилище байтов
+         */
+        @SuppressWarnings("unchecked")
+        public void writePacket(@NonNull NettyPacket nettyPacket, @NonNull NettyPacketBuffer nettyPacketBuffer) {
+            if (packetCodec == null) {
+                nettyPacket.writePacket(nettyPacketBuffer);
+                return;
+            }
+
+            ((NettyPacketCodec<NettyPacket>) packetCodec).write(nettyPacket, nettyPacketBuffer);
+        }
+
+        /**
+         * Прочитать содержимое пакета через сгенерированный
+         * кодек, а при его отсутствии - через сам пакет
+         *
+         * @param nettyPacket       - пакет
+         * @param nettyPacketBuffer - хранилище байтов
+         */
+        @SuppressWarnings("unchecked")
+        public void readPacket(@NonNull NettyPacket nettyPacket, @NonNull NettyPacketBuffer nettyPacketBuffer) {
+            if (packetCodec == null) {
+                nettyPacket.readPacket(nettyPacketBuffer);
+                return;
+            }
+
+            ((NettyPacketCodec<NettyPacket>) packetCodec).read(nettyPacket, nettyPacketBuffer);
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<NettyPacketDirection, DirectionIndex> directionIndexes = new EnumMap<>(NettyPacketDirection.class);
+
+        private DirectionIndex getDirectionIndex(NettyPacketDirection nettyPacketDirection) {
+            return directionIndexes.computeIfAbsent(nettyPacketDirection, direction -> new DirectionIndex());
+        }
+    }
+
+    private static final class DirectionIndex {
+
+        private final List<Entry> entries                                       = new ArrayList<>();
+
+        private final Map<Class<? extends NettyPacket>, Entry> classIndex       = new HashMap<>();
+        private final Map<Object, Entry> idIndex                                = new HashMap<>();
+        private final TIntObjectMap<Entry> intIdIndex                           = new TIntObjectHashMap<>();
+
+        private void addEntry(Entry entry) {
+            Object nettyPacketId = entry.getPacketId();
+
+            if (classIndex.containsKey(entry.getPacketClass())) {
+                return;
+            }
+
+            if (nettyPacketId instanceof Integer) {
+
+                if (intIdIndex.containsKey((Integer) nettyPacketId)) {
+                    return;
+                }
+
+                intIdIndex.put((Integer) nettyPacketId, entry);
+
+            } else if (idIndex.putIfAbsent(nettyPacketId, entry) != null) {
+                return;
+            }
+
+            classIndex.put(entry.getPacketClass(), entry);
+            entries.add(entry);
+        }
+    }
+
+}
@@ -10,6 +10,7 @@ import org.reflections.util.FilterBuilder;
 import org.stonlexx.gamelibrary.common.netty.packet.NettyPacket;
 import org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketAutoRegister;
 import org.stonlexx.gamelibrary.common.netty.packet.mapping.NettyPacketMapper;
+import org.stonlexx.gamelibrary.utility.index.ClassIndex;
 import org.stonlexx.gamelibrary.utility.query.ResponseHandler;
 
 import java.util.*;
@@ -31,7 +32,10 @@ public class NettyPacketTyping<T> {
 // ================================================================================================================== //
 
     @Getter
-    private static final Map<String, NettyPacketTyping<?>> packetTypingMap = new HashMap<>();
+    private static final Map<String, NettyPacketTyping<?>> packetTypingMap = new LinkedHashMap<>();
+
+    @Getter
+    private static final NettyPacketIndex packetIndex = new NettyPacketIndex();
 
 
     public static <T> NettyPacketTyping<T> createPacketTyping(@NonNull Class<T> packetKeyClass,
@@ -45,11 +49,14 @@ public class NettyPacketTyping<T> {
 
                                                               ResponseHandler<T, Class<? extends NettyPacket>> packetKeyHandler) {
 
-        NettyPacketTyping<T> nettyPacketTyping = (NettyPacketTyping<T>) packetTypingMap.computeIfAbsent(typingName.toLowerCase(), NettyPacketTyping::new);
-        nettyPacketTyping.packetKeyHandler = packetKeyHandler;
-        nettyPacketTyping.packetKeyClass = packetKeyClass;
+        // индекс перебирает типизации при пересборке
+        synchronized (packetIndex) {
+            NettyPacketTyping<T> nettyPacketTyping = (NettyPacketTyping<T>) packetTypingMap.computeIfAbsent(typingName.toLowerCase(), NettyPacketTyping::new);
+            nettyPacketTyping.packetKeyHandler = packetKeyHandler;
+            nettyPacketTyping.packetKeyClass = packetKeyClass;
 
-        return nettyPacketTyping;
+            return nettyPacketTyping;
+        }
     }
 
 // ================================================================================================================== //
@@ -60,9 +67,33 @@ public class NettyPacketTyping<T> {
      * имеют аннотацию {@link org.stonlexx.gamelibrary.common.netty.packet.annotation.PacketAutoRegister}
      * и хранятся в указанном пакейдже
      *
+     * Пакеты берутся из индекса {@link ClassIndex}, а classpath
+     * сканируется только при его отсутствии
+     *
      * @param packageName - имя пакейджа для скана
      */
     public void autoRegisterPackets(@NonNull String packageName) {
+        for (Class<?> packetClass : findAutoRegisterPackets(packageName)) {
+            PacketAutoRegister packetAutoRegister = packetClass.getDeclaredAnnotation(PacketAutoRegister.class);
+
+            if (packetAutoRegister == null || !NettyPacket.class.isAssignableFrom(packetClass)) {
+                continue;
+            }
+
+            String packetId = packetAutoRegister.id();
+            NettyPacketDirection nettyPacketDirection = packetAutoRegister.direction();
+
+            registerPacket(nettyPacketDirection, packetClass.asSubclass(NettyPacket.class), (T) packetId);
+        }
+    }
+
+    private Collection<? extends Class<?>> findAutoRegisterPackets(String packageName) {
+        Collection<Class<?>> indexedClasses = ClassIndex.getAnnotatedClasses(PacketAutoRegister.class, packageName);
+
+        if (indexedClasses != null) {
+            return indexedClasses;
+        }
+
         List<ClassLoader> classLoadersList = new LinkedList<>();
 
         classLoadersList.add(ClasspathHelper.contextClassLoader());
@@ -74,18 +105,7 @@ public class NettyPacketTyping<T> {
                 .setScanners(new SubTypesScanner(false), new ResourcesScanner())
                 .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(packageName))));
 
-        for (Class<? extends NettyPacket> packetClass : reflections.getSubTypesOf(NettyPacket.class)) {
-            PacketAutoRegister packetAutoRegister = packetClass.getDeclaredAnnotation(PacketAutoRegister.class);
-
-            if (packetAutoRegister == null) {
-                continue;
-            }
-
-            String packetId = packetAutoRegister.id();
-            NettyPacketDirection nettyPacketDirection = packetAutoRegister.direction();
-
-            registerPacket(nettyPacketDirection, packetClass, (T) packetId);
-        }
+        return reflections.getSubTypesOf(NettyPacket.class);
     }
 
     /**
@@ -0,0 +1,110 @@
+package org.stonlexx.gamelibrary.utility.index;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Индекс классов с аннотациями, который записывает
+ * процессор аннотаций модуля game-library-processor
+ * на этапе компиляции
+ *
+ * Для каждой аннотации индекс хранит названия классов,
+ * на которых она стоит сама или стоит на их полях и методах.
+ * Чтение индекса заменяет сканирование всего classpath
+ * через Reflections, которое на больших jar занимает секунды
+ */
+@UtilityClass
+public class ClassIndex {
+
+    /**
+     * Папка индекса внутри jar, в ней на каждую
+     * аннотацию лежит файл с ее полным названием
+     */
+    public final String INDEX_DIRECTORY = "META-INF/gamelibrary/index/";
+
+
+    /**
+     * Получить классы указанного пакейджа, на которых
+     * (или на полях и методах которых) стоит аннотация
+     *
+     * Возвращает null, если индекс не найден или в нем нет
+     * ни одного класса пакейджа - например, когда проект собран
+     * без процессора аннотаций. В этом случае вызывающий
+     * код должен вернуться к сканированию classpath
+     *
+     * @param annotationType - класс аннотации
+     * @param packageName    - пакейдж для поиска
+     */
+    public Collection<Class<?>> getAnnotatedClasses(@NonNull Class<? extends Annotation> annotationType,
+                                                    @NonNull String packageName) {
+
+        Set<ClassLoader> classLoaders = new LinkedHashSet<>();
+
+        if (Thread.currentThread().getContextClassLoader() != null) {
+            classLoaders.add(Thread.currentThread().getContextClassLoader());
+        }
+
+        classLoaders.add(ClassIndex.class.getClassLoader());
+
+        Map<String, Class<?>> annotatedClasses = new LinkedHashMap<>();
+
+        for (ClassLoader classLoader : classLoaders) {
+            for (String className : readIndex(classLoader, annotationType.getName())) {
+
+                if (!className.startsWith(packageName) || annotatedClasses.containsKey(className)) {
+                    continue;
+                }
+
+                try {
+                    annotatedClasses.put(className, Class.forName(className, false, classLoader));
+                }
+
+                // класс удален, а индекс остался от прошлой сборки
+                catch (ClassNotFoundException | LinkageError ignored) {
+                }
+            }
+        }
+
+        return annotatedClasses.isEmpty() ? null : annotatedClasses.values();
+    }
+
+
+    private Collection<String> readIndex(ClassLoader classLoader, String annotationName) {
+        Collection<String> classNames = new ArrayList<>();
+
+        try {
+            Enumeration<URL> indexResources = classLoader.getResources(INDEX_DIRECTORY + annotationName);
+
+            while (indexResources.hasMoreElements()) {
+                URL indexResource = indexResources.nextElement();
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(indexResource.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            classNames.add(line);
+                        }
+                    }
+                }
+            }
+        }
+
+        catch (IOException ignored) {
+            // индекс не читается, классы будут найдены сканированием
+        }
+
+        return classNames;
+    }
+
+}
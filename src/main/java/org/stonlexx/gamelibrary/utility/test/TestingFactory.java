@@ -10,6 +10,7 @@ import org.reflections.scanners.ResourcesScanner;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.FilterBuilder;
+import org.stonlexx.gamelibrary.utility.index.ClassIndex;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -36,23 +37,15 @@ public abstract class TestingFactory<T extends Annotation> {
      * при анализе которого будут искаться
      * тестовые методы
      *
+     * Классы с тестовыми методами сначала
+     * ищутся в индексе {@link ClassIndex}
+     *
      * @param mainPackage - главный Package проекта
      */
     public void setMainPackage(@NonNull String mainPackage) {
-        List<ClassLoader> classLoadersList = new LinkedList<>();
-
-        classLoadersList.add(ClasspathHelper.contextClassLoader());
-        classLoadersList.add(ClasspathHelper.staticClassLoader());
-
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forClassLoader(classLoadersList.toArray(new ClassLoader[0])))
-
-                .setScanners(new MethodAnnotationsScanner(), new ResourcesScanner())
-                .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(mainPackage))));
-
         this.classesWithTestMethodsCollection = new ArrayList<>();
 
-        this.testMethodCollection = reflections.getMethodsAnnotatedWith(annotationType);
+        this.testMethodCollection = findTestMethods(mainPackage);
         this.mainPackage = mainPackage;
 
         for (Method testMethod : testMethodCollection) {
@@ -64,6 +57,38 @@ public abstract class TestingFactory<T extends Annotation> {
         }
     }
 
+    private Collection<Method> findTestMethods(String mainPackage) {
+        Collection<Class<?>> indexedClasses = ClassIndex.getAnnotatedClasses(annotationType, mainPackage);
+
+        if (indexedClasses != null) {
+            Collection<Method> testMethods = new ArrayList<>();
+
+            for (Class<?> indexedClass : indexedClasses) {
+                for (Method method : indexedClass.getDeclaredMethods()) {
+
+                    if (method.isAnnotationPresent(annotationType)) {
+                        testMethods.add(method);
+                    }
+                }
+            }
+
+            return testMethods;
+        }
+
+        List<ClassLoader> classLoadersList = new LinkedList<>();
+
+        classLoadersList.add(ClasspathHelper.contextClassLoader());
+        classLoadersList.add(ClasspathHelper.staticClassLoader());
+
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(ClasspathHelper.forClassLoader(classLoadersList.toArray(new ClassLoader[0])))
+
+                .setScanners(new MethodAnnotationsScanner(), new ResourcesScanner())
+                .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(mainPackage))));
+
+        return reflections.getMethodsAnnotatedWith(annotationType);
+    }
+
     /**
      * Применить все тестовые методы указанного объекта,
      * обработав их через Consumer
@@ -0,0 +1,83 @@
+package org.stonlexx.test.netty;
+
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.CommonLogger;
+import org.stonlexx.gamelibrary.common.netty.datagram.NettyDatagramEndpoint;
+import org.stonlexx.gamelibrary.common.netty.datagram.NettyDatagramStatistics;
+import org.stonlexx.gamelibrary.common.netty.packet.typing.NettyPacketDirection;
+import org.stonlexx.test.netty.packet.ChunkTestPacket;
+import org.stonlexx.test.netty.packet.PositionTestPacket;
+
+import java.util.Arrays;
+
+public class DatagramStarter {
+
+    public static void main(String[] args) throws InterruptedException {
+        CommonLogger commonLogger = GameLibrary.getInstance().getLogger();
+
+        // датаграммы используют те же типизации пакетов, что и TCP
+        GameLibrary.getInstance().getNettyManager().getPacketTyping(int.class, "datagram")
+                .registerPacket(NettyPacketDirection.GLOBAL, PositionTestPacket.class, 0x01);
+
+        GameLibrary.getInstance().getNettyManager().getPacketTyping(int.class, "datagram")
+                .registerPacket(NettyPacketDirection.GLOBAL, ChunkTestPacket.class, 0x02);
+
+        NettyDatagramEndpoint serverEndpoint = NettyDatagramEndpoint.createLocal(1338);
+        NettyDatagramEndpoint clientEndpoint = NettyDatagramEndpoint.createLocal(1339);
+
+        // чанки доставляются надежно, позиции - как получится
+        serverEndpoint.getDatagramSettings().addReliablePacket(ChunkTestPacket.class);
+        clientEndpoint.getDatagramSettings().addReliablePacket(ChunkTestPacket.class);
+
+        serverEndpoint.setPacketListener((sender, nettyPacket) -> {
+
+            if (nettyPacket instanceof ChunkTestPacket) {
+                ChunkTestPacket chunkTestPacket = (ChunkTestPacket) nettyPacket;
+                commonLogger.info("Chunk #" + chunkTestPacket.getChunkId() + " (" + chunkTestPacket.getChunkData().length + " bytes) received from " + sender);
+
+                return;
+            }
+
+            PositionTestPacket positionTestPacket = (PositionTestPacket) nettyPacket;
+            commonLogger.info("Position " + positionTestPacket.getX() + ", " + positionTestPacket.getY() + " (tick " + positionTestPacket.getTick() + ") received from " + sender);
+        });
+
+        serverEndpoint.bind();
+        clientEndpoint.bind();
+
+        Thread.sleep(500);
+
+        for (int tick = 0; tick < 10; tick++) {
+            clientEndpoint.sendPacket(serverEndpoint.getSocketAddress(), new PositionTestPacket(tick, tick * 0.5F, tick * 2F));
+        }
+
+        clientEndpoint.sendPacket(serverEndpoint.getSocketAddress(), new ChunkTestPacket(1, new byte[512]));
+
+        // больше mtu, поэтому уходит несколькими фрагментами
+        byte[] largeChunkData = new byte[8 * clientEndpoint.getDatagramSettings().getMtu()];
+        Arrays.fill(largeChunkData, (byte) 7);
+
+        clientEndpoint.sendPacket(serverEndpoint.getSocketAddress(), new ChunkTestPacket(2, largeChunkData));
+
+        Thread.sleep(1000);
+
+        printStatistics(commonLogger, "Client", clientEndpoint.getDatagramStatistics());
+        printStatistics(commonLogger, "Server", serverEndpoint.getDatagramStatistics());
+
+        clientEndpoint.shutdown();
+        serverEndpoint.shutdown();
+
+        GameLibrary.getInstance().getNettyManager().shutdown();
+    }
+
+    private static void printStatistics(CommonLogger commonLogger, String endpointName, NettyDatagramStatistics datagramStatistics) {
+        commonLogger.info(endpointName + " statistics: sent " + datagramStatistics.getSentPackets() + " packets in " + datagramStatistics.getSentDatagrams() + " datagrams"
+                + ", received " + datagramStatistics.getReceivedPackets() + " packets in " + datagramStatistics.getReceivedDatagrams() + " datagrams"
+                + ", stale " + datagramStatistics.getStalePackets()
+                + ", duplicate " + datagramStatistics.getDuplicatePackets()
+                + ", resent " + datagramStatistics.getResentPackets()
+                + ", lost " + datagramStatistics.getLostPackets()
+                + ", malformed " + datagramStatistics.getMalformedDatagrams());
+    }
+
+}
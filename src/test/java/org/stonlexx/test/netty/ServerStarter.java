@@ -21,7 +21,7 @@ public class ServerStarter {
 
         // парочка классных уникальных фич для серверного бутстрапа
         nettyServer.addNettyClientInactive(new NettyConsumerClientInactive(channel -> commonLogger.info(channel.remoteAddress() + " has been disconnected!")));
-        nettyServer.addNettyClientActive(new NettyConsumerClientActive(channel -> commonLogger.info(channel.remoteAddress() + " was success connected! (id:" + nettyServer.getClientChannelMap().size() + ")")));
+        nettyServer.addNettyClientActive(new NettyConsumerClientActive(channel -> commonLogger.info(channel.remoteAddress() + " was success connected! (id:" + nettyServer.getConnectionRegistry().size() + ")")));
 
         // установка стандартных кодеков, если нужно установить свои,
         //то это можно сделать через setChannelInitializer()
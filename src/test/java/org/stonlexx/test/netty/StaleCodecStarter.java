@@ -0,0 +1,32 @@
+package org.stonlexx.test.netty;
+
+import org.stonlexx.gamelibrary.GameLibrary;
+import org.stonlexx.gamelibrary.common.netty.packet.codec.generated.NettyPacketCodec;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class StaleCodecStarter {
+
+    public static void main(String[] args) throws IOException {
+
+        // кодек удаленного пакета, который остался в META-INF/services
+        // после инкрементальной сборки, не должен ронять запуск библиотеки
+        Path classesDirectory = Files.createTempDirectory("stale-codec");
+        Path servicesFile = classesDirectory.resolve("META-INF/services/" + NettyPacketCodec.class.getName());
+
+        Files.createDirectories(servicesFile.getParent());
+        Files.write(servicesFile, "org.stonlexx.test.netty.packet.RemovedTestPacketCodec\n".getBytes(StandardCharsets.UTF_8));
+
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{classesDirectory.toUri().toURL()},
+                StaleCodecStarter.class.getClassLoader()));
+
+        GameLibrary.getInstance().getLogger().info("GameLibrary started with a stale codec service entry");
+        GameLibrary.getInstance().getNettyManager().shutdown();
+    }
+
+}
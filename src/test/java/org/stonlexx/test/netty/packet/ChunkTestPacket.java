@@ -0,0 +1,35 @@
+package org.stonlexx.test.netty.packet;
+
+import io.netty.channel.Channel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ChunkTestPacket extends AbstractNettyPacket {
+
+    private int chunkId;
+    private byte[] chunkData;
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeVarInt(chunkId);
+        packetBuffer.writeArray(chunkData);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        chunkId = packetBuffer.readVarInt();
+        chunkData = packetBuffer.readArray();
+    }
+
+    @Override
+    public void handle(Channel channel) {
+        // обрабатывается слушателем датаграммного канала
+    }
+
+}
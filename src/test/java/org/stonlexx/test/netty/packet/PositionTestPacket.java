@@ -0,0 +1,41 @@
+package org.stonlexx.test.netty.packet;
+
+import io.netty.channel.Channel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.stonlexx.gamelibrary.common.netty.packet.buf.NettyPacketBuffer;
+import org.stonlexx.gamelibrary.common.netty.packet.impl.AbstractNettyPacket;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class PositionTestPacket extends AbstractNettyPacket {
+
+    private int tick;
+
+    private float x;
+    private float y;
+
+    @Override
+    public void writePacket(NettyPacketBuffer packetBuffer) {
+        packetBuffer.writeVarInt(tick);
+
+        packetBuffer.writeFloat(x);
+        packetBuffer.writeFloat(y);
+    }
+
+    @Override
+    public void readPacket(NettyPacketBuffer packetBuffer) {
+        tick = packetBuffer.readVarInt();
+
+        x = packetBuffer.readFloat();
+        y = packetBuffer.readFloat();
+    }
+
+    @Override
+    public void handle(Channel channel) {
+        // обрабатывается слушателем датаграммного канала
+    }
+
+}